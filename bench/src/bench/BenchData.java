@@ -0,0 +1,197 @@
+package bench;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import io.DataGenerator;
+import model.Company;
+import model.Database;
+import model.Date;
+import model.Product;
+import model.User;
+import model.Warehouse;
+
+/**
+ * Synthetic data shared by the benchmarks. Data is generated from a 
+ * fixed seed so every run measures the same dataset. The data stored 
+ * for the database comes from the data generator, the lists built 
+ * here go beyond the identities the database can hold.
+ * <br><br>
+ * Identities keep the type in their high bits, so the database can 
+ * only hold MAX_IDENTITIES data of each type. Benchmarks of the 
+ * database are limited to that size, the rest use larger sizes.
+ *
+ * @author Manuel Cruz
+ * @version 1.0
+ */
+final class BenchData
+{
+	/** Largest number of data of a type the database can hold */
+	public final static int MAX_IDENTITIES = 0xFFFF;
+
+	/** Seed of the generated data */
+	private final static long SEED = 42;
+
+	/** Names used to build the generated names */
+	private final static String[] NAMES = {"Alpha", "Bravo", "Charlie", "Delta", "Echo", "Foxtrot",
+										   "Golf", "Hotel", "India", "Juliet", "Kilo", "Lima"};
+
+	/**
+	 * Not instantiable.
+	 */
+	private BenchData()
+	{
+		super();
+	}
+
+	/**
+	 * Points the data directory to a new temporary directory. It must be 
+	 * called before the IO is first used, every benchmark runs in its 
+	 * own fork so each one gets its own data.
+	 * @return the temporary directory
+	 * @throws IOException
+	 */
+	public static File useTemporaryDirectory() throws IOException
+	{
+		File directory = Files.createTempDirectory("logistics-bench").toFile();
+		directory.deleteOnExit();
+		System.setProperty("logistics.data", directory.getPath());
+		return directory;
+	}
+
+	/**
+	 * Generates companies.
+	 * @param count - number of companies
+	 * @return the companies
+	 */
+	public static List<Company> companies(int count)
+	{
+		Random random = new Random(SEED);
+		List<Company> companies = new ArrayList<Company>(count);
+		for (int i = 0; i < count; i++)
+			companies.add(new Company(name(random, i), date(random), Database.COMPANY + identity(i)));
+		return companies;
+	}
+
+	/**
+	 * Generates products of the given number of companies.
+	 * @param count - number of products
+	 * @param companies - number of companies the products belong to
+	 * @return the products
+	 */
+	public static List<Product> products(int count, int companies)
+	{
+		Random random = new Random(SEED + 1);
+		List<Product> products = new ArrayList<Product>(count);
+		for (int i = 0; i < count; i++)
+		{
+			int company = Database.COMPANY + identity(random.nextInt(companies));
+			double weight = Math.round(random.nextDouble() * 10000) / 100.0;
+			products.add(new Product(name(random, i), company, Database.PRODUCT + identity(i), weight, date(random)));
+		}
+		return products;
+	}
+
+	/**
+	 * Generates users.
+	 * @param count - number of users
+	 * @return the users
+	 */
+	public static List<User> users(int count)
+	{
+		Random random = new Random(SEED + 2);
+		List<User> users = new ArrayList<User>(count);
+		for (int i = 0; i < count; i++)
+		{
+			String first = NAMES[random.nextInt(NAMES.length)];
+			String last = NAMES[random.nextInt(NAMES.length)];
+			users.add(new User(first, last, date(random), Database.USER + identity(i),
+							   random.nextInt(10) == 0, "user" + i, "password" + i));
+		}
+		return users;
+	}
+
+	/**
+	 * Generates warehouses that stock the given number of products.
+	 * @param count - number of warehouses
+	 * @param products - number of products stocked
+	 * @param stocked - number of products stocked by each warehouse
+	 * @return the warehouses
+	 */
+	public static List<Warehouse> warehouses(int count, int products, int stocked)
+	{
+		Random random = new Random(SEED + 3);
+		List<Warehouse> warehouses = new ArrayList<Warehouse>(count);
+		for (int i = 0; i < count; i++)
+		{
+			Warehouse warehouse = new Warehouse(name(random, i), Integer.MAX_VALUE, date(random), 
+												Database.WAREHOUSE + identity(i));
+			for (int j = 0; j < stocked; j++)
+				warehouse.add(Database.PRODUCT + identity(random.nextInt(products)), 1 + random.nextInt(100));
+			warehouses.add(warehouse);
+		}
+		return warehouses;
+	}
+
+	/**
+	 * Stores a dataset in the data directory with the data generator.
+	 * @param companies - number of companies
+	 * @param products - number of products
+	 * @param users - number of users
+	 * @param warehouses - number of warehouses
+	 */
+	public static void store(int companies, int products, int users, int warehouses)
+	{
+		DataGenerator generator = new DataGenerator(companies, products, users, warehouses);
+		generator.setSeed(SEED);
+		generator.generate();
+	}
+
+	/**
+	 * Shuffles a list with the fixed seed.
+	 * @param list - list to shuffle
+	 * @return the same list
+	 */
+	public static <T> List<T> shuffle(List<T> list)
+	{
+		Collections.shuffle(list, new Random(SEED + 4));
+		return list;
+	}
+
+	/**
+	 * Gets the low bits of the identity of the index-th data. Indexes 
+	 * beyond MAX_IDENTITIES wrap, which only matters to the database.
+	 * @param index - index of the data
+	 * @return low bits of its identity, never 0
+	 */
+	public static int identity(int index)
+	{
+		return 1 + index % MAX_IDENTITIES;
+	}
+
+	/**
+	 * Generates a name.
+	 * @param random - source of randomness
+	 * @param index - index of the data named
+	 * @return the name
+	 */
+	private static String name(Random random, int index)
+	{
+		return NAMES[random.nextInt(NAMES.length)] + " " + NAMES[random.nextInt(NAMES.length)] + " " + index;
+	}
+
+	/**
+	 * Generates a date between 1990 and 2019.
+	 * @param random - source of randomness
+	 * @return the date
+	 */
+	private static Date date(Random random)
+	{
+		return Date.valueOf(1 + random.nextInt(12), 1 + random.nextInt(28), 1990 + random.nextInt(30));
+	}
+}
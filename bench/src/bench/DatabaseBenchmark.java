@@ -0,0 +1,94 @@
+package bench;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import model.Data;
+import model.Database;
+import model.Date;
+import model.Product;
+
+/**
+ * Benchmarks of selecting, inserting and deleting products in the database.
+ * The database holds at most 65535 products, so that is the largest size.
+ *
+ * @author Manuel Cruz
+ * @version 1.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DatabaseBenchmark
+{
+	/** Identity never generated, used to insert and delete a product */
+	private final static int FREE_ID = Database.PRODUCT;
+
+	/** Number of products in the database */
+	@Param({"1000", "65535"})
+	public int size;
+
+	/** Database benchmarked */
+	private Database database;
+
+	/** Identities of the products in a random order */
+	private int[] identities;
+
+	/** Next identity selected */
+	private int next;
+
+	/**
+	 * Stores the products and loads them into the database.
+	 * @throws IOException
+	 */
+	@Setup
+	public void setup() throws IOException
+	{
+		BenchData.useTemporaryDirectory();
+		BenchData.store(100, size, 10, 10);
+
+		database = Database.getInstance();
+		database.run();
+
+		List<Data> products = BenchData.shuffle(database.selectAll(Database.PRODUCT));
+		identities = new int[products.size()];
+		for (int i = 0; i < identities.length; i++)
+			identities[i] = products.get(i).getId();
+	}
+
+	@Benchmark
+	public Data select()
+	{
+		next = next + 1 == identities.length ? 0 : next + 1;
+		return database.select(identities[next]);
+	}
+
+	@Benchmark
+	public List<Data> selectAll()
+	{
+		return database.selectAll(Database.PRODUCT);
+	}
+
+	@Benchmark
+	public boolean insertDelete()
+	{
+		Product product = new Product("Benchmark", Database.COMPANY + 1, FREE_ID, 1.0, new Date());
+		database.insert(product);
+		return database.delete(FREE_ID);
+	}
+}
@@ -0,0 +1,92 @@
+package bench;
+
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import model.Date;
+
+/**
+ * Benchmarks of the validation and parsing of dates, against the regex
+ * validation and the split parsing Date used to do.
+ *
+ * @author Manuel Cruz
+ * @version 1.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DateBenchmark
+{
+	/** Regex the dates used to be validated with */
+	private final static String REGEX = "^(1[0-2]|0[1-9])/(3[01]|[12][0-9]|0[1-9])/[0-9]{4}$";
+
+	/** Dates parsed, valid and invalid, as typed in a form */
+	private final String[] dates = {"06/15/2020", "12/31/1999", " 02/29/2024 ", "13/01/2020", "1/2/2020", "02/30/2021", "ab/cd/efgh"};
+
+	/** Next date parsed */
+	private int next;
+
+	/**
+	 * Gets the next date parsed.
+	 * @return date
+	 */
+	private String next()
+	{
+		next = next + 1 == dates.length ? 0 : next + 1;
+		return dates[next];
+	}
+
+	@Benchmark
+	public boolean validDate()
+	{
+		return Date.validDate(next());
+	}
+
+	@Benchmark
+	public boolean validDateRegex()
+	{
+		String string = next();
+		if (string.isBlank())
+			return false;
+
+		// the pattern was compiled on every call
+		return Pattern.compile(REGEX).matcher(string.strip()).matches();
+	}
+
+	@Benchmark
+	public int parse()
+	{
+		return Date.parse(next());
+	}
+
+	@Benchmark
+	public int parseSplit()
+	{
+		// the date was split and each field parsed, then validated apart
+		String[] array = next().strip().split("/");
+		try
+		{
+			int month = Integer.parseInt(array[0]);
+			int day = Integer.parseInt(array[1]);
+			int year = Integer.parseInt(array[2]);
+			return year * 10000 + month * 100 + day;
+		}
+		catch (NumberFormatException | ArrayIndexOutOfBoundsException e)
+		{
+			return -1;
+		}
+	}
+}
@@ -0,0 +1,75 @@
+package bench;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import io.IO;
+import model.Product;
+import model.Warehouse;
+
+/**
+ * Benchmarks of storing data and reading it back in the text format.
+ *
+ * @author Manuel Cruz
+ * @version 1.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class IOBenchmark
+{
+	/** Number of products stocked by each warehouse */
+	private final static int STOCKED = 100;
+
+	/** Number of products stored, and of product entries of all warehouses */
+	@Param({"1000", "100000", "1000000"})
+	public int size;
+
+	/** Products stored */
+	private List<Product> products;
+
+	/** Warehouses stored */
+	private List<Warehouse> warehouses;
+
+	/**
+	 * Generates the data stored.
+	 * @throws IOException
+	 */
+	@Setup
+	public void setup() throws IOException
+	{
+		BenchData.useTemporaryDirectory();
+		products = BenchData.products(size, 1000);
+		warehouses = BenchData.warehouses(size / STOCKED, size, STOCKED);
+	}
+
+	@Benchmark
+	public List<Product> products()
+	{
+		IO.getInstance().outputProducts(products);
+		return IO.getInstance().inputProducts();
+	}
+
+	@Benchmark
+	public List<Warehouse> warehouses()
+	{
+		IO.getInstance().outputWarehouses(warehouses);
+		return IO.getInstance().inputWarehouses();
+	}
+}
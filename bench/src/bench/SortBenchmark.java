@@ -0,0 +1,248 @@
+package bench;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import model.Comparators;
+import model.Data;
+import model.Database;
+import model.ProductSorter;
+
+/**
+ * Benchmarks of sorting each type of data by each of its sorting modes, 
+ * the way the tables sort them. Each invocation sorts a copy of a 
+ * shuffled list, so the copy is measured too.
+ *
+ * @author Manuel Cruz
+ * @version 1.0
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SortBenchmark
+{
+	/** Number of companies the products belong to */
+	private final static int COMPANIES = 1000;
+
+	/**
+	 * Shuffled data of a type and its size.
+	 */
+	@State(Scope.Benchmark)
+	public static abstract class Dataset
+	{
+		/** Number of data sorted */
+		@Param({"1000", "100000", "1000000"})
+		public int size;
+
+		/** Shuffled data */
+		protected List<Data> data;
+
+		/**
+		 * Loads the companies products are sorted by and builds the data.
+		 * @throws IOException
+		 */
+		@Setup
+		public void setup() throws IOException
+		{
+			BenchData.useTemporaryDirectory();
+			BenchData.store(COMPANIES, 0, 1, 0);
+			Database.getInstance().run();
+
+			data = BenchData.shuffle(new ArrayList<Data>(generate(size)));
+		}
+
+		/**
+		 * Generates the data sorted.
+		 * @param size - number of data
+		 * @return the data
+		 */
+		protected abstract List<? extends Data> generate(int size);
+
+		/**
+		 * Sorts the data by the sorting mode benchmarked.
+		 * @param data - data to sort
+		 */
+		protected void sort(List<Data> data)
+		{
+			data.sort(Comparators.get(type(), mode()));
+		}
+
+		/**
+		 * Gets the type of the data sorted.
+		 * @return the type of data
+		 */
+		protected abstract int type();
+
+		/**
+		 * Gets the sorting mode benchmarked.
+		 * @return the sorting mode
+		 */
+		protected abstract int mode();
+	}
+
+	/**
+	 * Products sorted by name, company, weight, date or id.
+	 */
+	public static class Products extends Dataset
+	{
+		@Param({"0", "1", "2", "3", "4"})
+		public int mode;
+
+		@Override
+		protected List<? extends Data> generate(int size)
+		{
+			return BenchData.products(size, COMPANIES);
+		}
+
+		@Override
+		protected int type()
+		{
+			return Database.PRODUCT;
+		}
+
+		@Override
+		protected int mode()
+		{
+			return mode;
+		}
+
+		@Override
+		protected void sort(List<Data> data)
+		{
+			ProductSorter.sort(data, mode);
+		}
+	}
+
+	/**
+	 * Companies sorted by name, date or id.
+	 */
+	public static class Companies extends Dataset
+	{
+		@Param({"0", "1", "2"})
+		public int mode;
+
+		@Override
+		protected List<? extends Data> generate(int size)
+		{
+			return BenchData.companies(size);
+		}
+
+		@Override
+		protected int type()
+		{
+			return Database.COMPANY;
+		}
+
+		@Override
+		protected int mode()
+		{
+			return mode;
+		}
+	}
+
+	/**
+	 * Users sorted by first name, last name, birthday, username or id.
+	 */
+	public static class Users extends Dataset
+	{
+		@Param({"0", "1", "2", "4", "6"})
+		public int mode;
+
+		@Override
+		protected List<? extends Data> generate(int size)
+		{
+			return BenchData.users(size);
+		}
+
+		@Override
+		protected int type()
+		{
+			return Database.USER;
+		}
+
+		@Override
+		protected int mode()
+		{
+			return mode;
+		}
+	}
+
+	/**
+	 * Warehouses sorted by name, capacity, product count, quantity, date or id.
+	 */
+	public static class Warehouses extends Dataset
+	{
+		@Param({"0", "1", "2", "3", "4", "5"})
+		public int mode;
+
+		@Override
+		protected List<? extends Data> generate(int size)
+		{
+			return BenchData.warehouses(size, COMPANIES, 5);
+		}
+
+		@Override
+		protected int type()
+		{
+			return Database.WAREHOUSE;
+		}
+
+		@Override
+		protected int mode()
+		{
+			return mode;
+		}
+	}
+
+	@Benchmark
+	public List<Data> products(Products products)
+	{
+		return sort(products);
+	}
+
+	@Benchmark
+	public List<Data> companies(Companies companies)
+	{
+		return sort(companies);
+	}
+
+	@Benchmark
+	public List<Data> users(Users users)
+	{
+		return sort(users);
+	}
+
+	@Benchmark
+	public List<Data> warehouses(Warehouses warehouses)
+	{
+		return sort(warehouses);
+	}
+
+	/**
+	 * Sorts a copy of the data of a dataset.
+	 * @param dataset - dataset to sort
+	 * @return the sorted copy
+	 */
+	private static List<Data> sort(Dataset dataset)
+	{
+		List<Data> copy = new ArrayList<Data>(dataset.data);
+		dataset.sort(copy);
+		return copy;
+	}
+}
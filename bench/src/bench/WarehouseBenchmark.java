@@ -0,0 +1,75 @@
+package bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import model.Database;
+import model.Date;
+import model.Warehouse;
+
+/**
+ * Benchmarks of the stock of a single warehouse.
+ *
+ * @author Manuel Cruz
+ * @version 1.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class WarehouseBenchmark
+{
+	/** Number of products stocked */
+	@Param({"1000", "100000", "1000000"})
+	public int size;
+
+	/** Warehouse benchmarked */
+	private Warehouse warehouse;
+
+	/** Next product changed */
+	private int next;
+
+	/**
+	 * Stocks the warehouse.
+	 */
+	@Setup
+	public void setup()
+	{
+		warehouse = new Warehouse("Benchmark", Integer.MAX_VALUE, new Date(), Database.WAREHOUSE + 1);
+		for (int i = 0; i < size; i++)
+			warehouse.add(Database.PRODUCT + i, 10);
+	}
+
+	@Benchmark
+	public int getQuantity()
+	{
+		return warehouse.getQuantity();
+	}
+
+	@Benchmark
+	public boolean full()
+	{
+		return warehouse.full();
+	}
+
+	@Benchmark
+	public boolean removeAdd()
+	{
+		next = next + 1 == size ? 0 : next + 1;
+		warehouse.remove(Database.PRODUCT + next, 10);
+		return warehouse.add(Database.PRODUCT + next, 10);
+	}
+}
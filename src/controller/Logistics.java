@@ -339,6 +339,10 @@ public class Logistics implements Runnable, WindowListener
 			Utilities.getInstance().error(message);
 		}
 		
+		// the panel left stops its work
+		if (frame.getContentPane() instanceof Panel && frame.getContentPane() != panel)
+			((Panel) frame.getContentPane()).cancel();
+		
 		// change content panel
 		frame.setContentPane(panel);
 		
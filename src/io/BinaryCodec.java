@@ -0,0 +1,571 @@
+package io;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+import model.Company;
+import model.Database;
+import model.Date;
+import model.Product;
+import model.User;
+import model.Warehouse;
+
+/**
+ * Reads and writes the data files in a compact binary format. Every
+ * file starts with a header holding a magic number, the version of
+ * the format, the type of data and the number of records. Strings are
+ * stored as their UTF-8 length followed by their bytes and dates as a
+ * single yyyymmdd int.
+ * <br><br>
+ * A codec reads or writes one file at a time, so it must not be shared
+ * by files loaded at the same time.
+ *
+ * @author Manuel Cruz
+ * @version 1.0
+ */
+class BinaryCodec
+{
+	/** Magic number that starts a binary file, "LGSB" */
+	private final static int MAGIC = 0x4C475342;
+
+	/** Version of the binary format */
+	private final static int VERSION = 1;
+
+	/** Size of the buffer used to read and write */
+	private final static int BUFFER_SIZE = 1 << 16;
+
+	/** Channel of the file being read or written */
+	private FileChannel channel;
+
+	/** Buffer of the file being read or written */
+	private ByteBuffer buffer;
+
+	/** Whether the open channel is used to write */
+	private boolean writing;
+
+	/**
+	 * Simple constructor of a codec.
+	 */
+	public BinaryCodec()
+	{
+		super();
+	}
+
+	/**
+	 * Checks whether the given file is stored in the binary format.
+	 *
+	 * @param fileName - file name to check
+	 * @return true if it starts with the binary header. False otherwise.
+	 * @throws IOException
+	 */
+	public boolean accepts(String fileName) throws IOException
+	{
+		File file = new File(fileName);
+		if (!file.isFile() || file.length() < 4)
+			return false;
+
+		try (FileChannel fc = FileChannel.open(file.toPath(), StandardOpenOption.READ))
+		{
+			ByteBuffer magic = ByteBuffer.allocate(4);
+			while (magic.hasRemaining() && fc.read(magic) >= 0);
+			magic.flip();
+			return magic.remaining() == 4 && magic.getInt() == MAGIC;
+		}
+	}
+
+	/**
+	 * Reads companies from the given binary file.
+	 *
+	 * @param fileName - file name of the companies
+	 * @return a list of all of the companies
+	 * @throws IOException
+	 */
+	public List<Company> companies(String fileName) throws IOException
+	{
+		int count = open(fileName, Database.COMPANY);
+		List<Company> companies = new ArrayList<Company>(count);
+		try
+		{
+			for (int i = 0; i < count; i++)
+			{
+				String name = readString();
+				Date date = readDate();
+				int id = readInt();
+				companies.add(new Company(name, date, id));
+			}
+		}
+		finally
+		{
+			close();
+		}
+		return companies;
+	}
+
+	/**
+	 * Reads products from the given binary file.
+	 *
+	 * @param fileName - file name of the products
+	 * @return a list of all of the products
+	 * @throws IOException
+	 */
+	public List<Product> products(String fileName) throws IOException
+	{
+		int count = open(fileName, Database.PRODUCT);
+		List<Product> products = new ArrayList<Product>(count);
+		try
+		{
+			for (int i = 0; i < count; i++)
+			{
+				String name = readString();
+				int company = readInt();
+				double weight = readDouble();
+				Date date = readDate();
+				int id = readInt();
+				products.add(new Product(name, company, id, weight, date));
+			}
+		}
+		finally
+		{
+			close();
+		}
+		return products;
+	}
+
+	/**
+	 * Reads users from the given binary file.
+	 *
+	 * @param fileName - file name of the users
+	 * @return a list of all of the users
+	 * @throws IOException
+	 */
+	public List<User> users(String fileName) throws IOException
+	{
+		int count = open(fileName, Database.USER);
+		List<User> users = new ArrayList<User>(count);
+		try
+		{
+			for (int i = 0; i < count; i++)
+			{
+				String first = readString();
+				String last = readString();
+				Date birthday = readDate();
+				int id = readInt();
+				boolean administrator = readByte() != 0;
+				String username = readString();
+				String password = readString();
+				users.add(new User(first, last, birthday, id, administrator, username, password));
+			}
+		}
+		finally
+		{
+			close();
+		}
+		return users;
+	}
+
+	/**
+	 * Reads warehouses from the given binary file.
+	 *
+	 * @param fileName - file name of the warehouses
+	 * @return a list of all of the warehouses
+	 * @throws IOException
+	 */
+	public List<Warehouse> warehouses(String fileName) throws IOException
+	{
+		int count = open(fileName, Database.WAREHOUSE);
+		List<Warehouse> warehouses = new ArrayList<Warehouse>(count);
+		try
+		{
+			for (int i = 0; i < count; i++)
+			{
+				String name = readString();
+				int capacity = readInt();
+				Date date = readDate();
+				int id = readInt();
+				Warehouse warehouse = new Warehouse(name, capacity, date, id);
+
+				int products = readInt();
+				for (int j = 0; j < products; j++)
+				{
+					int product = readInt();
+					int quantity = readInt();
+					warehouse.add(product, quantity);
+				}
+				warehouses.add(warehouse);
+			}
+		}
+		finally
+		{
+			close();
+		}
+		return warehouses;
+	}
+
+	/**
+	 * Stores companies in the given binary file.
+	 *
+	 * @param companies - companies to store
+	 * @param fileName - file name of the companies
+	 * @throws IOException
+	 */
+	public void companies(List<Company> companies, String fileName) throws IOException
+	{
+		File temporary = create(fileName, Database.COMPANY, companies.size());
+		try
+		{
+			for (Company company : companies)
+			{
+				writeString(company.getName());
+				writeDate(company.getDate());
+				writeInt(company.getId());
+			}
+		}
+		finally
+		{
+			close();
+		}
+		Output.replace(temporary, new File(fileName));
+	}
+
+	/**
+	 * Stores products in the given binary file.
+	 *
+	 * @param products - products to store
+	 * @param fileName - file name of the products
+	 * @throws IOException
+	 */
+	public void products(List<Product> products, String fileName) throws IOException
+	{
+		File temporary = create(fileName, Database.PRODUCT, products.size());
+		try
+		{
+			for (Product product : products)
+			{
+				writeString(product.getName());
+				writeInt(product.getCompany());
+				writeDouble(product.getWeight());
+				writeDate(product.getDate());
+				writeInt(product.getId());
+			}
+		}
+		finally
+		{
+			close();
+		}
+		Output.replace(temporary, new File(fileName));
+	}
+
+	/**
+	 * Stores users in the given binary file.
+	 *
+	 * @param users - users to store
+	 * @param fileName - file name of the users
+	 * @throws IOException
+	 */
+	public void users(List<User> users, String fileName) throws IOException
+	{
+		File temporary = create(fileName, Database.USER, users.size());
+		try
+		{
+			for (User user : users)
+			{
+				writeString(user.getFirstName());
+				writeString(user.getLastName());
+				writeDate(user.getBirthday());
+				writeInt(user.getId());
+				writeByte(user.isAdministrator() ? 1 : 0);
+				writeString(user.getUsername());
+				writeString(user.getPassword());
+			}
+		}
+		finally
+		{
+			close();
+		}
+		Output.replace(temporary, new File(fileName));
+	}
+
+	/**
+	 * Stores warehouses in the given binary file.
+	 *
+	 * @param warehouses - warehouses to store
+	 * @param fileName - file name of the warehouses
+	 * @throws IOException
+	 */
+	public void warehouses(List<Warehouse> warehouses, String fileName) throws IOException
+	{
+		File temporary = create(fileName, Database.WAREHOUSE, warehouses.size());
+		try
+		{
+			for (Warehouse warehouse : warehouses)
+			{
+				writeString(warehouse.getName());
+				writeInt(warehouse.getCapacity());
+				writeDate(warehouse.getDate());
+				writeInt(warehouse.getId());
+
+				int[] products = warehouse.getProductIds();
+				writeInt(products.length);
+				for (int product : products)
+				{
+					writeInt(product);
+					writeInt(warehouse.getProductQuantity(product));
+				}
+			}
+		}
+		finally
+		{
+			close();
+		}
+		Output.replace(temporary, new File(fileName));
+	}
+
+	/**
+	 * Opens a binary file to read and checks its header.
+	 *
+	 * @param fileName - file name to read
+	 * @param type - type of data expected
+	 * @return number of records in the file
+	 * @throws IOException - if the header is not valid
+	 */
+	private int open(String fileName, int type) throws IOException
+	{
+		channel = FileChannel.open(new File(fileName).toPath(), StandardOpenOption.READ);
+		buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+		buffer.flip(); // starts empty
+		writing = false;
+
+		boolean valid = readInt() == MAGIC && readInt() == VERSION && readInt() == type;
+		if (!valid)
+		{
+			close();
+			throw new IOException("BinaryCodec - open(String fileName, int type) - invalid header: " + fileName);
+		}
+
+		int count = readInt();
+		if (count < 0)
+		{
+			close();
+			throw new IOException("BinaryCodec - open(String fileName, int type) - invalid count: " + fileName);
+		}
+		return count;
+	}
+
+	/**
+	 * Creates the temporary binary file to write and writes its header.
+	 *
+	 * @param fileName - file name to write
+	 * @param type - type of data stored
+	 * @param count - number of records stored
+	 * @return the temporary file being written
+	 * @throws IOException
+	 */
+	private File create(String fileName, int type, int count) throws IOException
+	{
+		File temporary = new File(fileName + ".tmp");
+		channel = FileChannel.open(temporary.toPath(), StandardOpenOption.CREATE,
+								   StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+		buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+		writing = true;
+
+		writeInt(MAGIC);
+		writeInt(VERSION);
+		writeInt(type);
+		writeInt(count);
+		return temporary;
+	}
+
+	/**
+	 * Closes the file being read or written. Pending writes are flushed.
+	 *
+	 * @throws IOException
+	 */
+	private void close() throws IOException
+	{
+		try
+		{
+			if (writing)
+			{
+				buffer.flip();
+				while (buffer.hasRemaining())
+					channel.write(buffer);
+			}
+		}
+		finally
+		{
+			channel.close();
+			channel = null;
+			buffer = null;
+		}
+	}
+
+	/**
+	 * Makes sure the buffer has the given number of bytes to read.
+	 *
+	 * @param bytes - number of bytes needed
+	 * @throws IOException - if the file ends first
+	 */
+	private void require(int bytes) throws IOException
+	{
+		if (buffer.remaining() >= bytes)
+			return;
+
+		if (bytes > buffer.capacity())
+		{
+			ByteBuffer larger = ByteBuffer.allocateDirect(bytes);
+			larger.put(buffer);
+			buffer = larger;
+		}
+		else
+			buffer.compact();
+
+		while (buffer.position() < bytes)
+		{
+			if (channel.read(buffer) < 0)
+				throw new IOException("BinaryCodec - require(int bytes) - unexpected end of file");
+		}
+		buffer.flip();
+	}
+
+	/**
+	 * Makes sure the buffer has room for the given number of bytes to write.
+	 *
+	 * @param bytes - number of bytes needed
+	 * @throws IOException
+	 */
+	private void reserve(int bytes) throws IOException
+	{
+		if (buffer.remaining() >= bytes)
+			return;
+
+		buffer.flip();
+		while (buffer.hasRemaining())
+			channel.write(buffer);
+		buffer.clear();
+
+		if (bytes > buffer.capacity())
+			buffer = ByteBuffer.allocateDirect(bytes);
+	}
+
+	/**
+	 * Reads an int.
+	 * @return the int read
+	 * @throws IOException
+	 */
+	private int readInt() throws IOException
+	{
+		require(4);
+		return buffer.getInt();
+	}
+
+	/**
+	 * Reads a byte.
+	 * @return the byte read
+	 * @throws IOException
+	 */
+	private byte readByte() throws IOException
+	{
+		require(1);
+		return buffer.get();
+	}
+
+	/**
+	 * Reads a double.
+	 * @return the double read
+	 * @throws IOException
+	 */
+	private double readDouble() throws IOException
+	{
+		require(8);
+		return buffer.getDouble();
+	}
+
+	/**
+	 * Reads a date packed as yyyymmdd.
+	 * @return the date read
+	 * @throws IOException
+	 */
+	private Date readDate() throws IOException
+	{
+		return Date.valueOfPacked(readInt());
+	}
+
+	/**
+	 * Reads a length prefixed UTF-8 string.
+	 * @return the string read
+	 * @throws IOException
+	 */
+	private String readString() throws IOException
+	{
+		int length = readInt();
+		if (length < 0)
+			throw new IOException("BinaryCodec - readString() - invalid length");
+
+		require(length);
+		byte[] bytes = new byte[length];
+		buffer.get(bytes);
+		return new String(bytes, StandardCharsets.UTF_8);
+	}
+
+	/**
+	 * Writes an int.
+	 * @param value - int to write
+	 * @throws IOException
+	 */
+	private void writeInt(int value) throws IOException
+	{
+		reserve(4);
+		buffer.putInt(value);
+	}
+
+	/**
+	 * Writes the low byte of the given value.
+	 * @param value - byte to write
+	 * @throws IOException
+	 */
+	private void writeByte(int value) throws IOException
+	{
+		reserve(1);
+		buffer.put((byte) value);
+	}
+
+	/**
+	 * Writes a double.
+	 * @param value - double to write
+	 * @throws IOException
+	 */
+	private void writeDouble(double value) throws IOException
+	{
+		reserve(8);
+		buffer.putDouble(value);
+	}
+
+	/**
+	 * Writes a date packed as yyyymmdd.
+	 * @param date - date to write
+	 * @throws IOException
+	 */
+	private void writeDate(Date date) throws IOException
+	{
+		writeInt(date.getPacked());
+	}
+
+	/**
+	 * Writes a length prefixed UTF-8 string.
+	 * @param value - string to write
+	 * @throws IOException
+	 */
+	private void writeString(String value) throws IOException
+	{
+		byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+		writeInt(bytes.length);
+		reserve(bytes.length);
+		buffer.put(bytes);
+	}
+}
@@ -0,0 +1,33 @@
+package io;
+
+/**
+ * Command line tool that converts the stored data files between 
+ * the legacy text format and the binary format. It must be run 
+ * from the same directory as the app so it finds the data.
+ * <br><br>
+ * Usage: java io.Converter binary|text
+ * 
+ * @author Manuel Cruz
+ * @version 1.0
+ */
+public class Converter 
+{
+	/**
+	 * Start point of the converter.
+	 * @param args - format to convert to, binary or text
+	 */
+	public static void main(String[] args)
+	{
+		if (args.length != 1 || !(args[0].equals("binary") || args[0].equals("text")))
+		{
+			System.err.println("Usage: java io.Converter binary|text");
+			System.exit(-1);
+		}
+		
+		if (!IO.getInstance().convert(args[0].equals("binary")))
+		{
+			System.err.println("Converter - Failure to read data");
+			System.exit(-1);
+		}
+	}
+}
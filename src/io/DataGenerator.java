@@ -0,0 +1,427 @@
+package io;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Random;
+import java.util.function.IntFunction;
+
+import model.Company;
+import model.Database;
+import model.Date;
+import model.Product;
+import model.User;
+import model.Warehouse;
+
+/**
+ * Generates synthetic data files to test the app at a large scale.
+ * Products are stocked by the warehouses following a Zipf distribution,
+ * so a few products are stocked by most warehouses and most products
+ * by a few. The same seed always generates the same data.
+ * <br><br>
+ * The low 16 bits of an identity are the only ones left to tell data
+ * of the same type apart, so at most MAX_COUNT data of each type can
+ * be generated. The first user is always the default administrator.
+ * <br><br>
+ * Usage: java io.DataGenerator [companies=N] [products=N] [users=N]
+ * [warehouses=N] [stock=N] [skew=S] [seed=N] [stream]
+ * <br>
+ * With stream every data is generated while it is written in the
+ * text format, so no more than one data is held in memory.
+ *
+ * @author Manuel Cruz
+ * @version 1.0
+ */
+public class DataGenerator
+{
+	/** Largest number of data of a type that can be generated */
+	public final static int MAX_COUNT = 0xFFFF;
+
+	/** Names used to build the generated names */
+	private final static String[] NAMES = {"Alpha", "Bravo", "Charlie", "Delta", "Echo", "Foxtrot",
+										   "Golf", "Hotel", "India", "Juliet", "Kilo", "Lima",
+										   "Mike", "November", "Oscar", "Papa", "Quebec", "Romeo"};
+
+	/** Number of companies generated */
+	private int companies;
+
+	/** Number of products generated */
+	private int products;
+
+	/** Number of users generated */
+	private int users;
+
+	/** Number of warehouses generated */
+	private int warehouses;
+
+	/** Number of products stocked by each warehouse */
+	private int stock;
+
+	/** Exponent of the Zipf distribution of the stocked products */
+	private double skew;
+
+	/** Seed of the generated data */
+	private long seed;
+
+	/**
+	 * Explicit constructor of a generator. Each warehouse stocks 100
+	 * products with a skew of 1.
+	 * @param companies - number of companies
+	 * @param products - number of products
+	 * @param users - number of users, including the administrator
+	 * @param warehouses - number of warehouses
+	 */
+	public DataGenerator(int companies, int products, int users, int warehouses)
+	{
+		super();
+		this.companies = count(companies);
+		this.products = count(products);
+		this.users = Math.max(1, count(users));
+		this.warehouses = count(warehouses);
+		setStock(100);
+		setSkew(1.0);
+		setSeed(42);
+	}
+
+	/**
+	 * Sets the number of products stocked by each warehouse.
+	 * It cannot be more than the number of products.
+	 * @param stock - number of products stocked
+	 */
+	public void setStock(int stock)
+	{
+		this.stock = Math.max(0, stock);
+	}
+
+	/**
+	 * Sets the exponent of the Zipf distribution of the stocked
+	 * products. 0 stocks every product equally.
+	 * @param skew - exponent of the distribution
+	 */
+	public void setSkew(double skew)
+	{
+		this.skew = Math.max(0, skew);
+	}
+
+	/**
+	 * Sets the seed of the generated data.
+	 * @param seed - seed of the data
+	 */
+	public void setSeed(long seed)
+	{
+		this.seed = seed;
+	}
+
+	/**
+	 * Generates the data and stores it through the IO, in the format
+	 * the IO is set to. All of the data is held in memory.
+	 */
+	public void generate()
+	{
+		IO io = IO.getInstance();
+		io.outputCompanies(collect(companies()));
+		io.outputProducts(collect(products()));
+		io.outputUsers(collect(users()));
+		io.outputWarehouses(collect(warehouses()));
+		io.clearJournal();
+	}
+
+	/**
+	 * Generates the data while it is written in the text format.
+	 * @throws IOException
+	 */
+	public void stream() throws IOException
+	{
+		Output output = new Output(IO.DATA_DIRECTORY);
+		output.companies(companies(), IO.COMPANIES_FILE);
+		output.products(products(), IO.PRODUCTS_FILE);
+		output.users(users(), IO.USERS_FILE);
+		output.warehouses(warehouses(), IO.WAREHOUSES_FILE);
+
+		// an old catalog or journal would be loaded on top of the new data
+		IO.getInstance().setCurrent(IO.PRODUCTS_FILE);
+		IO.getInstance().clearJournal();
+	}
+
+	/**
+	 * Generates the companies.
+	 * @return the companies, generated as they are iterated
+	 */
+	public Iterable<Company> companies()
+	{
+		Random random = new Random(seed);
+		return generate(companies, i -> new Company(name(random, i), date(random), Database.COMPANY + i + 1));
+	}
+
+	/**
+	 * Generates the products. Each one belongs to a random company.
+	 * @return the products, generated as they are iterated
+	 */
+	public Iterable<Product> products()
+	{
+		Random random = new Random(seed + 1);
+		return generate(products, i -> {
+			int company = Database.COMPANY + 1 + random.nextInt(Math.max(1, companies));
+			double weight = Math.round(random.nextDouble() * 10000) / 100.0;
+			return new Product(name(random, i), company, Database.PRODUCT + i + 1, weight, date(random));
+		});
+	}
+
+	/**
+	 * Generates the users. The first one is the default administrator.
+	 * @return the users, generated as they are iterated
+	 */
+	public Iterable<User> users()
+	{
+		Random random = new Random(seed + 2);
+		return generate(users, i -> {
+			if (i == 0)
+				return new User("Administrator", "Administrator", new Date(),
+								Database.USER, true, "administrator", "administrator");
+
+			String first = NAMES[random.nextInt(NAMES.length)];
+			String last = NAMES[random.nextInt(NAMES.length)];
+			return new User(first, last, date(random), Database.USER + i,
+							random.nextInt(10) == 0, "user" + i, "password" + i);
+		});
+	}
+
+	/**
+	 * Generates the warehouses with the products they stock.
+	 * @return the warehouses, generated as they are iterated
+	 */
+	public Iterable<Warehouse> warehouses()
+	{
+		Random random = new Random(seed + 3);
+		int stocked = Math.min(stock, products);
+		double[] distribution = zipf(products, skew);
+		int[] ranks = permutation(products, new Random(seed + 4));
+
+		return generate(warehouses, i -> {
+			int capacity = stocked * 100 + random.nextInt(100000);
+			Warehouse warehouse = new Warehouse(name(random, i), capacity, date(random), Database.WAREHOUSE + i + 1);
+
+			while (warehouse.getProductCount() < stocked)
+			{
+				// a product already stocked gives way to the next less popular one
+				int rank = sample(distribution, random);
+				while (warehouse.contains(Database.PRODUCT + 1 + ranks[rank]))
+					rank = (rank + 1) % ranks.length;
+
+				warehouse.add(Database.PRODUCT + 1 + ranks[rank], 1 + random.nextInt(100));
+			}
+			return warehouse;
+		});
+	}
+
+	/**
+	 * Builds a cumulative Zipf distribution of the given number of ranks.
+	 * @param ranks - number of ranks
+	 * @param skew - exponent of the distribution
+	 * @return probability of drawing each rank or a lower one
+	 */
+	private static double[] zipf(int ranks, double skew)
+	{
+		double[] distribution = new double[ranks];
+		double total = 0;
+		for (int i = 0; i < ranks; i++)
+		{
+			total += 1 / Math.pow(i + 1, skew);
+			distribution[i] = total;
+		}
+
+		for (int i = 0; i < ranks; i++)
+			distribution[i] /= total;
+		return distribution;
+	}
+
+	/**
+	 * Draws a rank of a cumulative distribution.
+	 * @param distribution - cumulative distribution
+	 * @param random - source of randomness
+	 * @return the rank drawn
+	 */
+	private static int sample(double[] distribution, Random random)
+	{
+		double value = random.nextDouble();
+		int low = 0;
+		int high = distribution.length - 1;
+		while (low < high)
+		{
+			int middle = (low + high) >>> 1;
+			if (distribution[middle] < value)
+				low = middle + 1;
+			else
+				high = middle;
+		}
+		return low;
+	}
+
+	/**
+	 * Builds a random permutation, so the popular products are
+	 * spread among all of the identities.
+	 * @param size - size of the permutation
+	 * @param random - source of randomness
+	 * @return the permutation
+	 */
+	private static int[] permutation(int size, Random random)
+	{
+		int[] permutation = new int[size];
+		for (int i = 0; i < size; i++)
+			permutation[i] = i;
+
+		for (int i = size - 1; i > 0; i--)
+		{
+			int j = random.nextInt(i + 1);
+			int swap = permutation[i];
+			permutation[i] = permutation[j];
+			permutation[j] = swap;
+		}
+		return permutation;
+	}
+
+	/**
+	 * Generates data as it is iterated. Each iteration generates
+	 * the same data only if it is the first one, so it is iterated once.
+	 * @param count - number of data generated
+	 * @param generator - generates the data of an index
+	 * @return the generated data
+	 */
+	private static <T> Iterable<T> generate(int count, IntFunction<T> generator)
+	{
+		return () -> new Iterator<T>()
+		{
+			/** Index of the next data */
+			private int index;
+
+			@Override
+			public boolean hasNext()
+			{
+				return index < count;
+			}
+
+			@Override
+			public T next()
+			{
+				if (!hasNext())
+					throw new NoSuchElementException();
+				return generator.apply(index++);
+			}
+		};
+	}
+
+	/**
+	 * Collects generated data into a list.
+	 * @param data - generated data
+	 * @return a list of the data
+	 */
+	private static <T> List<T> collect(Iterable<T> data)
+	{
+		List<T> list = new ArrayList<T>();
+		for (T value : data)
+			list.add(value);
+		return list;
+	}
+
+	/**
+	 * Keeps a count within the number of identities of a type.
+	 * @param count - requested count
+	 * @return the count that can be generated
+	 */
+	private static int count(int count)
+	{
+		return Math.max(0, Math.min(count, MAX_COUNT));
+	}
+
+	/**
+	 * Generates a name.
+	 * @param random - source of randomness
+	 * @param index - index of the data named
+	 * @return the name
+	 */
+	private static String name(Random random, int index)
+	{
+		return NAMES[random.nextInt(NAMES.length)] + " " + NAMES[random.nextInt(NAMES.length)] + " " + index;
+	}
+
+	/**
+	 * Generates a date between 1990 and 2019.
+	 * @param random - source of randomness
+	 * @return the date
+	 */
+	private static Date date(Random random)
+	{
+		return Date.valueOf(1 + random.nextInt(12), 1 + random.nextInt(28), 1990 + random.nextInt(30));
+	}
+
+	/**
+	 * Start point of the generator.
+	 * @param args - counts of the data as name=value, and stream
+	 */
+	public static void main(String[] args)
+	{
+		int companies = 100, products = 10000, users = 100, warehouses = 100;
+		boolean stream = false;
+		int stock = 100;
+		double skew = 1.0;
+		long seed = 42;
+
+		try
+		{
+			for (String arg : args)
+			{
+				String[] pair = arg.split("=", 2);
+				if (pair.length == 1 && pair[0].equals("stream"))
+					stream = true;
+				else if (pair.length == 2 && pair[0].equals("companies"))
+					companies = Integer.parseInt(pair[1]);
+				else if (pair.length == 2 && pair[0].equals("products"))
+					products = Integer.parseInt(pair[1]);
+				else if (pair.length == 2 && pair[0].equals("users"))
+					users = Integer.parseInt(pair[1]);
+				else if (pair.length == 2 && pair[0].equals("warehouses"))
+					warehouses = Integer.parseInt(pair[1]);
+				else if (pair.length == 2 && pair[0].equals("stock"))
+					stock = Integer.parseInt(pair[1]);
+				else if (pair.length == 2 && pair[0].equals("skew"))
+					skew = Double.parseDouble(pair[1]);
+				else if (pair.length == 2 && pair[0].equals("seed"))
+					seed = Long.parseLong(pair[1]);
+				else
+					throw new IllegalArgumentException(arg);
+			}
+		}
+		catch (IllegalArgumentException e)
+		{
+			System.err.println("Usage: java io.DataGenerator [companies=N] [products=N] [users=N] "
+							 + "[warehouses=N] [stock=N] [skew=S] [seed=N] [stream]");
+			System.exit(-1);
+		}
+
+		if (Math.max(Math.max(companies, products), Math.max(users, warehouses)) > MAX_COUNT)
+			System.err.println("DataGenerator - counts are limited to " + MAX_COUNT + " of each type");
+
+		DataGenerator generator = new DataGenerator(companies, products, users, warehouses);
+		generator.setStock(stock);
+		generator.setSkew(skew);
+		generator.setSeed(seed);
+
+		if (!stream)
+		{
+			generator.generate();
+			return;
+		}
+
+		try
+		{
+			generator.stream();
+		}
+		catch (IOException e)
+		{
+			System.err.println("DataGenerator - IOException: Failure in storing data");
+			System.exit(-1);
+		}
+	}
+}
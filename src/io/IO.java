@@ -1,10 +1,18 @@
 package io;
 
 
+import java.io.File;
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
 import model.Company;
+import model.Data;
 import model.Product;
 import model.User;
 import model.Warehouse;
@@ -16,6 +24,33 @@ import model.Warehouse;
  */
 public class IO 
 {	
+	/** Directory of the data files. It can be changed with the "logistics.data" property */
+	final static String DATA_DIRECTORY = System.getProperty("logistics.data", "../data");
+	
+	/** File name of the companies */
+	final static String COMPANIES_FILE = DATA_DIRECTORY + "/companies.u";
+	
+	/** File name of the products */
+	final static String PRODUCTS_FILE = DATA_DIRECTORY + "/products.u";
+	
+	/** File name of the first mapped product catalog. The next ones are numbered, "products.1.m" and so on */
+	final static String CATALOG_FILE = DATA_DIRECTORY + "/products.m";
+	
+	/** Names of the files of the mapped product catalogs */
+	private final static Pattern CATALOG_NAME = Pattern.compile("products(?:\\.(\\d{1,9}))?\\.m");
+	
+	/** File name of the record of the products file stored last */
+	final static String CURRENT_FILE = DATA_DIRECTORY + "/products.current";
+	
+	/** File name of the users */
+	final static String USERS_FILE = DATA_DIRECTORY + "/users.u";
+	
+	/** File name of the warehouses */
+	final static String WAREHOUSES_FILE = DATA_DIRECTORY + "/warehouses.u";
+	
+	/** File name of the journal */
+	final static String JOURNAL_FILE = DATA_DIRECTORY + "/journal.u";
+	
 	/** Singleton instance */
 	private static IO instance;
 	
@@ -25,6 +60,15 @@ public class IO
 	/** output */
 	private Output output;
 	
+	/** true if data is output in the binary format. False for text */
+	private boolean binary;
+	
+	/** true if products are kept in a mapped catalog */
+	private boolean mapped;
+	
+	/** journal of the changes since the last output */
+	private Journal journal;
+	
 	/**
 	 * Default constructor for IO.
 	 */
@@ -32,7 +76,10 @@ public class IO
 	{
 		super();
 		input = new Input();
-		output = new Output();
+		output = new Output(DATA_DIRECTORY);
+		binary = "binary".equalsIgnoreCase(System.getProperty("logistics.format"));
+		mapped = "mapped".equalsIgnoreCase(System.getProperty("logistics.catalog"));
+		journal = new Journal(JOURNAL_FILE);
 	}
 	
 	/**
@@ -43,7 +90,10 @@ public class IO
 	{
 		try 
 		{
-			output.companies(companies);
+			if (binary)
+				codec().companies(companies, COMPANIES_FILE);
+			else
+				output.companies(companies, COMPANIES_FILE);
 		} 
 		catch (IOException e) 
 		{
@@ -60,7 +110,10 @@ public class IO
 	{
 		try 
 		{
-			output.warehouses(warehouses);
+			if (binary)
+				codec().warehouses(warehouses, WAREHOUSES_FILE);
+			else
+				output.warehouses(warehouses, WAREHOUSES_FILE);
 		} 
 		catch (IOException e) 
 		{
@@ -70,14 +123,26 @@ public class IO
 	}
 	
 	/**
-	 * Output products to store in files.
+	 * Output products to store in files. A catalog is always written to 
+	 * a new file, so a catalog already mapped, by the database or by its 
+	 * snapshots, never changes. The older catalogs are then deleted, or 
+	 * on a later output if they can't be deleted while mapped.
 	 * @param products - list of products to store.
 	 */
 	public void outputProducts(List<Product> products)
 	{
 		try 
 		{
-			output.products(products);
+			String file = mapped ? nextCatalog() : PRODUCTS_FILE;
+			if (mapped)
+				ProductCatalog.write(products, file);
+			else if (binary)
+				codec().products(products, PRODUCTS_FILE);
+			else
+				output.products(products, PRODUCTS_FILE);
+			
+			setCurrent(file);
+			deleteCatalogs(mapped ? file : null);
 		} 
 		catch (IOException e) 
 		{
@@ -94,7 +159,10 @@ public class IO
 	{
 		try 
 		{
-			output.users(users);
+			if (binary)
+				codec().users(users, USERS_FILE);
+			else
+				output.users(users, USERS_FILE);
 		} 
 		catch (IOException e) 
 		{
@@ -103,6 +171,17 @@ public class IO
 		}
 	}
 	
+	/**
+	 * Creates the codec of a binary file. A codec keeps the file it is 
+	 * reading or writing, and the files are loaded at the same time, 
+	 * so every file gets its own.
+	 * @return a new codec
+	 */
+	private BinaryCodec codec()
+	{
+		return new BinaryCodec();
+	}
+	
 	/**
 	 * Input companies from files.
 	 * @return A list of companies.
@@ -111,7 +190,9 @@ public class IO
 	{
 		try 
 		{
-			return input.companies("../data/companies.u");
+			if (codec().accepts(COMPANIES_FILE))
+				return codec().companies(COMPANIES_FILE);
+			return input.companies(COMPANIES_FILE);
 		}
 		catch (NumberFormatException nfe)
 		{
@@ -130,10 +211,34 @@ public class IO
 	 * @return A list of Products.
 	 */
 	public List<Product> inputProducts()
+	{
+		return inputProducts(null);
+	}
+	
+	/**
+	 * Input products from files. Large text files are parsed in 
+	 * parallel chunks by the given executor.
+	 * <br><br>
+	 * Only the products file of the mode saved last is written, so the 
+	 * other one is stale. The one stored last is read, whatever the mode.
+	 * @param executor - executor that parses the chunks. Null to parse them in this thread.
+	 * @return A list of Products.
+	 */
+	public List<Product> inputProducts(Executor executor)
 	{
 		try 
 		{
-			return input.products("../data/products.u");
+			String current = getCurrent();
+			if (!current.equals(PRODUCTS_FILE) && ProductCatalog.accepts(current))
+			{
+				if (mapped)
+					return new ProductCatalog(current);
+				return new ArrayList<Product>(new ProductCatalog(current));
+			}
+			
+			if (codec().accepts(PRODUCTS_FILE))
+				return codec().products(PRODUCTS_FILE);
+			return input.products(PRODUCTS_FILE, executor);
 		} 
 		catch (NumberFormatException e) 
 		{
@@ -147,6 +252,75 @@ public class IO
 		}
 	}
 	
+	/**
+	 * Records the products file stored last. The record is written to a 
+	 * temporary file first, so it is never left half written.
+	 * @param fileName - the catalog or the products file
+	 * @throws IOException
+	 */
+	void setCurrent(String fileName) throws IOException
+	{
+		File temporary = new File(CURRENT_FILE + ".tmp");
+		Files.write(temporary.toPath(), new File(fileName).getName().getBytes(StandardCharsets.UTF_8));
+		Output.replace(temporary, new File(CURRENT_FILE));
+	}
+	
+	/**
+	 * Gets the products file stored last. Data stored before it was 
+	 * recorded has the products file, or only the first catalog.
+	 * @return a catalog or the products file
+	 * @throws IOException
+	 */
+	private String getCurrent() throws IOException
+	{
+		File current = new File(CURRENT_FILE);
+		if (!current.exists())
+			return new File(PRODUCTS_FILE).exists() ? PRODUCTS_FILE : CATALOG_FILE;
+		
+		String name = new String(Files.readAllBytes(current.toPath()), StandardCharsets.UTF_8).trim();
+		return CATALOG_NAME.matcher(name).matches() ? DATA_DIRECTORY + "/" + name : PRODUCTS_FILE;
+	}
+	
+	/**
+	 * Gets the file of the next catalog, numbered after every catalog 
+	 * in the data directory.
+	 * @return file name of the next catalog
+	 */
+	private String nextCatalog()
+	{
+		int last = -1;
+		for (File file : catalogs())
+		{
+			Matcher matcher = CATALOG_NAME.matcher(file.getName());
+			if (matcher.matches())
+				last = Math.max(last, matcher.group(1) == null ? 0 : Integer.parseInt(matcher.group(1)));
+		}
+		return last < 0 ? CATALOG_FILE : DATA_DIRECTORY + "/products." + (last + 1) + ".m";
+	}
+	
+	/**
+	 * Deletes the catalogs that are no longer read. A catalog that can't 
+	 * be deleted while it is mapped is kept until a later output.
+	 * @param current - file name of the current catalog. Null if there is none.
+	 */
+	private void deleteCatalogs(String current)
+	{
+		String name = current == null ? null : new File(current).getName();
+		for (File file : catalogs())
+			if (!file.getName().equals(name) && !file.delete())
+				System.err.println("IO(deleteCatalogs) - " + file.getName() + " kept until a later output");
+	}
+	
+	/**
+	 * Gets the files of the catalogs in the data directory.
+	 * @return the catalog files. Empty if there are none.
+	 */
+	private File[] catalogs()
+	{
+		File[] files = new File(DATA_DIRECTORY).listFiles((directory, name) -> CATALOG_NAME.matcher(name).matches());
+		return files == null ? new File[0] : files;
+	}
+	
 	/**
 	 * Input users from files.
 	 * @return A list of users.
@@ -155,7 +329,9 @@ public class IO
 	{
 		try 
 		{
-			return input.users("../data/users.u");
+			if (codec().accepts(USERS_FILE))
+				return codec().users(USERS_FILE);
+			return input.users(USERS_FILE);
 		} 
 		catch (NumberFormatException e) 
 		{
@@ -177,7 +353,9 @@ public class IO
 	{
 		try 
 		{
-			return input.warehouses("../data/warehouses.u");
+			if (codec().accepts(WAREHOUSES_FILE))
+				return codec().warehouses(WAREHOUSES_FILE);
+			return input.warehouses(WAREHOUSES_FILE);
 		} 
 		catch (NumberFormatException e) 
 		{
@@ -191,6 +369,184 @@ public class IO
 		}
 	}
 	
+	/**
+	 * Sets the format used to output data. Input always detects 
+	 * the format from the header of each file.
+	 * @param binary - true for the binary format. False for text.
+	 */
+	public void setBinary(boolean binary)
+	{
+		this.binary = binary;
+	}
+	
+	/**
+	 * Converts the stored data to the given format. 
+	 * @param binary - true to convert to binary. False to convert to text.
+	 * @return true if it was converted. False if data could not be read.
+	 */
+	public boolean convert(boolean binary)
+	{
+		List<Company> companies = inputCompanies();
+		List<Product> products = inputProducts();
+		List<User> users = inputUsers();
+		List<Warehouse> warehouses = inputWarehouses();
+		
+		if (companies == null || products == null || users == null || warehouses == null)
+			return false;
+		
+		setBinary(binary);
+		outputCompanies(companies);
+		outputProducts(products);
+		outputUsers(users);
+		outputWarehouses(warehouses);
+		return true;
+	}
+	
+	/**
+	 * Appends an inserted data to the journal.
+	 * @param data - data inserted
+	 */
+	public void journalInsert(Data data)
+	{
+		try 
+		{
+			journal.insert(data);
+		} 
+		catch (IOException e) 
+		{
+			System.err.println("IO(journalInsert) - IOException: Failure in storing journal");
+			System.exit(-1);
+		}
+	}
+	
+	/**
+	 * Appends a deleted data to the journal.
+	 * @param id - id of the data deleted
+	 */
+	public void journalDelete(int id)
+	{
+		try 
+		{
+			journal.delete(id);
+		} 
+		catch (IOException e) 
+		{
+			System.err.println("IO(journalDelete) - IOException: Failure in storing journal");
+			System.exit(-1);
+		}
+	}
+	
+	/**
+	 * Appends an updated data to the journal.
+	 * @param id - id of the data before the update
+	 * @param type - type of attribute updated
+	 * @param change - change made to the attribute
+	 */
+	public void journalUpdate(int id, int type, Object change)
+	{
+		try 
+		{
+			journal.update(id, type, change);
+		} 
+		catch (IOException e) 
+		{
+			System.err.println("IO(journalUpdate) - IOException: Failure in storing journal");
+			System.exit(-1);
+		}
+	}
+	
+	/**
+	 * Appends a change of the quantity stored of a product to the journal.
+	 * @param warehouse - id of the warehouse
+	 * @param product - id of the product
+	 * @param quantity - quantity stored after the change. -1 if it is no longer stored.
+	 */
+	public void journalStock(int warehouse, int product, int quantity)
+	{
+		try 
+		{
+			journal.stock(warehouse, product, quantity);
+		} 
+		catch (IOException e) 
+		{
+			System.err.println("IO(journalStock) - IOException: Failure in storing journal");
+			System.exit(-1);
+		}
+	}
+	
+	/**
+	 * Begins a batch of the journal. The changes appended are held 
+	 * until the batch is committed.
+	 */
+	public void journalBegin()
+	{
+		journal.begin();
+	}
+	
+	/**
+	 * Commits the batch of the journal, so all of its changes are 
+	 * stored at once.
+	 */
+	public void journalCommit()
+	{
+		try 
+		{
+			journal.commit();
+		} 
+		catch (IOException e) 
+		{
+			System.err.println("IO(journalCommit) - IOException: Failure in storing journal");
+			System.exit(-1);
+		}
+	}
+	
+	/**
+	 * Gets the size of the journal.
+	 * @return number of characters in the journal
+	 */
+	public long journalSize()
+	{
+		return journal.size();
+	}
+	
+	/**
+	 * Empties the journal once all of the data has been output.
+	 */
+	public void clearJournal()
+	{
+		try 
+		{
+			journal.clear();
+		} 
+		catch (IOException e) 
+		{
+			System.err.println("IO(clearJournal) - IOException: Failure in clearing journal");
+			System.exit(-1);
+		}
+	}
+	
+	/**
+	 * Input the journal of changes from files.
+	 * @return A list of journal entries.
+	 */
+	public List<JournalEntry> inputJournal()
+	{
+		try 
+		{
+			return journal.read();
+		} 
+		catch (NumberFormatException e) 
+		{
+			System.err.println("IO(inputJournal) - Number Format Exception: String conversion to number");
+			return null;
+		} 
+		catch (IOException e) 
+		{
+			System.err.println("IO(inputJournal) - IOException: IO Reading file");
+			return null;
+		}
+	}
+	
 	/**
 	 * Singleton for single instance.
 	 * @return unique instance.
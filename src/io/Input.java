@@ -5,6 +5,9 @@ import java.io.BufferedReader;
 import java.io.File;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
 
 import java.io.FileReader;
 import java.io.IOException;
@@ -23,6 +26,12 @@ import model.Warehouse;
  */
 class Input 
 {
+	/** Number of lines that store a product */
+	private final static int PRODUCT_LINES = 5;
+	
+	/** Number of products parsed by each parallel chunk */
+	private final static int CHUNK_SIZE = 50000;
+	
 	/**
 	 * Constructor of Input
 	 */
@@ -78,7 +87,7 @@ class Input
 			
 			// create company and add it to the list
 			Company company = new Company(name.strip(), 
-										  new Date(date.strip()), 
+										  Date.valueOf(date), 
 										  Integer.parseInt(id.strip()));
 			companies.add(company);
 		}
@@ -96,6 +105,20 @@ class Input
 	 * @throws NumberFormatException
 	 */
 	public List<Product> products(String fileName) throws IOException, NumberFormatException
+	{
+		return products(fileName, null);
+	}
+	
+	/**
+	 * Reads the Products from the given fileName. Large files are split in chunks 
+	 * of products that are parsed in parallel. If an error is found the null will be returned.
+	 * @param fileName - file name where products are stored.
+	 * @param executor - executor that parses the chunks. Null to parse them in this thread.
+	 * @return a list containing all of the products.
+	 * @throws IOException
+	 * @throws NumberFormatException
+	 */
+	public List<Product> products(String fileName, Executor executor) throws IOException, NumberFormatException
 	{
 		// list of products to return
 		List<Product> products = new ArrayList<Product>();	
@@ -113,47 +136,76 @@ class Input
 		if (file.length() == 0)
 			return products;
 		
-		// create buffer
+		// read every line, a product is stored in PRODUCT_LINES lines
+		List<String> lines = new ArrayList<String>();
 		BufferedReader br = new BufferedReader(new FileReader(file));
-		while(true)
+		String line;
+		while ((line = br.readLine()) != null)
+			lines.add(line);
+		
+		br.close(); // close buffer
+		
+		// an incomplete last product is ignored
+		int count = lines.size() / PRODUCT_LINES;
+		if (executor == null || count < 2 * CHUNK_SIZE)
 		{
-			// read name
-			String name = br.readLine();
-			if (name == null)
-				break;
-			
-			// read company id
-			String companyid = br.readLine();
-			if (companyid == null)
-				break;
-			
-			// read weight
-			String weight = br.readLine();
-			if (weight == null)
-				break;
-			
-			// read date
-			String date = br.readLine();
-			if (date == null)
-				break;
-			
-			// read the product id
-			String id = br.readLine();
-			if (id == null)
-				break;
+			products.addAll(products(lines, 0, count));
+			return products;
+		}
+		
+		// parse the chunks in parallel and join them in order
+		List<CompletableFuture<List<Product>>> chunks = new ArrayList<CompletableFuture<List<Product>>>();
+		for (int from = 0; from < count; from += CHUNK_SIZE)
+		{
+			int first = from;
+			int last = Math.min(from + CHUNK_SIZE, count);
+			chunks.add(CompletableFuture.supplyAsync(() -> products(lines, first, last), executor));
+		}
+		
+		try
+		{
+			for (CompletableFuture<List<Product>> chunk : chunks)
+				products.addAll(chunk.join());
+		}
+		catch (CompletionException e)
+		{
+			if (e.getCause() instanceof NumberFormatException)
+				throw (NumberFormatException) e.getCause();
+			throw e;
+		}
+		
+		return products;
+	}
+	
+	/**
+	 * Parses a range of the products stored in the given lines.
+	 * @param lines - lines of the products file
+	 * @param from - first product to parse
+	 * @param to - product after the last one to parse
+	 * @return the products parsed in order
+	 * @throws NumberFormatException
+	 */
+	private static List<Product> products(List<String> lines, int from, int to) throws NumberFormatException
+	{
+		List<Product> products = new ArrayList<Product>(to - from);
+		for (int i = from; i < to; i++)
+		{
+			int line = i * PRODUCT_LINES;
+			String name = lines.get(line);
+			String companyid = lines.get(line + 1);
+			String weight = lines.get(line + 2);
+			String date = lines.get(line + 3);
+			String id = lines.get(line + 4);
 			
 			// create new product and add it to the list
 			Product product = new Product(name.strip(),
 										  Integer.parseInt(companyid.strip()), 
 										  Integer.parseInt(id.strip()), 
 										  Double.parseDouble(weight.strip()), 
-										  new Date(date.strip()));
+										  Date.valueOf(date));
 			
 			products.add(product);
 		}
-		
-		br.close(); // close buffer
-		
 		return products;
 	}
 	
@@ -224,7 +276,7 @@ class Input
 			// create a user and add it to the list
 			User user = new User(first.strip(), 
 								 last.strip(), 
-								 new Date(date.strip()), 
+								 Date.valueOf(date), 
 								 Integer.parseInt(id.strip()), 
 								 Boolean.parseBoolean(admin.strip()), 
 								 username.strip(), 
@@ -291,7 +343,7 @@ class Input
 			
 			Warehouse warehouse = new Warehouse(name.strip(), 
 												Integer.parseInt(capacity.strip()), 
-												new Date(date.strip()), 
+												Date.valueOf(date), 
 												Integer.parseInt(identity.strip()));
 			
 			// number of products
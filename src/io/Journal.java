@@ -0,0 +1,551 @@
+package io;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileReader;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.ArrayList;
+import java.util.List;
+
+import model.Company;
+import model.Data;
+import model.Database;
+import model.Date;
+import model.Product;
+import model.User;
+import model.Warehouse;
+
+/**
+ * Append only journal of the changes made to the database. Every
+ * insert, delete, update and stock change is stored as a single line 
+ * so a change never rewrites the whole data files. The journal is 
+ * replayed on top of the last snapshot when the database is loaded.
+ * <br><br>
+ * The lines of a batch are written at once between a begin and a 
+ * commit line. A batch without its commit line is ignored, so either 
+ * all of its changes are replayed or none.
+ * <br><br>
+ * Fields of a line are separated by tabs. Tabs, new lines and
+ * backslashes inside a field are escaped with a backslash.
+ *
+ * @author Manuel Cruz
+ * @version 1.0
+ */
+class Journal
+{
+	/** Separator of the fields of a line */
+	private final static char SEPARATOR = '\t';
+
+	/** Operation code of an insert */
+	private final static String INSERT = "I";
+
+	/** Operation code of a delete */
+	private final static String DELETE = "D";
+
+	/** Operation code of an update */
+	private final static String UPDATE = "U";
+
+	/** Operation code of a stock change */
+	private final static String STOCK = "S";
+
+	/** Code of the line that begins a batch */
+	private final static String BEGIN = "B";
+
+	/** Code of the line that commits a batch */
+	private final static String COMMIT = "C";
+
+	/** File of the journal */
+	private File file;
+
+	/** Writer used to append, opened on the first append */
+	private BufferedWriter writer;
+
+	/** Size of the journal in characters */
+	private long size;
+
+	/** Lines of the batch being built. Null if there is none */
+	private StringBuilder batch;
+
+	/** Number of lines of the batch being built */
+	private int batchLines;
+
+	/**
+	 * Explicit constructor of a journal.
+	 * @param fileName - file name of the journal
+	 */
+	public Journal(String fileName)
+	{
+		super();
+		file = new File(fileName);
+		size = file.length();
+	}
+
+	/**
+	 * Appends an inserted data.
+	 * @param data - data inserted
+	 * @throws IOException
+	 */
+	public void insert(Data data) throws IOException
+	{
+		List<Object> fields = new ArrayList<Object>();
+		fields.add(INSERT);
+
+		if (data instanceof Company)
+		{
+			Company company = (Company) data;
+			fields.add(Database.COMPANY);
+			fields.add(company.getName());
+			fields.add(company.getDate());
+			fields.add(company.getId());
+		}
+		else if (data instanceof Product)
+		{
+			Product product = (Product) data;
+			fields.add(Database.PRODUCT);
+			fields.add(product.getName());
+			fields.add(product.getCompany());
+			fields.add(product.getWeight());
+			fields.add(product.getDate());
+			fields.add(product.getId());
+		}
+		else if (data instanceof User)
+		{
+			User user = (User) data;
+			fields.add(Database.USER);
+			fields.add(user.getFirstName());
+			fields.add(user.getLastName());
+			fields.add(user.getBirthday());
+			fields.add(user.getId());
+			fields.add(user.isAdministrator());
+			fields.add(user.getUsername());
+			fields.add(user.getPassword());
+		}
+		else if (data instanceof Warehouse)
+		{
+			Warehouse warehouse = (Warehouse) data;
+			fields.add(Database.WAREHOUSE);
+			fields.add(warehouse.getName());
+			fields.add(warehouse.getCapacity());
+			fields.add(warehouse.getDate());
+			fields.add(warehouse.getId());
+
+			fields.add(warehouse.getProductCount());
+			warehouse.forEachProduct((product, quantity) -> {
+				fields.add(product);
+				fields.add(quantity);
+			});
+		}
+		else
+			throw new IOException("Journal - insert(Data data) - invalid instance");
+
+		append(fields);
+	}
+
+	/**
+	 * Appends a deleted data.
+	 * @param id - identity of the data deleted
+	 * @throws IOException
+	 */
+	public void delete(int id) throws IOException
+	{
+		List<Object> fields = new ArrayList<Object>();
+		fields.add(DELETE);
+		fields.add(id);
+		append(fields);
+	}
+
+	/**
+	 * Appends an updated attribute of a data.
+	 * @param id - identity of the data before the update
+	 * @param type - type of attribute updated
+	 * @param change - new value of the attribute
+	 * @throws IOException
+	 */
+	public void update(int id, int type, Object change) throws IOException
+	{
+		List<Object> fields = new ArrayList<Object>();
+		fields.add(UPDATE);
+		fields.add(id);
+		fields.add(type);
+
+		// the kind of value is stored so it can be read back
+		if (change instanceof String)
+			fields.add("S");
+		else if (change instanceof Integer)
+			fields.add("I");
+		else if (change instanceof Double)
+			fields.add("F");
+		else if (change instanceof Boolean)
+			fields.add("B");
+		else if (change instanceof Date)
+			fields.add("T");
+		else
+			throw new IOException("Journal - update(int id, int type, Object change) - invalid change");
+
+		fields.add(change);
+		append(fields);
+	}
+
+	/**
+	 * Appends a change of the quantity stored of a product.
+	 * @param warehouse - identity of the warehouse
+	 * @param product - identity of the product
+	 * @param quantity - quantity stored after the change. -1 if it is no longer stored.
+	 * @throws IOException
+	 */
+	public void stock(int warehouse, int product, int quantity) throws IOException
+	{
+		List<Object> fields = new ArrayList<Object>();
+		fields.add(STOCK);
+		fields.add(warehouse);
+		fields.add(product);
+		fields.add(quantity);
+		append(fields);
+	}
+
+	/**
+	 * Begins a batch. The lines appended are held until it is committed.
+	 */
+	public void begin()
+	{
+		batch = new StringBuilder();
+		batchLines = 0;
+	}
+
+	/**
+	 * Commits the batch begun, writing all of its lines at once.
+	 * @throws IOException
+	 */
+	public void commit() throws IOException
+	{
+		if (batch == null)
+			return;
+
+		// a single line is already written atomically
+		String lines = batch.toString();
+		if (batchLines > 1)
+			lines = BEGIN + '\n' + lines + COMMIT + '\n';
+
+		batch = null;
+		write(lines);
+	}
+
+	/**
+	 * Gets the size of the journal.
+	 * @return number of characters stored in the journal
+	 */
+	public long size()
+	{
+		return size;
+	}
+
+	/**
+	 * Reads every entry of the journal. A last line that was not
+	 * completely written is ignored.
+	 * @return the entries in the order they were appended
+	 * @throws IOException
+	 * @throws NumberFormatException
+	 */
+	public List<JournalEntry> read() throws IOException, NumberFormatException
+	{
+		List<JournalEntry> entries = new ArrayList<JournalEntry>();
+
+		if (!file.exists() || file.length() == 0)
+			return entries;
+
+		if (file.isDirectory())
+			throw new IOException("Journal - read() - journal is a directory");
+
+		// a crash while appending can leave a last line without its end
+		boolean complete;
+		RandomAccessFile raf = new RandomAccessFile(file, "r");
+		try
+		{
+			raf.seek(raf.length() - 1);
+			complete = raf.read() == '\n';
+		}
+		finally
+		{
+			raf.close();
+		}
+
+		List<String> lines = new ArrayList<String>();
+		BufferedReader br = new BufferedReader(new FileReader(file));
+		try
+		{
+			String line;
+			while ((line = br.readLine()) != null)
+				lines.add(line);
+		}
+		finally
+		{
+			br.close();
+		}
+
+		if (!complete)
+			lines.remove(lines.size() - 1);
+
+		// entries of a batch are only kept once it is committed
+		List<JournalEntry> pending = null;
+		for (String line : lines)
+		{
+			if (line.isEmpty())
+				continue;
+
+			if (line.equals(BEGIN))
+				pending = new ArrayList<JournalEntry>();
+			else if (line.equals(COMMIT) && pending != null)
+			{
+				entries.addAll(pending);
+				pending = null;
+			}
+			else
+			{
+				JournalEntry entry = parse(split(line));
+				if (entry != null)
+					(pending != null ? pending : entries).add(entry);
+			}
+		}
+
+		return entries;
+	}
+
+	/**
+	 * Empties the journal. Used once its changes are stored in a snapshot.
+	 * @throws IOException
+	 */
+	public void clear() throws IOException
+	{
+		if (writer != null)
+		{
+			writer.close();
+			writer = null;
+		}
+
+		if (file.exists() && !file.delete())
+			throw new IOException("Journal - clear() - could not delete journal");
+
+		size = 0;
+	}
+
+	/**
+	 * Parses the fields of a line into an entry.
+	 * @param fields - fields of the line
+	 * @return the entry. Null if the line is incomplete.
+	 * @throws NumberFormatException
+	 */
+	private JournalEntry parse(List<String> fields) throws NumberFormatException
+	{
+		String operation = fields.get(0);
+
+		if (operation.equals(STOCK) && fields.size() == 4)
+		{
+			int warehouse = Integer.parseInt(fields.get(1));
+			int product = Integer.parseInt(fields.get(2));
+			int quantity = Integer.parseInt(fields.get(3));
+			return new JournalEntry(JournalEntry.STOCK, warehouse, product, quantity, null);
+		}
+
+		if (operation.equals(DELETE) && fields.size() == 2)
+		{
+			int id = Integer.parseInt(fields.get(1));
+			return new JournalEntry(JournalEntry.DELETE, id, 0, null, null);
+		}
+
+		if (operation.equals(UPDATE) && fields.size() == 5)
+		{
+			int id = Integer.parseInt(fields.get(1));
+			int type = Integer.parseInt(fields.get(2));
+			String kind = fields.get(3);
+			String value = fields.get(4);
+
+			Object change;
+			if (kind.equals("S"))
+				change = value;
+			else if (kind.equals("I"))
+				change = Integer.parseInt(value);
+			else if (kind.equals("F"))
+				change = Double.parseDouble(value);
+			else if (kind.equals("B"))
+				change = Boolean.parseBoolean(value);
+			else
+				change = Date.valueOf(value);
+
+			return new JournalEntry(JournalEntry.UPDATE, id, type, change, null);
+		}
+
+		if (operation.equals(INSERT) && fields.size() > 2)
+		{
+			Data data = data(fields);
+			if (data == null)
+				return null;
+			return new JournalEntry(JournalEntry.INSERT, data.getId(), 0, null, data);
+		}
+
+		return null;
+	}
+
+	/**
+	 * Builds the data stored by an insert line.
+	 * @param fields - fields of the line
+	 * @return the data. Null if the line is incomplete.
+	 * @throws NumberFormatException
+	 */
+	private Data data(List<String> fields) throws NumberFormatException
+	{
+		int type = Integer.parseInt(fields.get(1));
+
+		if (type == Database.COMPANY && fields.size() == 5)
+		{
+			return new Company(fields.get(2),
+							   Date.valueOf(fields.get(3)),
+							   Integer.parseInt(fields.get(4)));
+		}
+
+		if (type == Database.PRODUCT && fields.size() == 7)
+		{
+			return new Product(fields.get(2),
+							   Integer.parseInt(fields.get(3)),
+							   Integer.parseInt(fields.get(6)),
+							   Double.parseDouble(fields.get(4)),
+							   Date.valueOf(fields.get(5)));
+		}
+
+		if (type == Database.USER && fields.size() == 9)
+		{
+			return new User(fields.get(2),
+							fields.get(3),
+							Date.valueOf(fields.get(4)),
+							Integer.parseInt(fields.get(5)),
+							Boolean.parseBoolean(fields.get(6)),
+							fields.get(7),
+							fields.get(8));
+		}
+
+		if (type == Database.WAREHOUSE && fields.size() >= 7)
+		{
+			int products = Integer.parseInt(fields.get(6));
+			if (fields.size() != 7 + products * 2)
+				return null;
+
+			Warehouse warehouse = new Warehouse(fields.get(2),
+												Integer.parseInt(fields.get(3)),
+												Date.valueOf(fields.get(4)),
+												Integer.parseInt(fields.get(5)));
+
+			for (int i = 0; i < products; i++)
+			{
+				int product = Integer.parseInt(fields.get(7 + i * 2));
+				int quantity = Integer.parseInt(fields.get(8 + i * 2));
+				warehouse.add(product, quantity);
+			}
+			return warehouse;
+		}
+
+		return null;
+	}
+
+	/**
+	 * Appends a line with the given fields and flushes it.
+	 * @param fields - fields of the line
+	 * @throws IOException
+	 */
+	private void append(List<Object> fields) throws IOException
+	{
+		StringBuilder line = new StringBuilder();
+		for (int i = 0; i < fields.size(); i++)
+		{
+			if (i > 0)
+				line.append(SEPARATOR);
+			escape(String.valueOf(fields.get(i)), line);
+		}
+		line.append('\n');
+
+		if (batch != null)
+		{
+			batch.append(line);
+			batchLines++;
+		}
+		else
+			write(line.toString());
+	}
+
+	/**
+	 * Writes lines at the end of the journal and flushes them.
+	 * @param lines - lines to write
+	 * @throws IOException
+	 */
+	private void write(String lines) throws IOException
+	{
+		if (writer == null)
+			writer = new BufferedWriter(new FileWriter(file, true));
+
+		writer.write(lines);
+		writer.flush();
+		size += lines.length();
+	}
+
+	/**
+	 * Escapes a field into the given line.
+	 * @param field - field to escape
+	 * @param line - line the field is added to
+	 */
+	private static void escape(String field, StringBuilder line)
+	{
+		for (int i = 0; i < field.length(); i++)
+		{
+			char c = field.charAt(i);
+			if (c == '\\')
+				line.append("\\\\");
+			else if (c == SEPARATOR)
+				line.append("\\t");
+			else if (c == '\n')
+				line.append("\\n");
+			else if (c == '\r')
+				line.append("\\r");
+			else
+				line.append(c);
+		}
+	}
+
+	/**
+	 * Splits a line into its unescaped fields.
+	 * @param line - line to split
+	 * @return the fields of the line
+	 */
+	private static List<String> split(String line)
+	{
+		List<String> fields = new ArrayList<String>();
+		StringBuilder field = new StringBuilder();
+
+		for (int i = 0; i < line.length(); i++)
+		{
+			char c = line.charAt(i);
+			if (c == '\\' && i + 1 < line.length())
+			{
+				char next = line.charAt(++i);
+				if (next == 't')
+					field.append(SEPARATOR);
+				else if (next == 'n')
+					field.append('\n');
+				else if (next == 'r')
+					field.append('\r');
+				else
+					field.append(next);
+			}
+			else if (c == SEPARATOR)
+			{
+				fields.add(field.toString());
+				field.setLength(0);
+			}
+			else
+				field.append(c);
+		}
+		fields.add(field.toString());
+
+		return fields;
+	}
+}
@@ -0,0 +1,120 @@
+package io;
+
+import model.Data;
+
+/**
+ * Entry read back from the journal. It describes one change that was
+ * made to the database after the last snapshot was stored.
+ *
+ * @author Manuel Cruz
+ * @version 1.0
+ */
+public class JournalEntry
+{
+	/** Constant operation of an inserted data */
+	public final static int INSERT = 0;
+
+	/** Constant operation of a deleted data */
+	public final static int DELETE = 1;
+
+	/** Constant operation of an updated data */
+	public final static int UPDATE = 2;
+
+	/** Constant operation of a changed stock */
+	public final static int STOCK = 3;
+
+	/** Operation of the entry */
+	private int operation;
+
+	/** Identity of the data changed, or the warehouse of a stock change */
+	private int id;
+
+	/** Type of attribute updated, or the product of a stock change */
+	private int type;
+
+	/** Change of the attribute updated, or the quantity of a stock change */
+	private Object change;
+
+	/** Data inserted */
+	private Data data;
+
+	/**
+	 * Explicit constructor of a journal entry.
+	 * @param operation - operation of the entry
+	 * @param id - identity of the data changed
+	 * @param type - type of attribute updated
+	 * @param change - change of the attribute updated
+	 * @param data - data inserted
+	 */
+	JournalEntry(int operation, int id, int type, Object change, Data data)
+	{
+		this.operation = operation;
+		this.id = id;
+		this.type = type;
+		this.change = change;
+		this.data = data;
+	}
+
+	/**
+	 * Gets the operation of this entry.
+	 * @return INSERT, DELETE, UPDATE or STOCK
+	 */
+	public int getOperation()
+	{
+		return operation;
+	}
+
+	/**
+	 * Gets the identity of the data changed.
+	 * @return identity of the data
+	 */
+	public int getId()
+	{
+		return id;
+	}
+
+	/**
+	 * Gets the type of attribute updated. Only used by updates.
+	 * @return type of attribute
+	 */
+	public int getType()
+	{
+		return type;
+	}
+
+	/**
+	 * Gets the change of the attribute updated. Only used by updates.
+	 * @return change of the attribute
+	 */
+	public Object getChange()
+	{
+		return change;
+	}
+
+	/**
+	 * Gets the product of a stock change. Only used by stock changes.
+	 * @return identity of the product
+	 */
+	public int getProduct()
+	{
+		return type;
+	}
+
+	/**
+	 * Gets the quantity stored after a stock change. Only used by stock changes.
+	 * @return quantity stored. -1 if the product is no longer stored.
+	 */
+	public int getQuantity()
+	{
+		return (Integer) change;
+	}
+
+	/**
+	 * Gets the data inserted. Only used by inserts.
+	 * @return data inserted
+	 */
+	public Data getData()
+	{
+		return data;
+	}
+}
@@ -5,7 +5,9 @@ import java.io.BufferedWriter;
 import java.io.File;
 import java.io.FileWriter;
 import java.io.IOException;
-import java.util.List;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
 
 import model.Company;
 import model.Product;
@@ -14,7 +16,8 @@ import model.Warehouse;
 import utilities.Utilities;
 
 /**
- * Controls output of data for storage.
+ * Controls output of data for storage. Data is written as it is 
+ * iterated, so it does not need to be held in memory all at once.
  * 
  * @author Manuel Cruz
  * @Version 1.0
@@ -23,15 +26,15 @@ class Output
 {
 	/**
 	 * Simple constructor to initialize.
+	 * @param dataDirectory - directory of the data files, created if it does not exist
 	 */
-	public Output()
+	public Output(String dataDirectory)
 	{
 		super();
-		String dataDirectory = "../data";
 		File directory = new File(dataDirectory);
 		if (!directory.exists())
 		{
-			if (!directory.mkdir())
+			if (!directory.mkdirs())
 				Utilities.getInstance().error("Output() - Could not make directory of data");
 		}
 	}
@@ -40,18 +43,19 @@ class Output
 	 * Stores a list of warehouses.
 	 * 
 	 * @param warehouses - List of warehouses
+	 * @param fileName - file name of the warehouses
 	 * @throws IOException - IOExcepton to be catch
 	 */
-	public void warehouses(List<Warehouse> warehouses) throws IOException
+	public void warehouses(Iterable<? extends Warehouse> warehouses, String fileName) throws IOException
 	{
 		// gets the warehouse file
-		File file = new File("../data/warehouses.u");
+		File file = new File(fileName);
 		
-		// if it doesn't exists just create a new one
-		if (!file.exists())
-			file.createNewFile();
+		// written to a temporary file first so a failure never
+		// leaves the stored data half written
+		File temporary = new File(fileName + ".tmp");
 		
-		BufferedWriter bw = new BufferedWriter(new FileWriter(file));
+		BufferedWriter bw = new BufferedWriter(new FileWriter(temporary));
 		
 		// for each warehouse store it
 		for (Warehouse warehouse : warehouses)
@@ -60,37 +64,37 @@ class Output
 			bw.write(warehouse.getCapacity() + "\n");
 			bw.write(warehouse.getDate() + "\n");
 			bw.write(warehouse.getId() + "\n");
-			List<Integer> products = warehouse.getProducts();
-			bw.write(products.size() + "\n");
+			int[] products = warehouse.getProductIds();
+			bw.write(products.length + "\n");
 			
 			// store each product of the warehouse
-			for (int i = 0; i < products.size(); i++)
-			{
-				int productIdentity = products.get(i);
+			for (int productIdentity : products)
 				bw.write(productIdentity + "," + warehouse.getProductQuantity(productIdentity) + "\n");
-			}
 		}
 		
 		bw.flush();
 		bw.close();
+		
+		replace(temporary, file);
 	}
 	
 	/**
 	 * Stores a list of products.
 	 * 
 	 * @param products - list of products to store.
+	 * @param fileName - file name of the products
 	 * @throws IOException - IOException to catch
 	 */
-	public void products(List<Product> products) throws IOException
+	public void products(Iterable<? extends Product> products, String fileName) throws IOException
 	{
 		// gets products file
-		File file = new File("../data/products.u");
+		File file = new File(fileName);
 		
-		// if it doesn't exist create a new one
-		if (!file.exists())
-			file.createNewFile();
+		// written to a temporary file first so a failure never
+		// leaves the stored data half written
+		File temporary = new File(fileName + ".tmp");
 		
-		BufferedWriter bw = new BufferedWriter(new FileWriter(file));
+		BufferedWriter bw = new BufferedWriter(new FileWriter(temporary));
 		
 		// store all of products
 		for (Product product : products)
@@ -105,24 +109,27 @@ class Output
 		// flush and close file
 		bw.flush();
 		bw.close();
+		
+		replace(temporary, file);
 	}
 
 	/**
 	 * Stores a list of companies.
 	 * 
 	 * @param companies - list of companies to store.
+	 * @param fileName - file name of the companies
 	 * @throws IOException - IOException to catch
 	 */
-	public void companies(List<Company> companies) throws IOException 
+	public void companies(Iterable<? extends Company> companies, String fileName) throws IOException 
 	{
 		// gets companies file
-		File file = new File("../data/companies.u");
+		File file = new File(fileName);
 		
-		// if it doesn't exist create a new one
-		if (!file.exists())
-			file.createNewFile();
+		// written to a temporary file first so a failure never
+		// leaves the stored data half written
+		File temporary = new File(fileName + ".tmp");
 		
-		BufferedWriter bw = new BufferedWriter(new FileWriter(file));
+		BufferedWriter bw = new BufferedWriter(new FileWriter(temporary));
 		// store each company
 		for (Company company : companies)
 		{
@@ -134,24 +141,27 @@ class Output
 		// flush and close file
 		bw.flush();
 		bw.close();
+		
+		replace(temporary, file);
 	}
 
 	/**
 	 * Stores a list of users.
 	 * 
 	 * @param users - list of users to store
+	 * @param fileName - file name of the users
 	 * @throws IOException - IOException to catch
 	 */
-	public void users(List<User> users) throws IOException 
+	public void users(Iterable<? extends User> users, String fileName) throws IOException 
 	{
 		// gets the users file
-		File file = new File("../data/users.u");
+		File file = new File(fileName);
 		
-		// if it doesn't exist create a new one
-		if (!file.exists())
-			file.createNewFile();
+		// written to a temporary file first so a failure never
+		// leaves the stored data half written
+		File temporary = new File(fileName + ".tmp");
 		
-		BufferedWriter bw = new BufferedWriter(new FileWriter(file));
+		BufferedWriter bw = new BufferedWriter(new FileWriter(temporary));
 		
 		// store every user
 		for (User user : users)
@@ -168,5 +178,27 @@ class Output
 		// flush and close file
 		bw.flush();
 		bw.close();
+		
+		replace(temporary, file);
+	}
+	
+	/**
+	 * Replaces a stored file with the temporary file that holds its new data.
+	 * 
+	 * @param temporary - file with the new data
+	 * @param file - file to replace
+	 * @throws IOException - IOException to catch
+	 */
+	static void replace(File temporary, File file) throws IOException
+	{
+		try
+		{
+			Files.move(temporary.toPath(), file.toPath(), 
+					   StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		}
+		catch (AtomicMoveNotSupportedException amnse)
+		{
+			Files.move(temporary.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+		}
 	}
 }
@@ -0,0 +1,726 @@
+package io;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.RandomAccess;
+
+import model.Date;
+import model.Product;
+
+/**
+ * Catalog of products backed by a memory mapped file. Every product
+ * is stored as a fixed size record so a product is only built when it
+ * is requested, and its name, company, weight and identity can be read
+ * from the mapped file without building it. The file also holds its
+ * records sorted by identity so products can be found by identity
+ * without indexing them when the catalog is opened.
+ * <br><br>
+ * Products added after the catalog was opened are held on the heap.
+ * Products that are changed are pinned so the change is not lost, the
+ * rest are kept in a small cache. Every change is stored the next time
+ * the catalog is written.
+ * <br><br>
+ * Reading a product may change the cache, so every method is synchronized
+ * and the catalog can be read by many threads at once.
+ *
+ * @author Manuel Cruz
+ * @version 1.0
+ */
+public class ProductCatalog extends AbstractList<Product> implements RandomAccess
+{
+	/** Magic number that starts a catalog file, "LGPC" */
+	private final static int MAGIC = 0x4C475043;
+
+	/** Version of the catalog format */
+	private final static int VERSION = 1;
+
+	/** Size of the header of the file */
+	private final static int HEADER = 32;
+
+	/** Size of a product record */
+	private final static int STRIDE = 32;
+
+	/** Size of an entry of the identity index */
+	private final static int INDEX_ENTRY = 8;
+
+	/** Maximum number of products kept in the cache */
+	private final static int CACHE_SIZE = 4096;
+
+	/** Record value of an identity that no longer exists */
+	private final static int REMOVED = -1;
+
+	/** Records of the mapped file */
+	private final Records records;
+
+	/** Number of records in the file */
+	private int count;
+
+	/** Records of the file still in the catalog in order. Null while none was removed */
+	private int[] positions;
+
+	/** Number of records of the file still in the catalog */
+	private int live;
+
+	/** Products added after the catalog was opened */
+	private List<Product> added;
+
+	/** Products added after the catalog was opened by their identity */
+	private Map<Integer, Product> addedById;
+
+	/** Identities of records that were changed or removed */
+	private Map<Integer, Integer> remapped;
+
+	/** Products that were changed by their record */
+	private Map<Integer, Product> pinned;
+
+	/** Products recently built by their record */
+	private Map<Integer, Product> cache;
+
+	/**
+	 * Explicit constructor of a catalog that maps the given file.
+	 * @param fileName - file name of the catalog
+	 * @throws IOException - if the file is not a valid catalog
+	 */
+	public ProductCatalog(String fileName) throws IOException
+	{
+		super();
+		records = new Records(fileName);
+		count = records.size();
+		live = count;
+
+		added = new ArrayList<Product>();
+		addedById = new HashMap<Integer, Product>();
+		remapped = new HashMap<Integer, Integer>();
+		pinned = new HashMap<Integer, Product>();
+		cache = new LinkedHashMap<Integer, Product>(CACHE_SIZE, 0.75f, true)
+		{
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<Integer, Product> eldest)
+			{
+				return size() > CACHE_SIZE;
+			}
+		};
+	}
+
+	/**
+	 * Checks whether the given file is a catalog.
+	 * @param fileName - file name to check
+	 * @return true if it exists and starts with the catalog header
+	 * @throws IOException
+	 */
+	public static boolean accepts(String fileName) throws IOException
+	{
+		File file = new File(fileName);
+		if (!file.isFile() || file.length() < HEADER)
+			return false;
+
+		try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ))
+		{
+			ByteBuffer magic = ByteBuffer.allocate(4);
+			while (magic.hasRemaining() && channel.read(magic) >= 0);
+			magic.flip();
+			return magic.getInt() == MAGIC;
+		}
+	}
+
+	@Override
+	public synchronized int size()
+	{
+		return live + added.size();
+	}
+
+	@Override
+	public synchronized Product get(int position)
+	{
+		if (position < 0 || position >= size())
+			throw new IndexOutOfBoundsException("ProductCatalog - get(int position) - " + position);
+
+		if (position >= live)
+			return added.get(position - live);
+
+		return product(record(position));
+	}
+
+	@Override
+	public synchronized boolean add(Product product)
+	{
+		if (product == null || find(product.getId()) != null)
+			return false;
+
+		added.add(product);
+		addedById.put(product.getId(), product);
+		return true;
+	}
+
+	@Override
+	public synchronized Product remove(int position)
+	{
+		Product product = get(position);
+		delete(product.getId());
+		return product;
+	}
+
+	@Override
+	public synchronized boolean remove(Object object)
+	{
+		if (!(object instanceof Product))
+			return false;
+
+		Product product = (Product) object;
+		if (find(product.getId()) != product)
+			return false;
+
+		return delete(product.getId()) != null;
+	}
+
+	/**
+	 * Finds the product with the given identity.
+	 * @param id - identity of the product
+	 * @return the product found. Null if it is not in the catalog.
+	 */
+	public synchronized Product find(int id)
+	{
+		Product product = addedById.get(id);
+		if (product != null)
+			return product;
+
+		int record = recordOf(id);
+		if (record == REMOVED)
+			return null;
+
+		return product(record);
+	}
+
+	/**
+	 * Checks whether a product with the given identity is in the catalog
+	 * without building it.
+	 * @param id - identity of the product
+	 * @return true if it is in the catalog. False otherwise.
+	 */
+	public synchronized boolean contains(int id)
+	{
+		return addedById.containsKey(id) || recordOf(id) != REMOVED;
+	}
+
+	/**
+	 * Removes the product with the given identity.
+	 * @param id - identity of the product
+	 * @return the product removed. Null if it is not in the catalog.
+	 */
+	public synchronized Product delete(int id)
+	{
+		Product product = addedById.remove(id);
+		if (product != null)
+		{
+			added.remove(product);
+			return product;
+		}
+
+		int record = recordOf(id);
+		if (record == REMOVED)
+			return null;
+
+		product = product(record);
+		remapped.put(id, REMOVED);
+		pinned.remove(record);
+		cache.remove(record);
+
+		// the positions are only built once a record is removed
+		if (positions == null)
+		{
+			positions = new int[count];
+			for (int i = 0; i < count; i++)
+				positions[i] = i;
+		}
+
+		for (int i = 0; i < live; i++)
+		{
+			if (positions[i] == record)
+			{
+				System.arraycopy(positions, i + 1, positions, i, live - i - 1);
+				live--;
+				break;
+			}
+		}
+
+		return product;
+	}
+
+	/**
+	 * Changes the identity a product is found with. The product
+	 * itself must already hold its new identity.
+	 * @param from - old identity of the product
+	 * @param to - new identity of the product
+	 */
+	public synchronized void rekey(int from, int to)
+	{
+		Product product = addedById.remove(from);
+		if (product != null)
+		{
+			addedById.put(to, product);
+			return;
+		}
+
+		int record = recordOf(from);
+		if (record == REMOVED)
+			return;
+
+		remapped.put(from, REMOVED);
+		remapped.put(to, record);
+
+		// the file still holds the old identity, so the product must be kept
+		product = cache.remove(record);
+		if (product != null && !pinned.containsKey(record))
+			pinned.put(record, product);
+	}
+
+	/**
+	 * Pins a built product so a change made to it is kept until the
+	 * catalog is written. It must be pinned before it is changed, so it
+	 * can't be dropped from the cache by another read in between.
+	 * @param product - product found in the catalog
+	 */
+	public synchronized void pin(Product product)
+	{
+		if (addedById.containsKey(product.getId()))
+			return;
+
+		int record = recordOf(product.getId());
+		if (record == REMOVED || pinned.containsKey(record))
+			return;
+
+		cache.remove(record);
+		pinned.put(record, product);
+	}
+
+	@Override
+	public synchronized void clear()
+	{
+		// every identity still in the file is marked as removed
+		for (int position = 0; position < live; position++)
+			remapped.put(getIdentity(position), REMOVED);
+
+		positions = new int[0];
+		live = 0;
+		added.clear();
+		addedById.clear();
+		pinned.clear();
+		cache.clear();
+	}
+
+	/**
+	 * Gets the name of the product at the given position without building it.
+	 * @param position - position of the product
+	 * @return name of the product
+	 */
+	public synchronized String getName(int position)
+	{
+		Product product = built(position);
+		if (product != null)
+			return product.getName();
+
+		return records.getName(record(position));
+	}
+
+	/**
+	 * Gets the company of the product at the given position without building it.
+	 * @param position - position of the product
+	 * @return identity of the company
+	 */
+	public synchronized int getCompany(int position)
+	{
+		Product product = built(position);
+		if (product != null)
+			return product.getCompany();
+
+		return records.getCompany(record(position));
+	}
+
+	/**
+	 * Gets the weight of the product at the given position without building it.
+	 * @param position - position of the product
+	 * @return weight of the product
+	 */
+	public synchronized double getWeight(int position)
+	{
+		Product product = built(position);
+		if (product != null)
+			return product.getWeight();
+
+		return records.getWeight(record(position));
+	}
+
+	/**
+	 * Gets the identity of the product at the given position without building it.
+	 * @param position - position of the product
+	 * @return identity of the product
+	 */
+	public synchronized int getIdentity(int position)
+	{
+		Product product = built(position);
+		if (product != null)
+			return product.getId();
+
+		return records.getIdentity(record(position));
+	}
+
+	/**
+	 * Gets the date of the product at the given position without building it.
+	 * @param position - position of the product
+	 * @return date of the product packed as yyyymmdd
+	 */
+	public synchronized int getDate(int position)
+	{
+		Product product = built(position);
+		if (product != null)
+			return product.getDate().getPacked();
+
+		return records.getDate(record(position));
+	}
+
+	/**
+	 * Writes the given products as a catalog file. Products of a
+	 * catalog are written without being built.
+	 * @param products - products to write
+	 * @param fileName - file name of the catalog
+	 * @throws IOException
+	 */
+	public static void write(List<Product> products, String fileName) throws IOException
+	{
+		ProductCatalog catalog = products instanceof ProductCatalog ? (ProductCatalog) products : null;
+		int count = products.size();
+		long recordsOffset = HEADER;
+		long indexOffset = recordsOffset + (long) count * STRIDE;
+		long namesOffset = indexOffset + (long) count * INDEX_ENTRY;
+
+		File file = new File(fileName);
+		File temporary = new File(fileName + ".tmp");
+
+		// identities packed with their record so they can be sorted
+		long[] index = new long[count];
+
+		try (FileChannel channel = FileChannel.open(temporary.toPath(), StandardOpenOption.CREATE,
+								   StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING))
+		{
+			ByteBuffer records = ByteBuffer.allocateDirect(STRIDE * 1024);
+			ByteBuffer names = ByteBuffer.allocateDirect(1 << 16);
+			long recordsPosition = recordsOffset;
+			long namesPosition = namesOffset;
+			long nameOffset = namesOffset;
+
+			for (int i = 0; i < count; i++)
+			{
+				int id = catalog != null ? catalog.getIdentity(i) : products.get(i).getId();
+				String name = catalog != null ? catalog.getName(i) : products.get(i).getName();
+				byte[] bytes = name.getBytes(StandardCharsets.UTF_8);
+
+				if (!records.hasRemaining())
+					recordsPosition += flush(channel, records, recordsPosition);
+
+				records.putInt(id);
+				records.putInt(catalog != null ? catalog.getCompany(i) : products.get(i).getCompany());
+				records.putDouble(catalog != null ? catalog.getWeight(i) : products.get(i).getWeight());
+				records.putInt(catalog != null ? catalog.getDate(i) : products.get(i).getDate().getPacked());
+				records.putInt(bytes.length);
+				records.putLong(nameOffset);
+
+				if (names.remaining() < bytes.length)
+				{
+					namesPosition += flush(channel, names, namesPosition);
+					if (names.capacity() < bytes.length)
+						names = ByteBuffer.allocateDirect(bytes.length);
+				}
+				names.put(bytes);
+				nameOffset += bytes.length;
+
+				index[i] = ((long) id << 32) | i;
+			}
+			recordsPosition += flush(channel, records, recordsPosition);
+			namesPosition += flush(channel, names, namesPosition);
+
+			if (namesPosition > Integer.MAX_VALUE)
+				throw new IOException("ProductCatalog - write() - catalog too large: " + fileName);
+
+			// index sorted by identity
+			Arrays.sort(index);
+			ByteBuffer entries = ByteBuffer.allocateDirect(INDEX_ENTRY * 1024);
+			long indexPosition = indexOffset;
+			for (long entry : index)
+			{
+				if (!entries.hasRemaining())
+					indexPosition += flush(channel, entries, indexPosition);
+				entries.putInt((int) (entry >> 32));
+				entries.putInt((int) entry);
+			}
+			flush(channel, entries, indexPosition);
+
+			ByteBuffer header = ByteBuffer.allocate(HEADER);
+			header.putInt(MAGIC);
+			header.putInt(VERSION);
+			header.putInt(count);
+			header.putInt(STRIDE);
+			header.putLong(indexOffset);
+			header.putLong(namesOffset);
+			flush(channel, header, 0);
+		}
+
+		Output.replace(temporary, file);
+	}
+
+	/**
+	 * Writes the content of a buffer at the given position and clears it.
+	 * @param channel - channel to write to
+	 * @param buffer - buffer to write
+	 * @param position - position in the file
+	 * @return number of bytes written
+	 * @throws IOException
+	 */
+	private static int flush(FileChannel channel, ByteBuffer buffer, long position) throws IOException
+	{
+		buffer.flip();
+		int written = 0;
+		while (buffer.hasRemaining())
+			written += channel.write(buffer, position + written);
+		buffer.clear();
+		return written;
+	}
+
+	/**
+	 * Gets the product of a record already built and pinned or cached.
+	 * @param position - position of the product
+	 * @return the product. Null if it is not built.
+	 */
+	private Product built(int position)
+	{
+		if (position >= live)
+			return added.get(position - live);
+
+		int record = record(position);
+		Product product = pinned.get(record);
+		if (product == null)
+			product = cache.get(record);
+		return product;
+	}
+
+	/**
+	 * Builds the product of the given record if it was not already built.
+	 * @param record - record of the product
+	 * @return the product of the record
+	 */
+	private Product product(int record)
+	{
+		Product product = pinned.get(record);
+		if (product != null)
+			return product;
+
+		product = cache.get(record);
+		if (product != null)
+			return product;
+
+		product = records.get(record);
+		cache.put(record, product);
+		return product;
+	}
+
+	/**
+	 * Gets the record of the product at the given position.
+	 * @param position - position of a product of the file
+	 * @return its record
+	 */
+	private int record(int position)
+	{
+		return positions == null ? position : positions[position];
+	}
+
+	/**
+	 * Finds the record of the given identity.
+	 * @param id - identity to find
+	 * @return the record. REMOVED if it is not found.
+	 */
+	private int recordOf(int id)
+	{
+		Integer record = remapped.get(id);
+		if (record != null)
+			return record;
+
+		return records.find(id);
+	}
+
+	/**
+	 * Gets the records of the file as they were stored, without the
+	 * changes made to the catalog since it was opened.
+	 * @return the records of the file
+	 */
+	public Records getRecords()
+	{
+		return records;
+	}
+
+	/**
+	 * Records of a mapped catalog file. The file is mapped read only and
+	 * the IO writes every catalog to a new file, so it never changes once
+	 * mapped. The records can be read by any thread without locking, even
+	 * after the catalog is changed or written again.
+	 */
+	public static final class Records
+	{
+		/** Mapped file */
+		private final MappedByteBuffer map;
+
+		/** Number of records in the file */
+		private final int count;
+
+		/** Offset of the identity index in the file */
+		private final int indexOffset;
+
+		/**
+		 * Explicit constructor that maps the given file.
+		 * @param fileName - file name of the catalog
+		 * @throws IOException - if the file is not a valid catalog
+		 */
+		private Records(String fileName) throws IOException
+		{
+			File file = new File(fileName);
+
+			try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ))
+			{
+				if (channel.size() > Integer.MAX_VALUE)
+					throw new IOException("ProductCatalog - catalog too large: " + fileName);
+
+				map = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+			}
+
+			boolean valid = map.capacity() >= HEADER && map.getInt(0) == MAGIC &&
+							map.getInt(4) == VERSION && map.getInt(12) == STRIDE;
+			if (!valid)
+				throw new IOException("ProductCatalog - invalid header: " + fileName);
+
+			count = map.getInt(8);
+			indexOffset = (int) map.getLong(16);
+		}
+
+		/**
+		 * Gets the number of records.
+		 * @return number of records in the file
+		 */
+		public int size()
+		{
+			return count;
+		}
+
+		/**
+		 * Builds a new product from a record.
+		 * @param record - record of the product
+		 * @return the product
+		 */
+		public Product get(int record)
+		{
+			return new Product(getName(record), getCompany(record), getIdentity(record),
+							   getWeight(record), Date.valueOfPacked(getDate(record)));
+		}
+
+		/**
+		 * Gets the name of the product of a record.
+		 * @param record - record of the product
+		 * @return name of the product
+		 */
+		public String getName(int record)
+		{
+			int offset = offset(record);
+			byte[] bytes = new byte[map.getInt(offset + 20)];
+			map.get((int) map.getLong(offset + 24), bytes);
+			return new String(bytes, StandardCharsets.UTF_8);
+		}
+
+		/**
+		 * Gets the company of the product of a record.
+		 * @param record - record of the product
+		 * @return identity of the company
+		 */
+		public int getCompany(int record)
+		{
+			return map.getInt(offset(record) + 4);
+		}
+
+		/**
+		 * Gets the weight of the product of a record.
+		 * @param record - record of the product
+		 * @return weight of the product
+		 */
+		public double getWeight(int record)
+		{
+			return map.getDouble(offset(record) + 8);
+		}
+
+		/**
+		 * Gets the identity of the product of a record.
+		 * @param record - record of the product
+		 * @return identity of the product
+		 */
+		public int getIdentity(int record)
+		{
+			return map.getInt(offset(record));
+		}
+
+		/**
+		 * Gets the date of the product of a record.
+		 * @param record - record of the product
+		 * @return date of the product packed as yyyymmdd
+		 */
+		public int getDate(int record)
+		{
+			return map.getInt(offset(record) + 16);
+		}
+
+		/**
+		 * Finds the record of the given identity with a binary search
+		 * of the identity index.
+		 * @param id - identity to find
+		 * @return the record. -1 if it is not in the file.
+		 */
+		public int find(int id)
+		{
+			int low = 0;
+			int high = count - 1;
+			while (low <= high)
+			{
+				int middle = (low + high) >>> 1;
+				int entry = indexOffset + middle * INDEX_ENTRY;
+				int value = map.getInt(entry);
+
+				if (value < id)
+					low = middle + 1;
+				else if (value > id)
+					high = middle - 1;
+				else
+					return map.getInt(entry + 4);
+			}
+
+			return REMOVED;
+		}
+
+		/**
+		 * Gets the offset in the file of a record.
+		 * @param record - record to locate
+		 * @return offset of the record
+		 */
+		private int offset(int record)
+		{
+			return HEADER + record * STRIDE;
+		}
+	}
+}
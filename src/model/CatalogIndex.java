@@ -0,0 +1,99 @@
+package model;
+
+import io.ProductCatalog;
+
+/**
+ * Identity index of the products of a mapped catalog. The catalog
+ * already finds its products by identity, so the index holds nothing
+ * and hands every call to the catalog.
+ *
+ * @author Manuel Cruz
+ * @version 1.0
+ */
+class CatalogIndex extends IntMap<Data>
+{
+	/** Catalog of the products */
+	private ProductCatalog catalog;
+
+	/**
+	 * Explicit constructor of an index of the given catalog.
+	 * @param catalog - catalog of the products
+	 */
+	public CatalogIndex(ProductCatalog catalog)
+	{
+		super();
+		this.catalog = catalog;
+	}
+
+	@Override
+	public Data get(int key)
+	{
+		return catalog.find(key);
+	}
+
+	@Override
+	public boolean containsKey(int key)
+	{
+		return catalog.contains(key);
+	}
+
+	/**
+	 * The product is already in the catalog, so it is only pinned to
+	 * keep any change made to it. It must be put before it is changed,
+	 * so the catalog can't drop it in between.
+	 */
+	@Override
+	public Data put(int key, Data value)
+	{
+		if (!(value instanceof Product) || value.getId() != key)
+			throw new IllegalArgumentException("CatalogIndex - put(int key, Data value) - not the product of the key");
+
+		catalog.pin((Product) value);
+		return value;
+	}
+
+	/**
+	 * Removes the product from the catalog itself.
+	 */
+	@Override
+	public Data remove(int key)
+	{
+		return catalog.delete(key);
+	}
+
+	@Override
+	public void move(int from, int to)
+	{
+		catalog.rekey(from, to);
+	}
+
+	/**
+	 * The identities are read from the catalog without building the products.
+	 */
+	@Override
+	public int[] keys()
+	{
+		synchronized (catalog)
+		{
+			int[] keys = new int[catalog.size()];
+			for (int position = 0; position < keys.length; position++)
+				keys[position] = catalog.getIdentity(position);
+			return keys;
+		}
+	}
+
+	/**
+	 * Removes every product from the catalog itself.
+	 */
+	@Override
+	public void clear()
+	{
+		catalog.clear();
+	}
+
+	@Override
+	public int size()
+	{
+		return catalog.size();
+	}
+}
@@ -20,9 +20,6 @@ public class Company implements Data
 	/** Constant to reprensent the company ID */
 	public static final int COMPANY_ID = 2;
 	
-	/** type of sorting used for company. Default is name */
-	private static int sorting = COMPANY_NAME;
-	
 	/** Company name */
 	private String name;
 	
@@ -65,7 +62,7 @@ public class Company implements Data
 	public void setDate(Date date)
 	{
 		if (date == null)
-			dateCreated = new Date();
+			dateCreated = Date.today();
 		else
 			dateCreated = date;
 	}
@@ -141,50 +138,12 @@ public class Company implements Data
 	@Override
 	public int compareTo(Data data) 
 	{
-		int value = 0;
-		
 		if (!(data instanceof Company))
-			return value;
-		
-		Company other = (Company) data;
+			return 0;
 		
-		if (sorting == Company.COMPANY_NAME)
-		{
-			value = getName().compareTo(other.getName());
-			if (value == 0) value = getDate().compareTo(other.getDate());
-			if (value == 0) value = Integer.compare(getId(), other.getId());
-		}
-		else if (sorting == Company.COMPANY_DATE)
-		{
-			value = getDate().compareTo(other.getDate());
-			if (value == 0) value = getName().compareTo(other.getName());
-			if (value == 0) value = Integer.compare(getId(), other.getId());
-		}
-		else
-		{
-			value = Integer.compare(getId(), other.getId());
-			if (value == 0) value = getName().compareTo(other.getName());
-			if (value == 0) value = getDate().compareTo(other.getDate());
-		}
-		
-		return value;
+		return Comparators.get(Database.COMPANY, COMPANY_NAME).compare(this, data);
 	}
 
-	/**
-	 * Sets the sorting type for company
-	 * 
-	 * @param type - type of sorting
-	 */
-	public static void setSorting(int type)
-	{
-		boolean validType = type == COMPANY_NAME || 
-						    type == COMPANY_DATE ||
-						    type == COMPANY_ID;
-		
-		if (validType)
-			sorting = type;
-	}
-	
 	/**
 	 * Gets the header of the company
 	 * @return an array containing the header
@@ -0,0 +1,326 @@
+package model;
+
+import java.lang.reflect.Array;
+import java.util.Comparator;
+import java.util.function.Function;
+import java.util.function.ToDoubleFunction;
+import java.util.function.ToIntFunction;
+
+/**
+ * Registry of the comparators of every type of data, by the sorting
+ * constants of each type (COMPANY_NAME, PRODUCT_WEIGHT, USER_ID, ...).
+ * <br><br>
+ * A comparator compares its column first and then every other column
+ * of the type to break ties, in the order the type lists them. The
+ * comparators are built once and hold no state, so they can be used
+ * from many threads at the same time and by Arrays.parallelSort.
+ *
+ * @author Manuel Cruz
+ * @version 1.0
+ */
+public final class Comparators
+{
+	/** Columns of each type, in the order they break ties */
+	private final static int[][] COLUMNS = {
+		{Company.COMPANY_NAME, Company.COMPANY_DATE, Company.COMPANY_ID},
+		{Product.PRODUCT_NAME, Product.PRODUCT_COMPANY, Product.PRODUCT_WEIGHT, Product.PRODUCT_DATE, Product.PRODUCT_ID},
+		{User.USER_FIRST_NAME, User.USER_LAST_NAME, User.USER_BIRTHDAY, User.USER_ID, User.USER_USERNAME},
+		{Warehouse.WAREHOUSE_NAME, Warehouse.WAREHOUSE_CAPACITY, Warehouse.WAREHOUSE_PRODUCT_COUNT,
+		 Warehouse.WAREHOUSE_QUANTITY, Warehouse.WAREHOUSE_DATE, Warehouse.WAREHOUSE_ID}
+	};
+
+	/** Index of the products in the registry */
+	private final static int PRODUCTS = 1;
+
+	/** Comparators of a single column by type and column. Null if it cannot be sorted by */
+	private final static Comparator<Data>[][] ATTRIBUTES = attributes();
+
+	/** Comparators by type and column, ascending */
+	private final static Comparator<Data>[][] ASCENDING = orders(false);
+
+	/** Comparators by type and column, descending */
+	private final static Comparator<Data>[][] DESCENDING = orders(true);
+
+	/**
+	 * Not instantiable.
+	 */
+	private Comparators()
+	{
+		super();
+	}
+
+	/**
+	 * Gets the comparator of a type by one of its columns, ascending.
+	 * @param type - type of data. Ex: Database.COMPANY
+	 * @param column - column sorted by. Ex: Company.COMPANY_NAME
+	 * @return the comparator
+	 * @throws IllegalArgumentException if the type cannot be sorted by the column
+	 */
+	public static Comparator<Data> get(int type, int column)
+	{
+		return get(type, column, false);
+	}
+
+	/**
+	 * Gets the comparator of a type by one of its columns.
+	 * @param type - type of data. Ex: Database.COMPANY
+	 * @param column - column sorted by. Ex: Company.COMPANY_NAME
+	 * @param descending - true to sort from the greatest. False otherwise.
+	 * @return the comparator
+	 * @throws IllegalArgumentException if the type cannot be sorted by the column
+	 */
+	public static Comparator<Data> get(int type, int column, boolean descending)
+	{
+		int index = index(type);
+		Comparator<Data>[] orders = descending ? DESCENDING[index] : ASCENDING[index];
+		if (column < 0 || column >= orders.length || orders[column] == null)
+			throw new IllegalArgumentException("Comparators - get() - invalid column " + column);
+
+		return orders[column];
+	}
+
+	/**
+	 * Builds the comparator of a type by several of its columns, ascending.
+	 * The columns not given break the ties left.
+	 * @param type - type of data. Ex: Database.USER
+	 * @param columns - columns sorted by, the first one first. Ex: User.USER_LAST_NAME, User.USER_FIRST_NAME
+	 * @return the comparator
+	 * @throws IllegalArgumentException if the type cannot be sorted by a column
+	 */
+	public static Comparator<Data> chain(int type, int... columns)
+	{
+		int index = index(type);
+		Comparator<Data> comparator = null;
+		boolean[] used = new boolean[ATTRIBUTES[index].length];
+
+		for (int column : columns)
+			if (!used[attribute(index, column)])
+			{
+				used[column] = true;
+				comparator = then(comparator, ATTRIBUTES[index][column]);
+			}
+
+		for (int column : COLUMNS[index])
+			if (!used[column])
+				comparator = then(comparator, ATTRIBUTES[index][column]);
+
+		return comparator;
+	}
+
+	/**
+	 * Gets the index of a type in the registry.
+	 * @param type - type of data
+	 * @return the index of the type
+	 * @throws IllegalArgumentException if the type is invalid
+	 */
+	private static int index(int type)
+	{
+		switch (type)
+		{
+			case Database.COMPANY:   return 0;
+			case Database.PRODUCT:   return 1;
+			case Database.USER:      return 2;
+			case Database.WAREHOUSE: return 3;
+			default:
+				throw new IllegalArgumentException("Comparators - index() - invalid type " + type);
+		}
+	}
+
+	/**
+	 * Checks a column of a type.
+	 * @param index - index of the type
+	 * @param column - column to check
+	 * @return the column
+	 * @throws IllegalArgumentException if the type cannot be sorted by the column
+	 */
+	private static int attribute(int index, int column)
+	{
+		if (column < 0 || column >= ATTRIBUTES[index].length || ATTRIBUTES[index][column] == null)
+			throw new IllegalArgumentException("Comparators - attribute() - invalid column " + column);
+
+		return column;
+	}
+
+	/**
+	 * Appends a comparator to another one.
+	 * @param first - comparator compared first, null if there is none
+	 * @param next - comparator that breaks its ties
+	 * @return the joined comparator
+	 */
+	private static Comparator<Data> then(Comparator<Data> first, Comparator<Data> next)
+	{
+		return first == null ? next : first.thenComparing(next);
+	}
+
+	/**
+	 * Builds the comparators of every type by every column.
+	 * @param descending - true to sort from the greatest. False otherwise.
+	 * @return comparators by type and column
+	 */
+	private static Comparator<Data>[][] orders(boolean descending)
+	{
+		Comparator<Data>[][] orders = table(ATTRIBUTES.length);
+		for (int index = 0; index < orders.length; index++)
+		{
+			orders[index] = array(ATTRIBUTES[index].length);
+			for (int column = 0; column < orders[index].length; column++)
+			{
+				if (ATTRIBUTES[index][column] == null)
+					continue;
+
+				Comparator<Data> order = index == PRODUCTS ? products(column) : chain(type(index), column);
+				orders[index][column] = descending ? order.reversed() : order;
+			}
+		}
+		return orders;
+	}
+
+	/**
+	 * Gets the comparator of the products by a column. Products are 
+	 * compared by their sort keys, so each comparison looks up the 
+	 * companies only once.
+	 * @param column - column sorted by
+	 * @return the comparator
+	 */
+	private static Comparator<Data> products(int column)
+	{
+		Comparator<Product> products = ProductSorter.comparator(column);
+		return (d1, d2) -> products.compare((Product) d1, (Product) d2);
+	}
+
+	/**
+	 * Gets the type of an index of the registry.
+	 * @param index - index of the type
+	 * @return the type
+	 */
+	private static int type(int index)
+	{
+		int[] types = {Database.COMPANY, Database.PRODUCT, Database.USER, Database.WAREHOUSE};
+		return types[index];
+	}
+
+	/**
+	 * Builds the comparators of a single column of every type.
+	 * @return comparators by type and column
+	 */
+	private static Comparator<Data>[][] attributes()
+	{
+		Comparator<Data>[] companies = array(3);
+		companies[Company.COMPANY_NAME] = by(Company.class, Company::getName);
+		companies[Company.COMPANY_DATE] = byDate(Company.class, Company::getDate);
+		companies[Company.COMPANY_ID] = byInt(Company.class, Company::getId);
+
+		// the company of a product is compared by the company it refers to
+		Comparator<Data> company = Comparator.comparing(Comparators::company,
+														Comparator.nullsFirst(companies[Company.COMPANY_NAME]
+																  .thenComparing(companies[Company.COMPANY_DATE])));
+		Comparator<Data>[] products = array(5);
+		products[Product.PRODUCT_NAME] = by(Product.class, Product::getName);
+		products[Product.PRODUCT_COMPANY] = company.thenComparing(byInt(Product.class, Product::getCompany));
+		products[Product.PRODUCT_WEIGHT] = byDouble(Product.class, Product::getWeight);
+		products[Product.PRODUCT_DATE] = byDate(Product.class, Product::getDate);
+		products[Product.PRODUCT_ID] = byInt(Product.class, Product::getId);
+
+		// users cannot be sorted by password
+		Comparator<Data>[] users = array(7);
+		users[User.USER_FIRST_NAME] = by(User.class, User::getFirstName);
+		users[User.USER_LAST_NAME] = by(User.class, User::getLastName);
+		users[User.USER_BIRTHDAY] = byDate(User.class, User::getBirthday);
+		users[User.USER_ADMINISTRATOR] = by(User.class, User::isAdministrator);
+		users[User.USER_USERNAME] = by(User.class, User::getUsername);
+		users[User.USER_ID] = byInt(User.class, User::getId);
+
+		Comparator<Data>[] warehouses = array(6);
+		warehouses[Warehouse.WAREHOUSE_NAME] = by(Warehouse.class, Warehouse::getName);
+		warehouses[Warehouse.WAREHOUSE_CAPACITY] = byInt(Warehouse.class, Warehouse::getCapacity);
+		warehouses[Warehouse.WAREHOUSE_PRODUCT_COUNT] = byInt(Warehouse.class, Warehouse::getProductCount);
+		warehouses[Warehouse.WAREHOUSE_QUANTITY] = byInt(Warehouse.class, Warehouse::getQuantity);
+		warehouses[Warehouse.WAREHOUSE_DATE] = byDate(Warehouse.class, Warehouse::getDate);
+		warehouses[Warehouse.WAREHOUSE_ID] = byInt(Warehouse.class, Warehouse::getId);
+
+		Comparator<Data>[][] attributes = table(4);
+		attributes[index(Database.COMPANY)] = companies;
+		attributes[index(Database.PRODUCT)] = products;
+		attributes[index(Database.USER)] = users;
+		attributes[index(Database.WAREHOUSE)] = warehouses;
+		return attributes;
+	}
+
+	/**
+	 * Creates an array of comparators. Generic arrays can't be created
+	 * directly, so it is created by reflection.
+	 * @param length - length of the array
+	 * @return the array, empty
+	 */
+	@SuppressWarnings("unchecked")
+	private static <T> Comparator<T>[] array(int length)
+	{
+		return (Comparator<T>[]) Array.newInstance(Comparator.class, length);
+	}
+
+	/**
+	 * Creates a table of comparators, with a row of comparators per type.
+	 * @param length - number of rows
+	 * @return the table, without rows
+	 */
+	@SuppressWarnings("unchecked")
+	private static <T> Comparator<T>[][] table(int length)
+	{
+		return (Comparator<T>[][]) Array.newInstance(Comparator[].class, length);
+	}
+
+	/**
+	 * Gets the company of a product.
+	 * @param data - product
+	 * @return the company of the product. Null if it does not exist.
+	 */
+	private static Data company(Data data)
+	{
+		Data company = Database.getInstance().select(((Product) data).getCompany());
+		return company instanceof Company ? company : null;
+	}
+
+	/**
+	 * Builds a comparator of a comparable attribute.
+	 * @param type - class of the data compared
+	 * @param key - gets the attribute
+	 * @return the comparator
+	 */
+	private static <T extends Data, U extends Comparable<? super U>> Comparator<Data> by(Class<T> type, Function<T, U> key)
+	{
+		return Comparator.comparing(data -> key.apply(type.cast(data)));
+	}
+
+	/**
+	 * Builds a comparator of an int attribute.
+	 * @param type - class of the data compared
+	 * @param key - gets the attribute
+	 * @return the comparator
+	 */
+	private static <T extends Data> Comparator<Data> byInt(Class<T> type, ToIntFunction<T> key)
+	{
+		return Comparator.comparingInt(data -> key.applyAsInt(type.cast(data)));
+	}
+
+	/**
+	 * Builds a comparator of a double attribute.
+	 * @param type - class of the data compared
+	 * @param key - gets the attribute
+	 * @return the comparator
+	 */
+	private static <T extends Data> Comparator<Data> byDouble(Class<T> type, ToDoubleFunction<T> key)
+	{
+		return Comparator.comparingDouble(data -> key.applyAsDouble(type.cast(data)));
+	}
+
+	/**
+	 * Builds a comparator of a date attribute.
+	 * @param type - class of the data compared
+	 * @param key - gets the attribute
+	 * @return the comparator
+	 */
+	private static <T extends Data> Comparator<Data> byDate(Class<T> type, Function<T, Date> key)
+	{
+		return (d1, d2) -> key.apply(type.cast(d1)).compareTo(key.apply(type.cast(d2)));
+	}
+}
@@ -1,13 +1,35 @@
 package model;
 
+import java.awt.EventQueue;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.StampedLock;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
 
 import io.IO;
+import io.JournalEntry;
+import io.ProductCatalog;
+import utilities.Utilities;
 
 /**
  * Database class. It contains all of the data for logistics.
+ * <br><br>
+ * The data can be selected and changed from any thread. Selecting by 
+ * identity first reads without locking and only locks if a change was 
+ * made meanwhile. The rest of the selections share a read lock, so 
+ * readers never block one another, and every change takes the write 
+ * lock. The data returned must only be changed through the database.
  * 
  * @author Manuel Cruz
  * @Version 1.0
@@ -30,6 +52,12 @@ public class Database implements Runnable
 	/** Constant warehouse value */
 	public final static int WAREHOUSE = 0x4000000;
 	
+	/** Size of the journal in characters after which all data is stored again */
+	private final static long JOURNAL_THRESHOLD = 1 << 20;
+	
+	/** Maximum number of threads used to load the data */
+	private final static int LOAD_THREADS = 4;
+	
 	/** Single instance of the database */
 	private static Database instance;
 	
@@ -45,6 +73,56 @@ public class Database implements Runnable
 	/** List that contains all of the companies */
 	private List<Company> companies;
 	
+	/** Index of the users by their id */
+	private IntMap<Data> userIndex;
+	
+	/** Index of the warehouses by their id */
+	private IntMap<Data> warehouseIndex;
+	
+	/** Index of the products by their id */
+	private IntMap<Data> productIndex;
+	
+	/** Index of the companies by their id */
+	private IntMap<Data> companyIndex;
+	
+	/** Completed once all of the data is loaded */
+	private final CompletableFuture<Void> ready;
+	
+	/** Changes every time a company is renamed, changes its id or is removed */
+	private volatile int companyVersion;
+	
+	/** Identities of the products of each company, by the id of the company */
+	private IntMap<IntMap<Boolean>> companyProducts;
+	
+	/** Identities of the warehouses that store each product, by the id of the product */
+	private IntMap<IntMap<Boolean>> productWarehouses;
+	
+	/** Users by their username */
+	private Map<String, User> usernames;
+	
+	/** Identities of each type sorted by date, by type from COMPANY to WAREHOUSE */
+	private DateIndex[] dates;
+	
+	/** Keeps the warehouses of each product as the warehouses change their stock */
+	private final Warehouse.StockListener stockListener = this::stockChanged;
+	
+	/** Guards the lists, indexes and links. Readers never block one another */
+	private final StampedLock lock = new StampedLock();
+	
+	/** Number of transactions begun and not yet committed or rolled back */
+	private int transactions;
+	
+	/** Time waited for the lock when saving before giving up, in seconds */
+	private final static long SAVE_TIMEOUT = 10;
+	
+	/** Version of each type of data, by position of the type */
+	private final long[] versions = new long[4];
+	
+	/** Identities changed since the last snapshot, or since the data was loaded. Guards the snapshots */
+	private final IntMap<Boolean> changes = new IntMap<Boolean>();
+	
+	/** Last snapshot taken. Null if none was */
+	private Snapshot snapshot;
 	
 	/**
 	 * Explicit constructor of a database. 
@@ -52,15 +130,89 @@ public class Database implements Runnable
 	private Database()
 	{
 		super();
+		ready = new CompletableFuture<Void>();
 	}
 
+	/**
+	 * Loads all of the data. The four types are loaded at the same time, 
+	 * products in this thread and the rest by a bounded pool that also 
+	 * parses large product files in chunks. The journal is replayed once 
+	 * everything is loaded and then the database is ready.
+	 */
 	@Override
 	public void run() 
 	{
-		loadCompanies();
-		loadProducts();
-		loadUsers();
-		loadWarehouses();
+		long start = System.nanoTime();
+		IO.getInstance(); // created before it is shared by the loaders
+		
+		// nothing is selected until everything is loaded
+		long stamp = lock.writeLock();
+		
+		int threads = Math.max(1, Math.min(LOAD_THREADS, Runtime.getRuntime().availableProcessors()));
+		ExecutorService executor = Executors.newFixedThreadPool(threads, runnable -> {
+			Thread thread = new Thread(runnable, "Database Loader");
+			thread.setDaemon(true);
+			return thread;
+		});
+		
+		try
+		{
+			CompletableFuture<Void> companies = CompletableFuture.runAsync(() -> timed("companies", this::loadCompanies), executor);
+			CompletableFuture<Void> users = CompletableFuture.runAsync(() -> timed("users", this::loadUsers), executor);
+			CompletableFuture<Void> warehouses = CompletableFuture.runAsync(() -> timed("warehouses", this::loadWarehouses), executor);
+			
+			// products are loaded here so waiting for their chunks never holds a loader
+			timed("products", () -> loadProducts(executor));
+			
+			CompletableFuture.allOf(companies, users, warehouses).join();
+			timed("links", this::buildLinks);
+			timed("journal", this::replay);
+		}
+		catch (CompletionException e)
+		{
+			System.err.println("Failure to Load Database");
+			ready.completeExceptionally(e);
+			System.exit(-1);
+		}
+		finally
+		{
+			executor.shutdown();
+			lock.unlockWrite(stamp);
+		}
+		
+		System.out.println("Database - ready in " + (System.nanoTime() - start) / 1000000 + " ms");
+		ready.complete(null);
+	}
+	
+	/**
+	 * Gets the future completed once all of the data is loaded. No data 
+	 * can be selected or changed before it is completed.
+	 * @return readiness of the database
+	 */
+	public CompletableFuture<Void> ready()
+	{
+		return ready;
+	}
+	
+	/**
+	 * Checks whether all of the data is loaded.
+	 * @return true if the database is ready. False otherwise.
+	 */
+	public boolean isReady()
+	{
+		return ready.isDone() && !ready.isCompletedExceptionally();
+	}
+	
+	/**
+	 * Runs a phase of the loading and logs the time it took.
+	 * @param phase - name of the phase
+	 * @param load - work of the phase
+	 */
+	private void timed(String phase, Runnable load)
+	{
+		long start = System.nanoTime();
+		load.run();
+		System.out.println("Database - loaded " + phase + " in " + (System.nanoTime() - start) / 1000000 + " ms");
 	}
 	
 	/**
@@ -71,22 +223,83 @@ public class Database implements Runnable
 	 */
 	public Data select(int identity)
 	{
+		// an optimistic read is only kept if no change was made meanwhile
+		long stamp = lock.tryOptimisticRead();
+		Data data = find(identity);
+		if (lock.validate(stamp))
+			return data;
 		
-		int type = identity & DATA_TYPE_MASK;
+		return read(() -> find(identity));
+	}
+	
+	/**
+	 * Finds a data by its id without locking.
+	 * @param identity - identity of the data
+	 * @return the data found. Null if it can't be found.
+	 */
+	private Data find(int identity)
+	{
+		IntMap<Data> index = index(identity & DATA_TYPE_MASK);
 		
-		List<Data> dataList = selectAll(type);
+		if (index == null)
+			return null;
 		
-		for(Data data : dataList)
+		return index.get(identity);
+	}
+	
+	/**
+	 * Gets a read only view of the data of the given type. The view 
+	 * is live, it does not copy the data so later changes to the 
+	 * database are seen through it. Use selectAll if the list must 
+	 * be changed or kept. Returns null if the type is invalid.
+	 * <br><br>
+	 * The view is not locked, so it may only be read on the event 
+	 * dispatch thread, and only while no other thread changes the 
+	 * database. Any other thread gets a copy like selectAll, and 
+	 * should use forEach, selectAll or snapshot instead.
+	 * 
+	 * @param type - type of data
+	 * @return a read only list of all the data of the given type
+	 */
+	public List<Data> view(int type)
+	{
+		if (!EventQueue.isDispatchThread())
 		{
-			if (data.getId() == identity)
-				return data;
+			System.err.println("Database - view(int type) - not on the event dispatch thread: "
+					+ Thread.currentThread().getName());
+			List<Data> copy = selectAll(type);
+			return copy == null ? null : Collections.unmodifiableList(copy);
 		}
 		
-		return null;
+		List<? extends Data> list = list(type);
+		
+		if (list == null)
+			return null;
+		
+		return Collections.unmodifiableList(list);
+	}
+	
+	/**
+	 * Visits every data of the given type without copying it. The 
+	 * data is read locked while it is visited, so the visitor may 
+	 * select data but must not insert, delete or update it.
+	 * 
+	 * @param type - type of data
+	 * @param visitor - action taken on each data
+	 */
+	public void forEach(int type, Consumer<? super Data> visitor)
+	{
+		read(() -> {
+			List<? extends Data> list = list(type);
+			if (list != null)
+				for (int i = 0; i < list.size(); i++)
+					visitor.accept(list.get(i));
+			return null;
+		});
 	}
 	
 	/**
-	 * Selects the data in a list of the given type. 
+	 * Selects a copy of the data in a list of the given type. 
 	 * Returns null if it fails.
 	 * 
 	 * @param type - type of data
@@ -94,35 +307,343 @@ public class Database implements Runnable
 	 */
 	public List<Data> selectAll(int type)
 	{
-		List<Data> list;
+		return read(() -> {
+			List<? extends Data> list = list(type);
+			return list == null ? null : new ArrayList<Data>(list);
+		});
+	}
+	
+	/**
+	 * Gets the identities of the products sorted by a sorting type. The 
+	 * products of a mapped catalog are sorted by the keys read from its 
+	 * records, so none of them is built.
+	 * 
+	 * @param sorting - type of sorting, PRODUCT_NAME to PRODUCT_ID
+	 * @param parallel - true to sort in parallel. False otherwise.
+	 * @return identities of the products, sorted
+	 */
+	public int[] sortProducts(int sorting, boolean parallel)
+	{
+		if (products instanceof ProductCatalog)
+			return ProductSorter.sort((ProductCatalog) products, sorting, parallel);
 		
+		List<Data> list = selectAll(PRODUCT);
+		ProductSorter.sort(list, sorting, parallel);
+		
+		int[] identities = new int[list.size()];
+		for (int i = 0; i < identities.length; i++)
+			identities[i] = list.get(i).getId();
+		return identities;
+	}
+	
+	/**
+	 * Gets the identities of the products of a company.
+	 * @param company - id of the company
+	 * @return identities of its products, in no particular order
+	 */
+	public int[] selectProducts(int company)
+	{
+		return read(() -> {
+			IntMap<Boolean> products = companyProducts.get(company);
+			return products == null ? new int[0] : products.keys();
+		});
+	}
+	
+	/**
+	 * Gets the identities of the warehouses that store a product.
+	 * @param product - id of the product
+	 * @return identities of the warehouses, in no particular order
+	 */
+	public int[] selectWarehouses(int product)
+	{
+		return read(() -> {
+			IntMap<Boolean> warehouses = productWarehouses.get(product);
+			return warehouses == null ? new int[0] : warehouses.keys();
+		});
+	}
+	
+	/**
+	 * Gets the identities of the data of a type created in a range of 
+	 * dates, sorted by date. Users are sorted by their birthday.
+	 * @param type - type of data
+	 * @param from - first date, inclusive. Null for no first date.
+	 * @param to - last date, inclusive. Null for no last date.
+	 * @param descending - true to start from the latest date. False otherwise.
+	 * @return identities by date, and by identity within a date. Null if the type is invalid.
+	 */
+	public int[] selectByDate(int type, Date from, Date to, boolean descending)
+	{
+		return read(() -> {
+			DateIndex index = dateIndex(type);
+			return index == null ? null : index.select(first(from), last(to), descending);
+		});
+	}
+	
+	/**
+	 * Counts the data of a type created in a range of dates.
+	 * @param type - type of data
+	 * @param from - first date, inclusive. Null for no first date.
+	 * @param to - last date, inclusive. Null for no last date.
+	 * @return number of data in the range. 0 if the type is invalid.
+	 */
+	public int countByDate(int type, Date from, Date to)
+	{
+		return read(() -> {
+			DateIndex index = dateIndex(type);
+			return index == null ? 0 : index.count(first(from), last(to));
+		});
+	}
+	
+	/**
+	 * Visits the data of a type created in a range of dates, sorted by 
+	 * date. The data is not locked while it is visited, so data changed 
+	 * meanwhile may be visited as it was or not at all.
+	 * @param type - type of data
+	 * @param from - first date, inclusive. Null for no first date.
+	 * @param to - last date, inclusive. Null for no last date.
+	 * @param descending - true to start from the latest date. False otherwise.
+	 * @param visitor - action taken on each data
+	 */
+	public void forEachByDate(int type, Date from, Date to, boolean descending, Consumer<? super Data> visitor)
+	{
+		int[] ids = selectByDate(type, from, to, descending);
+		if (ids == null)
+			return;
+		
+		for (int id : ids)
+		{
+			Data data = select(id);
+			if (data != null)
+				visitor.accept(data);
+		}
+	}
+	
+	/**
+	 * Takes a snapshot of all of the data. The snapshot is not changed 
+	 * with the database, so it can be read for as long as needed without 
+	 * locking while the data keeps changing. The first snapshot copies 
+	 * every data, except the products of a mapped catalog which are read 
+	 * from its file. The next ones share the tables of the types that 
+	 * did not change and copy only the data changed since, and the last 
+	 * snapshot is returned if nothing changed.
+	 * @return the snapshot
+	 */
+	public Snapshot snapshot()
+	{
+		return read(() -> {
+			// the read lock keeps the data from changing, the monitor keeps the snapshots
+			synchronized (changes)
+			{
+				if (snapshot != null && changes.size() == 0)
+					return snapshot;
+				
+				Snapshot.Table[] tables = new Snapshot.Table[versions.length];
+				for (int type : new int[] {COMPANY, PRODUCT, USER, WAREHOUSE})
+				{
+					Snapshot.Table table = snapshot == null ? table(type) : snapshot.table(type);
+					tables[position(type)] = table;
+				}
+				
+				// only the data changed since the tables were made is copied again
+				for (int id : changes.keys())
+				{
+					int position = position(id & DATA_TYPE_MASK);
+					tables[position] = tables[position].with(versions[position], id, find(id));
+				}
+				
+				snapshot = new Snapshot(tables);
+				changes.clear();
+				return snapshot;
+			}
+		});
+	}
+	
+	/**
+	 * Makes the table of a type for the first snapshot. The products of 
+	 * a catalog are left in its file as it was opened, the changes made 
+	 * since are then copied on top of it.
+	 * @param type - type of data
+	 * @return the table of the type
+	 */
+	private Snapshot.Table table(int type)
+	{
+		List<? extends Data> list = list(type);
+		if (list instanceof ProductCatalog)
+			return Snapshot.Table.of(versions[position(type)], ((ProductCatalog) list).getRecords());
+		
+		Snapshot.Table table = Snapshot.Table.of(versions[position(type)]);
+		for (Data data : list)
+			if (!changes.containsKey(data.getId()))
+				table = table.with(versions[position(type)], data.getId(), data);
+		return table;
+	}
+	
+	/**
+	 * Records that a data was inserted, deleted or changed, so the 
+	 * next snapshot copies it again.
+	 * @param id - identity of the data
+	 */
+	private void changed(int id)
+	{
+		versions[position(id & DATA_TYPE_MASK)]++;
+		changes.put(id, Boolean.TRUE);
+	}
+	
+	/**
+	 * Gets the user with a username.
+	 * @param username - username of the user
+	 * @return the user. Null if no user has the username.
+	 */
+	public User selectUser(String username)
+	{
+		return read(() -> usernames.get(username));
+	}
+	
+	/**
+	 * Gets the list that holds the data of the given type.
+	 * @param type - type of data
+	 * @return the list of the type. Null if the type is invalid.
+	 */
+	private List<? extends Data> list(int type)
+	{
 		if (type == COMPANY)
-			list = new ArrayList<Data>(companies);
+			return companies;
 		else if (type == PRODUCT)
-			list = new ArrayList<Data>(products);
+			return products;
 		else if (type == USER)
-			list = new ArrayList<Data>(users);
+			return users;
 		else if (type == WAREHOUSE)
-			list = new ArrayList<Data>(warehouses);
-		else
-			list = null;
+			return warehouses;
 		
-		return list;
+		return null;
 	}
 	
 	/**
-	 * Inserts a data into the database.
+	 * Inserts a data into the database. A user is not inserted if 
+	 * another user has its username.
 	 * 
 	 * @param data - data to save
 	 * @return true if it was inserted successfully. False otherwise.
 	 */
 	public boolean insert(Data data)
+	{
+		return write(() -> {
+			if (!add(data))
+				return false;
+			
+			IO.getInstance().journalInsert(data);
+			journaled();
+			return true;
+		});
+	}
+	
+	/**
+	 * Deletes a data based on the given id.
+	 * @param id - id of the data to remove
+	 * @return return true if it was removed successfully. False otherwise.
+	 */
+	public boolean delete(int id)
+	{
+		return write(() -> {
+			if (remove(id) == null)
+				return false;
+			
+			IO.getInstance().journalDelete(id);
+			journaled();
+			return true;
+		});
+	}
+	
+	/**
+	 * Update a specific data based on the given id. A username is not 
+	 * changed to one another user has. The products of a company whose 
+	 * identity changes are moved to its new identity in the same change.
+	 * @param id - id of the product to update
+	 * @param type - type of data
+	 * @param change - change to update
+	 * @return true if it was updated successfully. False otherwise.
+	 */
+	public boolean update(int id, int type, Object change)
+	{
+		return write(() -> {
+			if (!change(id, type, change))
+				return false;
+			
+			IO.getInstance().journalUpdate(id, type, change);
+			journaled();
+			return true;
+		});
+	}
+	
+	/**
+	 * Adds a count of a product to a warehouse. The count replaces the 
+	 * one of a product already stored.
+	 * @param warehouse - id of the warehouse
+	 * @param product - id of the product
+	 * @param count - count of the product
+	 * @return true if it was added. False otherwise.
+	 */
+	public boolean addStock(int warehouse, int product, int count)
+	{
+		Transaction transaction = begin();
+		transaction.addStock(warehouse, product, count);
+		return transaction.commit();
+	}
+	
+	/**
+	 * Removes a quantity of a product from a warehouse. The product is 
+	 * no longer stored once all of its quantity is removed.
+	 * @param warehouse - id of the warehouse
+	 * @param product - id of the product
+	 * @param quantity - quantity to remove
+	 * @return true if it was removed. False otherwise.
+	 */
+	public boolean removeStock(int warehouse, int product, int quantity)
+	{
+		Transaction transaction = begin();
+		transaction.removeStock(warehouse, product, quantity);
+		return transaction.commit();
+	}
+	
+	/**
+	 * Begins a transaction. Its changes are made as they are requested 
+	 * and stored together once it is committed. Each change is locked 
+	 * on its own, so the changes are seen as they are made. A transaction 
+	 * is not isolated: other changes can be made between its own, and 
+	 * rolling it back restores what its changes replaced, even if another 
+	 * change was made on top of them since. Nothing is stored while a 
+	 * transaction is open, so every transaction must be committed or 
+	 * rolled back, in a finally block if anything can fail in between.
+	 * @return the transaction
+	 */
+	public Transaction begin()
+	{
+		return write(() -> {
+			transactions++;
+			return new Transaction();
+		});
+	}
+	
+	/**
+	 * Adds a data to its list and index without storing it.
+	 * @param data - data to add
+	 * @return true if it was added. False if it is invalid or its id is taken.
+	 */
+	private boolean add(Data data)
 	{
 		if (data == null)
 			return false;
 		
 		int type = data.getId() & DATA_TYPE_MASK;		
 		
+		IntMap<Data> index = index(type);
+		if (index == null || index.containsKey(data.getId()))
+			return false;
+		
+		// usernames are unique
+		if (data instanceof User && usernames.containsKey(((User) data).getUsername()))
+			return false;
+		
 		boolean success;
 		if (type == COMPANY)
 			success = companies.add((Company) data);
@@ -130,94 +651,527 @@ public class Database implements Runnable
 			success = products.add((Product) data);
 		else if (type == USER)
 			success = users.add((User) data);
-		else if (type == WAREHOUSE)
-			success = warehouses.add((Warehouse) data);
 		else
-			return false;
+			success = warehouses.add((Warehouse) data);
 		
-		save(type);
+		if (success)
+		{
+			index.put(data.getId(), data);
+			link(data);
+			changed(data.getId());
+		}
 		
 		return success;
 	}
 	
 	/**
-	 * Deletes a data based on the given id.
+	 * Removes a data from its list and index without storing it.
 	 * @param id - id of the data to remove
-	 * @return return true if it was removed successfully. False otherwise.
+	 * @return the data removed. Null if it was not found.
 	 */
-	public boolean delete(int id)
+	private Data remove(int id)
 	{
 		int type = id & DATA_TYPE_MASK;
-		List<Data> dataList = selectAll(type);
-		boolean success = false;
-		for (Data data : dataList)
+		IntMap<Data> index = index(type);
+		if (index == null)
+			return null;
+		
+		Data data = index.remove(id);
+		if (data == null)
+			return null;
+		
+		unlink(data);
+		changed(id);
+		
+		if (type == COMPANY)
 		{
-			if (data.getId() == id)
-			{
-				if (type == COMPANY)
-					success = companies.remove((Company) data);
-				else if (type == PRODUCT)
-					success = products.remove((Product) data);
-				else if (type == USER)
-					success = users.remove((User) data);
-				else if (type == WAREHOUSE)
-					success = warehouses.remove((Warehouse) data);
-				else
-					return false;
-				break;
-			}
+			companies.remove((Company) data);
+			companyVersion++;
 		}
-		save(type);
-		return success;
+		else if (type == PRODUCT)
+			products.remove((Product) data);
+		else if (type == USER)
+			users.remove((User) data);
+		else
+			warehouses.remove((Warehouse) data);
+		
+		return data;
 	}
 	
 	/**
-	 * Update a specific data based on the given id.
-	 * @param id - id of the product to update
-	 * @param type - type of data
-	 * @param change - change to update
-	 * @return true if it was updated successfully. False otherwise.
+	 * Changes an attribute of a data without storing it.
+	 * @param id - id of the data to change
+	 * @param type - type of attribute
+	 * @param change - change to make
+	 * @return true if it was changed. False otherwise.
 	 */
-	public boolean update(int id, int type, Object change)
+	private boolean change(int id, int type, Object change)
 	{
 		if (change == null)
 			return false;
 		
-		Data data = select(id);
+		Data data = find(id);
 		if (data == null)
 			return false;
 		
-		return data.update(type, change);
+		// usernames are unique
+		if (data instanceof User && type == User.USER_USERNAME && change instanceof String)
+		{
+			User user = usernames.get(Utilities.getInstance().validString((String) change));
+			if (user != null && user != data)
+				return false;
+		}
+		
+		// the links of the data are kept by the attributes that can change
+		boolean relink = linked(data, type);
+		if (relink)
+			unlink(data);
+		
+		boolean updated = update(data, id, type, change);
+		
+		if (relink)
+			link(data);
+		
+		if (!updated)
+			return false;
+		
+		changed(id);
+		if (data.getId() != id)
+			changed(data.getId());
+		
+		// products show the name and id of their company
+		if (data instanceof Company && (type == Company.COMPANY_NAME || data.getId() != id))
+			companyVersion++;
+		
+		// the products of a company follow it to its new identity
+		if (data instanceof Company && data.getId() != id)
+		{
+			IntMap<Boolean> products = companyProducts.get(id);
+			if (products != null)
+				for (int product : products.keys())
+					change(product, Product.PRODUCT_COMPANY, data.getId());
+		}
+		
+		return true;
 	}
 	
 	/**
-	 * Saves all of the data back into disk storage. 
+	 * Checks whether the links of a data are kept by one of its attributes.
+	 * @param data - data changed
+	 * @param type - type of attribute
+	 * @return true if the data must be linked again. False otherwise.
 	 */
-	public void save()
+	private static boolean linked(Data data, int type)
 	{
-		saveCompanies();
-		saveProducts();
-		saveUsers();
-		saveWarehouses();
+		if (data instanceof Company)
+			return type == Company.COMPANY_DATE || type == Company.COMPANY_ID;
+		else if (data instanceof Product)
+			return type == Product.PRODUCT_COMPANY || type == Product.PRODUCT_DATE || type == Product.PRODUCT_ID;
+		else if (data instanceof User)
+			return type == User.USER_USERNAME || type == User.USER_BIRTHDAY || type == User.USER_ID;
+		
+		return type == Warehouse.WAREHOUSE_DATE || type == Warehouse.WAREHOUSE_ID;
+	}
+	
+	/**
+	 * Updates an attribute of a data and keeps it in its index.
+	 * @param data - data to update
+	 * @param id - id of the data before the update
+	 * @param type - type of attribute
+	 * @param change - change to make
+	 * @return true if it was updated. False otherwise.
+	 */
+	private boolean update(Data data, int id, int type, Object change)
+	{
+		// an index that does not hold its data must keep it before it changes
+		IntMap<Data> index = index(id & DATA_TYPE_MASK);
+		index.put(id, data);
+		
+		if (!data.update(type, change))
+			return false;
+		
+		// an identity change must move the data in its index
+		if (data.getId() != id)
+		{
+			if (index(data.getId() & DATA_TYPE_MASK) != index || index.containsKey(data.getId()))
+			{
+				data.update(type, id); // identity taken, so it is undone
+				return false;
+			}
+			index.move(id, data.getId());
+		}
+		
+		return true;
+	}
+	
+	/**
+	 * Builds the products of each company, the warehouses of each 
+	 * product, the users by username and the data of each type by date 
+	 * from the loaded data. Products of a catalog are read without 
+	 * being built.
+	 */
+	private void buildLinks()
+	{
+		companyProducts = new IntMap<IntMap<Boolean>>();
+		productWarehouses = new IntMap<IntMap<Boolean>>();
+		usernames = new HashMap<String, User>(users.size() * 4 / 3 + 1);
+		dates = new DateIndex[] {new DateIndex(), new DateIndex(), new DateIndex(), new DateIndex()};
+		
+		for (Company company : companies)
+			link(company);
+		
+		if (products instanceof ProductCatalog)
+		{
+			ProductCatalog catalog = (ProductCatalog) products;
+			for (int position = 0; position < catalog.size(); position++)
+			{
+				put(companyProducts, catalog.getCompany(position), catalog.getIdentity(position));
+				dates[position(PRODUCT)].put(catalog.getDate(position), catalog.getIdentity(position));
+			}
+		}
+		else
+			for (Product product : products)
+				link(product);
+		
+		for (Warehouse warehouse : warehouses)
+			link(warehouse);
+		
+		for (User user : users)
+			link(user);
+	}
+	
+	/**
+	 * Links a data to the data it refers to. A product is linked to its 
+	 * company, a warehouse to the products it stores and a user to its 
+	 * username. Every data is linked to its date.
+	 * @param data - data to link
+	 */
+	private void link(Data data)
+	{
+		dateIndex(data.getId() & DATA_TYPE_MASK).put(date(data).getPacked(), data.getId());
+		
+		if (data instanceof Product)
+		{
+			Product product = (Product) data;
+			put(companyProducts, product.getCompany(), product.getId());
+		}
+		else if (data instanceof Warehouse)
+		{
+			Warehouse warehouse = (Warehouse) data;
+			warehouse.forEachProduct((product, quantity) -> put(productWarehouses, product, warehouse.getId()));
+			warehouse.setListener(stockListener);
+		}
+		else if (data instanceof User)
+		{
+			// the first user keeps a username loaded more than once
+			User user = (User) data;
+			usernames.putIfAbsent(user.getUsername(), user);
+		}
+	}
+	
+	/**
+	 * Unlinks a data from the data it refers to.
+	 * @param data - data to unlink
+	 */
+	private void unlink(Data data)
+	{
+		dateIndex(data.getId() & DATA_TYPE_MASK).remove(date(data).getPacked(), data.getId());
+		
+		if (data instanceof Product)
+		{
+			Product product = (Product) data;
+			remove(companyProducts, product.getCompany(), product.getId());
+		}
+		else if (data instanceof Warehouse)
+		{
+			Warehouse warehouse = (Warehouse) data;
+			warehouse.setListener(null);
+			warehouse.forEachProduct((product, quantity) -> remove(productWarehouses, product, warehouse.getId()));
+		}
+		else if (data instanceof User)
+		{
+			User user = (User) data;
+			usernames.remove(user.getUsername(), user);
+		}
+	}
+	
+	/**
+	 * Gets the date of a data. Users are dated by their birthday.
+	 * @param data - data
+	 * @return date of the data
+	 */
+	private static Date date(Data data)
+	{
+		if (data instanceof Company)
+			return ((Company) data).getDate();
+		else if (data instanceof Product)
+			return ((Product) data).getDate();
+		else if (data instanceof User)
+			return ((User) data).getBirthday();
+		
+		return ((Warehouse) data).getDate();
+	}
+	
+	/**
+	 * Gets the date index of a type.
+	 * @param type - type of data
+	 * @return the date index. Null if the type is invalid.
+	 */
+	private DateIndex dateIndex(int type)
+	{
+		int position = position(type);
+		return position < 0 ? null : dates[position];
 	}
 	
 	/**
-	 * Saves the specific data back into disk storage.
-	 * If no specific type is given then all of data will be saved.
-	 * @param type - Type of data to store.
+	 * Gets the position of a type in the arrays by type.
+	 * @param type - type of data
+	 * @return position from COMPANY to WAREHOUSE. -1 if the type is invalid.
 	 */
-	private void save(int type)
+	static int position(int type)
 	{
 		if (type == COMPANY)
-			saveCompanies();
+			return 0;
 		else if (type == PRODUCT)
-			saveProducts();
+			return 1;
 		else if (type == USER)
-			saveUsers();
+			return 2;
 		else if (type == WAREHOUSE)
-			saveWarehouses();
+			return 3;
+		
+		return -1;
+	}
+	
+	/**
+	 * Packs the first date of a range.
+	 * @param from - first date. Null for no first date.
+	 * @return the packed date
+	 */
+	private static int first(Date from)
+	{
+		return from == null ? Integer.MIN_VALUE : from.getPacked();
+	}
+	
+	/**
+	 * Packs the last date of a range.
+	 * @param to - last date. Null for no last date.
+	 * @return the packed date
+	 */
+	private static int last(Date to)
+	{
+		return to == null ? Integer.MAX_VALUE : to.getPacked();
+	}
+	
+	/**
+	 * Keeps the warehouses of a product when a warehouse starts or 
+	 * stops storing it.
+	 * @param warehouse - warehouse that changed its stock
+	 * @param product - identity of the product
+	 * @param stored - true if it started being stored. False if it stopped.
+	 */
+	private void stockChanged(Warehouse warehouse, int product, boolean stored)
+	{
+		if (stored)
+			put(productWarehouses, product, warehouse.getId());
 		else
-			save();
+			remove(productWarehouses, product, warehouse.getId());
+	}
+	
+	/**
+	 * Adds an identity to the identities of a key.
+	 * @param links - identities by key
+	 * @param key - key the identity is added to
+	 * @param id - identity to add
+	 */
+	private static void put(IntMap<IntMap<Boolean>> links, int key, int id)
+	{
+		IntMap<Boolean> ids = links.get(key);
+		if (ids == null)
+		{
+			ids = new IntMap<Boolean>(4);
+			links.put(key, ids);
+		}
+		ids.put(id, Boolean.TRUE);
+	}
+	
+	/**
+	 * Removes an identity from the identities of a key.
+	 * @param links - identities by key
+	 * @param key - key the identity is removed from
+	 * @param id - identity to remove
+	 */
+	private static void remove(IntMap<IntMap<Boolean>> links, int key, int id)
+	{
+		IntMap<Boolean> ids = links.get(key);
+		if (ids == null)
+			return;
+		
+		ids.remove(id);
+		if (ids.size() == 0)
+			links.remove(key);
+	}
+	
+	/**
+	 * Gets the version of the companies shown by the products. It changes 
+	 * every time a company is renamed, changes its id or is removed.
+	 * @return version of the companies
+	 */
+	int getCompanyVersion()
+	{
+		return companyVersion;
+	}
+	
+	/**
+	 * Replays the journal of changes on top of the loaded data. Changes 
+	 * that were already stored are skipped so a journal can be replayed 
+	 * more than once. The replayed changes are then stored.
+	 */
+	private void replay()
+	{
+		List<JournalEntry> entries = IO.getInstance().inputJournal();
+		if (entries == null)
+		{
+			System.err.println("Failure to Load Journal");
+			System.exit(-1);
+		}
+		
+		if (entries.isEmpty())
+			return;
+		
+		for (JournalEntry entry : entries)
+		{
+			if (entry.getOperation() == JournalEntry.INSERT)
+			{
+				remove(entry.getId());
+				add(entry.getData());
+			}
+			else if (entry.getOperation() == JournalEntry.DELETE)
+				remove(entry.getId());
+			else if (entry.getOperation() == JournalEntry.STOCK)
+				setStock(entry.getId(), entry.getProduct(), entry.getQuantity());
+			else
+				change(entry.getId(), entry.getType(), entry.getChange());
+		}
+		
+		store();
+	}
+	
+	/**
+	 * Sets the quantity stored of a product in a warehouse without storing it.
+	 * @param id - id of the warehouse
+	 * @param product - id of the product
+	 * @param quantity - quantity stored. -1 if it is no longer stored.
+	 * @return true if it was set. False otherwise.
+	 */
+	private boolean setStock(int id, int product, int quantity)
+	{
+		Data data = find(id);
+		if (!(data instanceof Warehouse))
+			return false;
+		
+		Warehouse warehouse = (Warehouse) data;
+		changed(id);
+		if (warehouse.contains(product))
+			warehouse.remove(product, warehouse.getProductQuantity(product));
+		
+		return quantity < 0 || warehouse.add(product, quantity);
+	}
+	
+	/**
+	 * Called after a change is appended to the journal. Once the journal 
+	 * grows beyond its threshold all data is stored and the journal emptied, 
+	 * once no transaction is open.
+	 */
+	private void journaled()
+	{
+		if (transactions == 0 && IO.getInstance().journalSize() > JOURNAL_THRESHOLD)
+			store();
+	}
+	
+	/**
+	 * Gets the identity index of the given type.
+	 * @param type - type of data
+	 * @return the index of the type. Null if the type is invalid.
+	 */
+	private IntMap<Data> index(int type)
+	{
+		if (type == COMPANY)
+			return companyIndex;
+		else if (type == PRODUCT)
+			return productIndex;
+		else if (type == USER)
+			return userIndex;
+		else if (type == WAREHOUSE)
+			return warehouseIndex;
+		
+		return null;
+	}
+	
+	/**
+	 * Builds an identity index of the given data.
+	 * @param list - data to index
+	 * @return index of the data by its id
+	 */
+	private IntMap<Data> buildIndex(List<? extends Data> list)
+	{
+		IntMap<Data> index = new IntMap<Data>(list.size());
+		for (Data data : list)
+			index.put(data.getId(), data);
+		return index;
+	}
+	
+	/**
+	 * Saves all of the data back into disk storage. Once it is 
+	 * stored the journal of changes is no longer needed. Nothing 
+	 * is saved before the database is ready.
+	 */
+	public void save()
+	{
+		if (!isReady())
+			return;
+		
+		// it is also called on errors, so a lock that is not released is not waited for
+		long stamp;
+		try
+		{
+			stamp = lock.tryWriteLock(SAVE_TIMEOUT, TimeUnit.SECONDS);
+		}
+		catch (InterruptedException ie)
+		{
+			Thread.currentThread().interrupt();
+			stamp = 0;
+		}
+		
+		if (stamp == 0)
+		{
+			System.err.println("Database - save() - locked, the journal keeps the changes");
+			return;
+		}
+		
+		try
+		{
+			// an open transaction is not stored half made, the journal keeps what was committed
+			if (transactions > 0)
+				System.err.println("Database - save() - a transaction is open, the journal keeps the changes");
+			else
+				store();
+		}
+		finally
+		{
+			lock.unlockWrite(stamp);
+		}
+	}
+	
+	/**
+	 * Stores all of the data and empties the journal.
+	 */
+	private void store()
+	{
+		saveCompanies();
+		saveProducts();
+		saveUsers();
+		saveWarehouses();
+		IO.getInstance().clearJournal();
 	}
 	
 	/**
@@ -232,20 +1186,28 @@ public class Database implements Runnable
 			System.exit(-1);
 		}
 		this.companies = companies;
+		this.companyIndex = buildIndex(companies);
 	}
 	
 	/**
 	 * Loads the products of the database.
+	 * @param executor - executor that parses large product files in chunks
 	 */
-	private void loadProducts()
+	private void loadProducts(Executor executor)
 	{
-		List<Product> products = IO.getInstance().inputProducts();
+		List<Product> products = IO.getInstance().inputProducts(executor);
 		if (products == null)
 		{
 			System.err.println("Failure to Load Products");
 			System.exit(-1);
 		}
 		this.products = products;
+		
+		// a mapped catalog finds its products itself so it is never indexed
+		if (products instanceof ProductCatalog)
+			this.productIndex = new CatalogIndex((ProductCatalog) products);
+		else
+			this.productIndex = buildIndex(products);
 	}
 	
 	/**
@@ -265,9 +1227,11 @@ public class Database implements Runnable
 		if (this.users.isEmpty())
 		{
 			User defaultUser = new User("Administrator", "Administrator", new Date(), 
-					0x3000000, true, "administrator", "administrator");
+					0x3000000, true, "administrator", Passwords.hash("administrator"));
 			this.users.add(defaultUser);
 		}
+		
+		this.userIndex = buildIndex(users);
 	}
 	
 	/**
@@ -281,7 +1245,8 @@ public class Database implements Runnable
 			System.err.println("Failure to Load Warehouses");
 			System.exit(-1);
 		}
-		this.warehouses = warehouses;		
+		this.warehouses = warehouses;
+		this.warehouseIndex = buildIndex(warehouses);
 	}
 	
 	/**
@@ -324,18 +1289,46 @@ public class Database implements Runnable
 	 */
 	public boolean validID(int id)
 	{
-		int type = id & DATA_TYPE_MASK;
-		
-		List<Data> list = selectAll(type);
-		if (list == null)
-			return false;
-		
-		for(Data data : list)
+		return read(() -> {
+			IntMap<Data> index = index(id & DATA_TYPE_MASK);
+			return index != null && !index.containsKey(id);
+		});
+	}
+	
+	/**
+	 * Reads the data under the read lock.
+	 * @param reader - reads the data
+	 * @return what was read
+	 */
+	private <T> T read(Supplier<T> reader)
+	{
+		long stamp = lock.readLock();
+		try
 		{
-			if (data.getId() == id)
-				return false;
+			return reader.get();
+		}
+		finally
+		{
+			lock.unlockRead(stamp);
+		}
+	}
+	
+	/**
+	 * Changes the data under the write lock.
+	 * @param writer - changes the data
+	 * @return the result of the change
+	 */
+	private <T> T write(Supplier<T> writer)
+	{
+		long stamp = lock.writeLock();
+		try
+		{
+			return writer.get();
+		}
+		finally
+		{
+			lock.unlockWrite(stamp);
 		}
-		return true;
 	}
 
 	/**
@@ -375,4 +1368,200 @@ public class Database implements Runnable
 			instance = new Database();
 		return instance;
 	}
+	
+	/**
+	 * Group of changes stored as one. Each change is made in memory as 
+	 * soon as it is requested, so the next changes see it. Committing 
+	 * stores all of them in a single batch of the journal. If a change 
+	 * failed, committing or rolling back undoes all of them instead.
+	 */
+	public class Transaction
+	{
+		/** Undoes the changes made, in the order they were made */
+		private final List<Runnable> undo;
+		
+		/** Appends the changes made to the journal, in the order they were made */
+		private final List<Runnable> journal;
+		
+		/** true once a change failed */
+		private boolean failed;
+		
+		/** true once it was committed or rolled back */
+		private boolean done;
+		
+		/**
+		 * Simple constructor of an empty transaction.
+		 */
+		private Transaction()
+		{
+			undo = new ArrayList<Runnable>();
+			journal = new ArrayList<Runnable>();
+		}
+		
+		/**
+		 * Inserts a data.
+		 * @param data - data to insert
+		 * @return true if it was inserted. False otherwise.
+		 */
+		public boolean insert(Data data)
+		{
+			return write(() -> {
+				if (!check(add(data)))
+					return false;
+				
+				undo.add(() -> remove(data.getId()));
+				journal.add(() -> IO.getInstance().journalInsert(data));
+				return true;
+			});
+		}
+		
+		/**
+		 * Deletes a data.
+		 * @param id - id of the data
+		 * @return true if it was deleted. False otherwise.
+		 */
+		public boolean delete(int id)
+		{
+			return write(() -> {
+				Data data = remove(id);
+				if (!check(data != null))
+					return false;
+				
+				undo.add(() -> add(data));
+				journal.add(() -> IO.getInstance().journalDelete(id));
+				return true;
+			});
+		}
+		
+		/**
+		 * Adds a count of a product to a warehouse. The count replaces 
+		 * the one of a product already stored.
+		 * @param warehouse - id of the warehouse
+		 * @param product - id of the product
+		 * @param count - count of the product
+		 * @return true if it was added. False otherwise.
+		 */
+		public boolean addStock(int warehouse, int product, int count)
+		{
+			return write(() -> {
+				Data data = find(warehouse);
+				if (!check(data instanceof Warehouse))
+					return false;
+				
+				int previous = ((Warehouse) data).getProductQuantity(product);
+				return stocked(warehouse, product, previous, check(((Warehouse) data).add(product, count)));
+			});
+		}
+		
+		/**
+		 * Removes a quantity of a product from a warehouse.
+		 * @param warehouse - id of the warehouse
+		 * @param product - id of the product
+		 * @param quantity - quantity to remove
+		 * @return true if it was removed. False otherwise.
+		 */
+		public boolean removeStock(int warehouse, int product, int quantity)
+		{
+			return write(() -> {
+				Data data = find(warehouse);
+				if (!check(data instanceof Warehouse))
+					return false;
+				
+				int previous = ((Warehouse) data).getProductQuantity(product);
+				return stocked(warehouse, product, previous, check(((Warehouse) data).remove(product, quantity)));
+			});
+		}
+		
+		/**
+		 * Stores the changes made. If a change failed they are all undone.
+		 * @return true if every change was stored. False if they were undone.
+		 */
+		public boolean commit()
+		{
+			return write(() -> {
+				if (done)
+					return false;
+				
+				if (failed)
+				{
+					undo();
+					return false;
+				}
+				
+				done = true;
+				transactions--;
+				IO.getInstance().journalBegin();
+				for (Runnable change : journal)
+					change.run();
+				IO.getInstance().journalCommit();
+				journaled();
+				return true;
+			});
+		}
+		
+		/**
+		 * Undoes the changes made, in the opposite order they were made. 
+		 * It does nothing once the transaction was committed or rolled back.
+		 */
+		public void rollback()
+		{
+			write(() -> {
+				undo();
+				return null;
+			});
+		}
+		
+		/**
+		 * Undoes the changes made without locking.
+		 */
+		private void undo()
+		{
+			if (done)
+				return;
+			
+			done = true;
+			transactions--;
+			for (int i = undo.size() - 1; i >= 0; i--)
+				undo.get(i).run();
+		}
+		
+		/**
+		 * Records the result of a change.
+		 * @param success - true if the change was made
+		 * @return the result of the change
+		 */
+		private boolean check(boolean success)
+		{
+			if (done)
+				throw new IllegalStateException("Database - Transaction - already committed or rolled back");
+			
+			if (!success)
+				failed = true;
+			return success;
+		}
+		
+		/**
+		 * Records a change of the stock of a warehouse. The quantity 
+		 * journaled is the one stored once the transaction is committed.
+		 * @param warehouse - id of the warehouse
+		 * @param product - id of the product
+		 * @param previous - quantity stored before the change. -1 if it was not stored.
+		 * @param success - true if the change was made
+		 * @return the result of the change
+		 */
+		private boolean stocked(int warehouse, int product, int previous, boolean success)
+		{
+			if (!success)
+				return false;
+			
+			changed(warehouse);
+			undo.add(() -> setStock(warehouse, product, previous));
+			journal.add(() -> {
+				Data data = find(warehouse);
+				int quantity = data instanceof Warehouse ? ((Warehouse) data).getProductQuantity(product) : -1;
+				IO.getInstance().journalStock(warehouse, product, quantity);
+			});
+			return true;
+		}
+	}
 }
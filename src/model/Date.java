@@ -1,37 +1,62 @@
 package model;
-import java.util.Calendar;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
+import java.time.LocalDate;
 
 /**
  * Date class that resembles the Gregorian calendar.
+ * <br><br>
+ * A date is immutable and held as a single int packed as yyyymmdd, so 
+ * comparing two dates is comparing two ints. The valueOf methods share 
+ * a single instance of every date in a range of years, so the many 
+ * records created on the same day do not each hold their own date. 
+ * They should be preferred to the constructors.
  * 
  * @author Manuel Cruz
  * @version 1.0
  */
 public class Date
 {
-	/** Month of date */
-	private int month;
+	/** First year of the Gregorian calendar */
+	private final static int MINIMUM_YEAR = 1582;
 	
-	/** Day of date */
-	private int day;
+	/** Last year a date can have, so it is written with 4 digits */
+	private final static int MAXIMUM_YEAR = 9999;
 	
-	/** Year of date */
-	private int year;
+	/** First year of the dates shared */
+	private final static int CACHE_FIRST_YEAR = 1900;
+	
+	/** Number of years of the dates shared */
+	private final static int CACHE_YEARS = 300;
+	
+	/** Slots of the dates of a year shared, 31 by month */
+	private final static int CACHE_YEAR_SIZE = 12 * 31;
+	
+	/** Dates shared by year. A year is filled as its dates are used */
+	private final static Date[][] CACHE = new Date[CACHE_YEARS][];
+	
+	/** State of the parser before the date, skipping white space */
+	private final static int LEADING = 0;
+	
+	/** State of the parser in the month */
+	private final static int MONTH = 1;
+	
+	/** State of the parser in the day */
+	private final static int DAY = 2;
+	
+	/** State of the parser in the year */
+	private final static int YEAR = 3;
+	
+	/** State of the parser after the date, skipping white space */
+	private final static int TRAILING = 4;
+	
+	/** Date packed as yyyymmdd */
+	private final int packed;
 	
 	/**
 	 * Simple date constructor. Gives back the current date.
 	 */
 	public Date()
 	{
-		try
-		{
-			setMonth(currentMonth());
-			setYear(currentYear());
-			setDay(currentDay());
-		}
-		catch (DateException de) { }
+		this.packed = currentDate();
 	}
 	
 	/**
@@ -44,18 +69,8 @@ public class Date
 	 */
 	public Date(int month, int day, int year)
 	{
-		try
-		{
-			setMonth(month);
-			setYear(year);
-			setDay(day);
-		}
-		catch (DateException de)
-		{
-			this.month = currentMonth();
-			this.year  = currentYear();
-			this.day   = currentDay();
-		}
+		int packed = pack(month, day, year);
+		this.packed = packed < 0 ? currentDate() : packed;
 	}
 	
 	/**
@@ -80,44 +95,210 @@ public class Date
 	 */
 	public Date(final String string)
 	{
-		String[] array = string.split("/");
-		int month, day, year;
-		try
-		{
-			month = Integer.parseInt(array[0]);
-			day = Integer.parseInt(array[1]);
-			year = Integer.parseInt(array[2]);
-		}		
-		catch (NumberFormatException nfe)
+		int packed = parse(string);
+		this.packed = packed < 0 ? currentDate() : packed;
+	}
+	
+	/**
+	 * Private constructor of a date already packed and checked.
+	 * 
+	 * @param packed - date packed as yyyymmdd
+	 */
+	private Date(int packed)
+	{
+		this.packed = packed;
+	}
+	
+	/**
+	 * Gets the current date.
+	 * 
+	 * @return the current date, shared
+	 */
+	public static Date today()
+	{
+		return valueOfPacked(currentDate());
+	}
+	
+	/**
+	 * Gets a date. If a wrong date is given, then the current date is given.
+	 * 
+	 * @param month - month of date
+	 * @param day - day of date
+	 * @param year - year of date
+	 * @return the date, shared if it is in the range of years cached
+	 */
+	public static Date valueOf(int month, int day, int year)
+	{
+		int packed = pack(month, day, year);
+		return valueOfPacked(packed < 0 ? currentDate() : packed);
+	}
+	
+	/**
+	 * Gets a date with the format mm/dd/yyyy. If a wrong format is 
+	 * given, then the current date is given. Parsing does not allocate.
+	 * 
+	 * @param string - characters that represent the date
+	 * @return the date, shared if it is in the range of years cached
+	 */
+	public static Date valueOf(CharSequence string)
+	{
+		int packed = parse(string);
+		return valueOfPacked(packed < 0 ? currentDate() : packed);
+	}
+	
+	/**
+	 * Gets a date packed as yyyymmdd. If a wrong date is given, then 
+	 * the current date is given.
+	 * 
+	 * @param packed - date packed as yyyymmdd
+	 * @return the date, shared if it is in the range of years cached
+	 */
+	public static Date valueOfPacked(int packed)
+	{
+		if (packed < 0 || pack(packed / 100 % 100, packed % 100, packed / 10000) != packed)
+			packed = currentDate();
+		
+		int year = packed / 10000 - CACHE_FIRST_YEAR;
+		if (year < 0 || year >= CACHE_YEARS)
+			return new Date(packed);
+		
+		// dates are immutable, so a date cached twice by two threads is harmless
+		Date[] dates = CACHE[year];
+		if (dates == null)
 		{
-			
-			month = currentMonth();
-			day = currentDay();
-			year = currentYear();
+			dates = new Date[CACHE_YEAR_SIZE];
+			CACHE[year] = dates;
 		}
 		
-		try
+		int slot = (packed / 100 % 100 - 1) * 31 + packed % 100 - 1;
+		Date date = dates[slot];
+		if (date == null)
 		{
-			setMonth(month);
-			setYear(year);
-			setDay(day);			
+			date = new Date(packed);
+			dates[slot] = date;
 		}
-		catch (DateException de) 
+		return date;
+	}
+	
+	/**
+	 * Parses and validates a date with the format mm/dd/yyyy in a single 
+	 * pass, without allocating. The month and day may have a single digit, 
+	 * the year has four, and white space around the date is skipped.
+	 * 
+	 * @param string - characters that represent the date
+	 * @return the date packed as yyyymmdd. -1 if it is not a valid date.
+	 */
+	public static int parse(CharSequence string)
+	{
+		if (string == null)
+			return -1;
+		
+		int state = LEADING, digits = 0;
+		int month = 0, day = 0, year = 0;
+		for (int i = 0; i < string.length(); i++)
 		{
+			char character = string.charAt(i);
+			int digit = character >= '0' && character <= '9' ? character - '0' : -1;
+			
+			switch (state)
+			{
+				case LEADING:
+					if (digit >= 0)
+					{
+						month = digit;
+						digits = 1;
+						state = MONTH;
+					}
+					else if (!Character.isWhitespace(character))
+						return -1;
+					break;
+				
+				case MONTH:
+					if (digit >= 0 && digits < 2)
+					{
+						month = month * 10 + digit;
+						digits++;
+					}
+					else if (character == '/')
+					{
+						digits = 0;
+						state = DAY;
+					}
+					else
+						return -1;
+					break;
+				
+				case DAY:
+					if (digit >= 0 && digits < 2)
+					{
+						day = day * 10 + digit;
+						digits++;
+					}
+					else if (character == '/' && digits > 0)
+					{
+						digits = 0;
+						state = YEAR;
+					}
+					else
+						return -1;
+					break;
+				
+				case YEAR:
+					if (digit >= 0 && digits < 4)
+					{
+						year = year * 10 + digit;
+						digits++;
+					}
+					else if (Character.isWhitespace(character) && digits == 4)
+						state = TRAILING;
+					else
+						return -1;
+					break;
+				
+				default: // TRAILING
+					if (!Character.isWhitespace(character))
+						return -1;
+			}
 		}
+		
+		if (state != TRAILING && (state != YEAR || digits != 4))
+			return -1;
+		
+		return pack(month, day, year);
 	}
 	
 	/**
-	 * Maximum days in the month of this date.
+	 * Packs a date as yyyymmdd.
 	 * 
+	 * @param month - month of date
+	 * @param day - day of date
+	 * @param year - year of date
+	 * @return the date packed. -1 if it is not a valid date.
+	 */
+	private static int pack(int month, int day, int year)
+	{
+		if (year < MINIMUM_YEAR || year > MAXIMUM_YEAR || month < 1 || month > 12)
+			return -1;
+		
+		if (day < 1 || day > maximumDays(month, year))
+			return -1;
+		
+		return year * 10000 + month * 100 + day;
+	}
+	
+	/**
+	 * Maximum days in a month.
+	 * 
+	 * @param month - month of date
+	 * @param year - year of date
 	 * @return maximum number of days in the month.
 	 */
-	private int maximumDays()
+	private static int maximumDays(int month, int year)
 	{
 		// February
 		if (month == 2)
 		{   // leaps have 29 days in february
-			if (isLeapYear())
+			if (isLeapYear(year))
 				return 29;
 			return 28;
 		}
@@ -136,9 +317,10 @@ public class Date
 	/**
 	 * Checks if this number is a leap year or not. True if it is. False otherwise.
 	 * 
+	 * @param year - year to check
 	 * @return true if leap. False otherwise.
 	 */
-	private boolean isLeapYear()
+	private static boolean isLeapYear(int year)
 	{
 		if (year % 4 == 0)
 		{	
@@ -153,104 +335,81 @@ public class Date
 		return false;
 	}
 	
-	private int currentYear()
-	{
-		return Calendar.getInstance().get(Calendar.YEAR);
-	}
-
-	private int currentDay()
+	/**
+	 * Gets the current date. Only one calendar is read.
+	 * 
+	 * @return the current date packed as yyyymmdd
+	 */
+	private static int currentDate()
 	{
-		return Calendar.getInstance().get(Calendar.DAY_OF_MONTH);
+		LocalDate today = LocalDate.now();
+		return today.getYear() * 10000 + today.getMonthValue() * 100 + today.getDayOfMonth();
 	}
 
-	private int currentMonth()
+	/**
+	 * Gets the month of this date.
+	 * 
+	 * @return month of date
+	 */
+	public int getMonth()
 	{
-		return Calendar.getInstance().get(Calendar.MONTH) + 1;
+		return packed / 100 % 100;
 	}
-
+	
 	/**
-	 * Sets the year of this date.
+	 * Gets the day of this date.
 	 * 
-	 * @param year - year of this date.
-	 * @throws DateException - if the year is before the creation of the 
-	 * gregorian calendar (1582)
+	 * @return day of date
 	 */
-	public void setYear(int year) throws DateException
+	public int getDay()
 	{
-		if (year < 1582)
-			throw new DateException("Year cannot be before 1582");
-		
-		this.year = year;
+		return packed % 100;
 	}
 	
 	/**
-	 * Sets the day of this date.
+	 * Gets the year of this date.
 	 * 
-	 * @param day - day of this date
-	 * @throws DateException - if the day is below 1 or if the day is beyond
-	 * the month's maximum days.
+	 * @return year of date
 	 */
-	public void setDay(int day) throws DateException
+	public int getYear()
 	{
-		if (day < 1)
-			throw new DateException("Day cannot be below 1");
-		
-		int monthMaxDays = maximumDays();
-		
-		if (day > monthMaxDays)
-			throw new DateException(month + " only has " + monthMaxDays);
-		
-		this.day = day;
+		return packed / 10000;
 	}
 	
 	/**
-	 * Sets the month of this date.
-	 * @param month - month to be setted
-	 * @throws DateException - if the month is below 1 or above 12.
+	 * Gets this date packed as yyyymmdd. Packed dates compare as the dates.
+	 * 
+	 * @return packed date
 	 */
-	public void setMonth(int month) throws DateException
+	public int getPacked()
 	{
-		if (month < 1)
-			throw new DateException("Year cannot be below 1");
-		
-		if (month > 12)
-			throw new DateException("Year cannot be beyond 12");
-		
-		this.month = month;
+		return packed;
 	}
 	
 	@Override
 	public boolean equals(Object other)
 	{
-		boolean instance = other instanceof Date;
-		if (instance)
-		{
-			Date another = (Date) other;
-			boolean year = this.year == another.year;
-			boolean month = this.month == another.month;
-			boolean day = this.day == another.day;
-			return year && month && day;
-		}
-		return false;
+		return other instanceof Date && ((Date) other).packed == packed;
+	}
+	
+	@Override
+	public int hashCode()
+	{
+		return packed;
 	}
 	
 	@Override
 	public String toString()
 	{
-		String string = "";
-		
-		if (month < 10)
-			string += "0";
-		
-		string += this.month + "/";
-		
-		if (day < 10)
-			string += "0";
-		
-		string += this.day + "/";
-		string += this.year;
+		int month = getMonth(), day = getDay(), year = getYear();
+		char[] string = {
+			(char) ('0' + month / 10), (char) ('0' + month % 10), '/',
+			(char) ('0' + day / 10), (char) ('0' + day % 10), '/',
+			(char) ('0' + year / 1000), (char) ('0' + year / 100 % 10), 
+			(char) ('0' + year / 10 % 10), (char) ('0' + year % 10)
+		};
 		
-		return string;
+		return new String(string);
 	}
 
 	/**
@@ -262,46 +421,17 @@ public class Date
 	 */
 	public int compareTo(Date date) 
 	{
-		int value = 0;
-		if (this.year > date.year)
-			value = 1;
-		else if (this.year < date.year)
-			value = -1;
-		else
-		{
-			if (this.month > date.month)
-				value = 1;
-			else if (this.month < date.month)
-				value = -1;
-			else
-			{
-				if (this.day > date.day)
-					value = 1;
-				else if (this.day < date.day)
-					value = -1;
-				else
-					value = 0;
-			}
-		}
-		return value;
+		return Integer.compare(packed, date.packed);
 	}
 	
 	/**
-	 * Check if the given string is a valid date.
+	 * Check if the given string is a valid date. The day must exist in 
+	 * its month and the year cannot be before 1582.
 	 * @param string - string to validate
 	 * @return true if it is a valid. False otherwise.
 	 */
-	public static boolean validDate(String string)
+	public static boolean validDate(CharSequence string)
 	{
-		if (string == null)
-			return false;
-		
-		if (string.isBlank())
-			return false;
-		
-		String regex = "^(1[0-2]|0[1-9])/(3[01]|[12][0-9]|0[1-9])/[0-9]{4}$";
-		Pattern pattern = Pattern.compile(regex);
-		Matcher matcher = pattern.matcher(string.strip());
-		return matcher.matches();
+		return parse(string) >= 0;
 	}
 }
@@ -0,0 +1,131 @@
+package model;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.function.IntConsumer;
+
+/**
+ * Identities of the data of a type sorted by their date. The identities
+ * of each date are kept in a set of primitive ints under the packed date,
+ * so a range of dates is found without a scan and read in order without
+ * comparing the data.
+ *
+ * @author Manuel Cruz
+ * @version 1.0
+ */
+final class DateIndex
+{
+	/** Identities by packed date */
+	private final NavigableMap<Integer, IntMap<Boolean>> dates;
+
+	/** Number of identities in the index */
+	private int size;
+
+	/**
+	 * Simple constructor of an empty index.
+	 */
+	DateIndex()
+	{
+		dates = new TreeMap<Integer, IntMap<Boolean>>();
+	}
+
+	/**
+	 * Adds an identity under a date.
+	 * @param date - packed date
+	 * @param id - identity to add
+	 */
+	void put(int date, int id)
+	{
+		IntMap<Boolean> ids = dates.get(date);
+		if (ids == null)
+		{
+			ids = new IntMap<Boolean>(4);
+			dates.put(date, ids);
+		}
+
+		if (ids.put(id, Boolean.TRUE) == null)
+			size++;
+	}
+
+	/**
+	 * Removes an identity from a date.
+	 * @param date - packed date
+	 * @param id - identity to remove
+	 */
+	void remove(int date, int id)
+	{
+		IntMap<Boolean> ids = dates.get(date);
+		if (ids == null || ids.remove(id) == null)
+			return;
+
+		size--;
+		if (ids.size() == 0)
+			dates.remove(date);
+	}
+
+	/**
+	 * Counts the identities of a range of dates.
+	 * @param from - first packed date, inclusive
+	 * @param to - last packed date, inclusive
+	 * @return number of identities
+	 */
+	int count(int from, int to)
+	{
+		if (from > to || dates.isEmpty())
+			return 0;
+
+		if (from <= dates.firstKey() && to >= dates.lastKey())
+			return size;
+
+		int count = 0;
+		for (IntMap<Boolean> ids : dates.subMap(from, true, to, true).values())
+			count += ids.size();
+		return count;
+	}
+
+	/**
+	 * Gets the identities of a range of dates.
+	 * @param from - first packed date, inclusive
+	 * @param to - last packed date, inclusive
+	 * @param descending - true to start from the latest date. False otherwise.
+	 * @return identities by date, and by identity within a date
+	 */
+	int[] select(int from, int to, boolean descending)
+	{
+		int[] selected = new int[count(from, to)];
+		int[] position = {0};
+		forEach(from, to, descending, id -> selected[position[0]++] = id);
+		return selected;
+	}
+
+	/**
+	 * Visits the identities of a range of dates in order.
+	 * @param from - first packed date, inclusive
+	 * @param to - last packed date, inclusive
+	 * @param descending - true to start from the latest date. False otherwise.
+	 * @param visitor - called with every identity, by date and by identity within a date
+	 */
+	void forEach(int from, int to, boolean descending, IntConsumer visitor)
+	{
+		if (from > to)
+			return;
+
+		NavigableMap<Integer, IntMap<Boolean>> range = dates.subMap(from, true, to, true);
+		if (descending)
+			range = range.descendingMap();
+
+		for (Map.Entry<Integer, IntMap<Boolean>> entry : range.entrySet())
+		{
+			int[] ids = entry.getValue().keys();
+			Arrays.sort(ids);
+			if (descending)
+				for (int i = ids.length - 1; i >= 0; i--)
+					visitor.accept(ids[i]);
+			else
+				for (int id : ids)
+					visitor.accept(id);
+		}
+	}
+}
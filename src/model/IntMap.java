@@ -0,0 +1,283 @@
+package model;
+
+/**
+ * Hash map keyed by primitive ints. It uses open addressing with
+ * linear probing so no key is ever boxed and no entry objects are
+ * allocated. Null values are not allowed, a null slot marks it as free.
+ *
+ * @author Manuel Cruz
+ * @version 1.0
+ * @param <V> - type of value stored
+ */
+class IntMap<V>
+{
+	/** Default capacity of a new map */
+	private final static int DEFAULT_CAPACITY = 16;
+
+	/** Keys of the map */
+	private int[] keys;
+
+	/** Values of the map. A null value marks a free slot */
+	private Object[] values;
+
+	/** Number of entries in the map */
+	private int size;
+
+	/** Number of entries allowed before growing */
+	private int threshold;
+
+	/**
+	 * Simple constructor of an empty map.
+	 */
+	public IntMap()
+	{
+		this(DEFAULT_CAPACITY);
+	}
+
+	/**
+	 * Explicit constructor of a map able to hold the
+	 * given number of entries without growing.
+	 * @param expected - expected number of entries
+	 */
+	public IntMap(int expected)
+	{
+		allocate(tableSize(expected));
+	}
+
+	/**
+	 * Gets the value mapped to the given key. It may be read while the
+	 * map is changed by another thread, so the result must be validated
+	 * by the caller, but it never fails or loops forever.
+	 * @param key - key to look for
+	 * @return the value found. Null if it is not mapped.
+	 */
+	@SuppressWarnings("unchecked")
+	public V get(int key)
+	{
+		int[] keys = this.keys;
+		Object[] values = this.values;
+		if (keys.length != values.length) // read while it was growing
+			return null;
+
+		int mask = keys.length - 1;
+		int slot = hash(key) & mask;
+
+		for (int probes = 0; probes < keys.length && values[slot] != null; probes++)
+		{
+			if (keys[slot] == key)
+				return (V) values[slot];
+			slot = (slot + 1) & mask;
+		}
+
+		return null;
+	}
+
+	/**
+	 * Checks whether the given key is mapped.
+	 * @param key - key to look for
+	 * @return true if it is mapped. False otherwise.
+	 */
+	public boolean containsKey(int key)
+	{
+		return get(key) != null;
+	}
+
+	/**
+	 * Maps the given value to the given key.
+	 * @param key - key of the value
+	 * @param value - value to store. It cannot be null.
+	 * @return the previous value of the key. Null if there was none.
+	 */
+	@SuppressWarnings("unchecked")
+	public V put(int key, V value)
+	{
+		if (value == null)
+			throw new IllegalArgumentException("IntMap - put(int key, V value) - null value");
+
+		int mask = keys.length - 1;
+		int slot = hash(key) & mask;
+
+		while (values[slot] != null)
+		{
+			if (keys[slot] == key)
+			{
+				V previous = (V) values[slot];
+				values[slot] = value;
+				return previous;
+			}
+			slot = (slot + 1) & mask;
+		}
+
+		keys[slot] = key;
+		values[slot] = value;
+
+		if (++size > threshold)
+			rehash(keys.length << 1);
+
+		return null;
+	}
+
+	/**
+	 * Removes the given key from the map.
+	 * @param key - key to remove
+	 * @return the value it was mapped to. Null if it was not mapped.
+	 */
+	@SuppressWarnings("unchecked")
+	public V remove(int key)
+	{
+		int mask = keys.length - 1;
+		int slot = hash(key) & mask;
+
+		while (values[slot] != null)
+		{
+			if (keys[slot] == key)
+			{
+				V previous = (V) values[slot];
+				shiftBack(slot);
+				size--;
+				return previous;
+			}
+			slot = (slot + 1) & mask;
+		}
+
+		return null;
+	}
+
+	/**
+	 * Moves the value of a key to another key.
+	 * @param from - key the value is mapped to
+	 * @param to - key the value is moved to
+	 */
+	public void move(int from, int to)
+	{
+		V value = remove(from);
+		if (value != null)
+			put(to, value);
+	}
+
+	/**
+	 * Gets the keys of the map, in no particular order.
+	 * @return a copy of the keys
+	 */
+	public int[] keys()
+	{
+		int[] keys = new int[size];
+		int count = 0;
+		for (int slot = 0; slot < values.length; slot++)
+			if (values[slot] != null)
+				keys[count++] = this.keys[slot];
+		return keys;
+	}
+	
+	/**
+	 * Removes every entry of the map.
+	 */
+	public void clear()
+	{
+		allocate(tableSize(DEFAULT_CAPACITY));
+		size = 0;
+	}
+
+	/**
+	 * Gets the number of entries in the map.
+	 * @return number of entries
+	 */
+	public int size()
+	{
+		return size;
+	}
+
+	/**
+	 * Closes the gap left by a removed slot by moving back the
+	 * entries of its probe sequence, so no tombstones are needed.
+	 * @param free - slot that was freed
+	 */
+	private void shiftBack(int free)
+	{
+		int mask = keys.length - 1;
+		int slot = free;
+
+		while (true)
+		{
+			slot = (slot + 1) & mask;
+			if (values[slot] == null)
+				break;
+
+			int home = hash(keys[slot]) & mask;
+
+			// the entry can only move back if its home is not
+			// between the free slot and its current slot
+			boolean movable = free <= slot ? (home <= free || home > slot)
+										   : (home <= free && home > slot);
+			if (movable)
+			{
+				keys[free] = keys[slot];
+				values[free] = values[slot];
+				free = slot;
+			}
+		}
+
+		values[free] = null;
+	}
+
+	/**
+	 * Moves every entry into a table of the given size.
+	 * @param length - new table size, a power of two
+	 */
+	private void rehash(int length)
+	{
+		int[] oldKeys = keys;
+		Object[] oldValues = values;
+		allocate(length);
+
+		int mask = length - 1;
+		for (int i = 0; i < oldKeys.length; i++)
+		{
+			if (oldValues[i] == null)
+				continue;
+
+			int slot = hash(oldKeys[i]) & mask;
+			while (values[slot] != null)
+				slot = (slot + 1) & mask;
+
+			keys[slot] = oldKeys[i];
+			values[slot] = oldValues[i];
+		}
+	}
+
+	/**
+	 * Allocates the tables with the given size.
+	 * @param length - table size, a power of two
+	 */
+	private void allocate(int length)
+	{
+		keys = new int[length];
+		values = new Object[length];
+		threshold = (length >> 1) + (length >> 2); // 0.75 load factor
+	}
+
+	/**
+	 * Gets the table size needed to hold the expected number of entries.
+	 * @param expected - expected number of entries
+	 * @return a power of two table size
+	 */
+	private static int tableSize(int expected)
+	{
+		int length = DEFAULT_CAPACITY;
+		while ((length >> 1) + (length >> 2) < expected)
+			length <<= 1;
+		return length;
+	}
+
+	/**
+	 * Spreads the bits of the key. Identities only differ in their low
+	 * bits so they are mixed before masking.
+	 * @param key - key to hash
+	 * @return hash of the key
+	 */
+	private static int hash(int key)
+	{
+		int hash = key * 0x9E3779B9;
+		return hash ^ (hash >>> 16);
+	}
+}
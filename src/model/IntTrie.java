@@ -0,0 +1,344 @@
+package model;
+
+import java.util.function.Consumer;
+
+/**
+ * Persistent map keyed by primitive ints. It is a hash array mapped trie
+ * on the bits of the key, five bits per level from the highest ones, so
+ * its values are visited in the order of their keys. It never changes:
+ * putting or removing a key copies only the nodes on the path to it and
+ * shares the rest with the map it came from.
+ *
+ * @author Manuel Cruz
+ * @version 1.0
+ * @param <V> - type of value stored
+ */
+final class IntTrie<V>
+{
+	/** Bits of the key used by each level */
+	private final static int BITS = 5;
+
+	/** Mask of the bits of a level */
+	private final static int MASK = (1 << BITS) - 1;
+
+	/** Shift of the first level. It uses the two highest bits */
+	private final static int TOP = 30;
+
+	/** Map without keys */
+	private final static IntTrie<?> EMPTY = new IntTrie<Object>(new Node(0, new Object[0]), 0);
+
+	/** Root of the trie */
+	private final Node root;
+
+	/** Number of keys in the map */
+	private final int size;
+
+	/**
+	 * Explicit constructor of a map.
+	 * @param root - root of the trie
+	 * @param size - number of keys
+	 */
+	private IntTrie(Node root, int size)
+	{
+		this.root = root;
+		this.size = size;
+	}
+
+	/**
+	 * Gets the map without keys.
+	 * @return the empty map
+	 */
+	@SuppressWarnings("unchecked")
+	static <V> IntTrie<V> empty()
+	{
+		return (IntTrie<V>) EMPTY;
+	}
+
+	/**
+	 * Gets the value mapped to the given key.
+	 * @param key - key to look for
+	 * @return the value found. Null if it is not mapped.
+	 */
+	@SuppressWarnings("unchecked")
+	V get(int key)
+	{
+		Node node = root;
+		for (int shift = TOP; ; shift -= BITS)
+		{
+			int bit = 1 << ((key >>> shift) & MASK);
+			if ((node.bitmap & bit) == 0)
+				return null;
+
+			Object slot = node.slots[node.index(bit)];
+			if (slot instanceof Entry)
+			{
+				Entry entry = (Entry) slot;
+				return entry.key == key ? (V) entry.value : null;
+			}
+			node = (Node) slot;
+		}
+	}
+
+	/**
+	 * Maps a value to a key.
+	 * @param key - key of the value
+	 * @param value - value to map. It can't be null.
+	 * @return the map with the value. This map if it was already mapped.
+	 */
+	IntTrie<V> put(int key, V value)
+	{
+		if (value == null)
+			throw new IllegalArgumentException("IntTrie - put(int key, V value) - null value");
+
+		boolean[] added = {false};
+		Node root = put(this.root, TOP, key, value, added);
+		return root == this.root ? this : new IntTrie<V>(root, added[0] ? size + 1 : size);
+	}
+
+	/**
+	 * Removes a key.
+	 * @param key - key to remove
+	 * @return the map without the key. This map if it was not mapped.
+	 */
+	IntTrie<V> remove(int key)
+	{
+		Object root = remove(this.root, TOP, key);
+		if (root == this.root)
+			return this;
+
+		// a single entry left at the root is kept in a node
+		if (root instanceof Entry)
+		{
+			Entry entry = (Entry) root;
+			root = new Node(1 << ((entry.key >>> TOP) & MASK), new Object[] {entry});
+		}
+		return new IntTrie<V>((Node) root, size - 1);
+	}
+
+	/**
+	 * Gets the number of keys.
+	 * @return number of keys in the map
+	 */
+	int size()
+	{
+		return size;
+	}
+
+	/**
+	 * Visits every value in the order of their keys.
+	 * @param visitor - action taken on each value
+	 */
+	void forEach(Consumer<? super V> visitor)
+	{
+		forEach(root, visitor);
+	}
+
+	/**
+	 * Visits the values of a node in the order of their keys.
+	 * @param node - node to visit
+	 * @param visitor - action taken on each value
+	 */
+	@SuppressWarnings("unchecked")
+	private static <V> void forEach(Node node, Consumer<? super V> visitor)
+	{
+		for (Object slot : node.slots)
+		{
+			if (slot instanceof Entry)
+				visitor.accept((V) ((Entry) slot).value);
+			else
+				forEach((Node) slot, visitor);
+		}
+	}
+
+	/**
+	 * Maps a value to a key below a node.
+	 * @param node - node of the level
+	 * @param shift - shift of the level
+	 * @param key - key of the value
+	 * @param value - value to map
+	 * @param added - set to true if the key was not mapped
+	 * @return the node with the value. The same node if it was already mapped.
+	 */
+	private static Node put(Node node, int shift, int key, Object value, boolean[] added)
+	{
+		int bit = 1 << ((key >>> shift) & MASK);
+		int index = node.index(bit);
+
+		if ((node.bitmap & bit) == 0)
+		{
+			added[0] = true;
+			return node.insert(bit, index, new Entry(key, value));
+		}
+
+		Object slot = node.slots[index];
+		if (slot instanceof Node)
+		{
+			Node child = put((Node) slot, shift - BITS, key, value, added);
+			return child == slot ? node : node.replace(index, child);
+		}
+
+		Entry entry = (Entry) slot;
+		if (entry.key == key)
+			return entry.value == value ? node : node.replace(index, new Entry(key, value));
+
+		added[0] = true;
+		return node.replace(index, pair(entry, new Entry(key, value), shift - BITS));
+	}
+
+	/**
+	 * Makes the node holding two entries whose keys share the bits above a level.
+	 * @param first - first entry
+	 * @param second - second entry
+	 * @param shift - shift of the level
+	 * @return the node holding both
+	 */
+	private static Node pair(Entry first, Entry second, int shift)
+	{
+		int one = (first.key >>> shift) & MASK;
+		int two = (second.key >>> shift) & MASK;
+
+		if (one == two)
+			return new Node(1 << one, new Object[] {pair(first, second, shift - BITS)});
+
+		Object[] slots = one < two ? new Object[] {first, second} : new Object[] {second, first};
+		return new Node((1 << one) | (1 << two), slots);
+	}
+
+	/**
+	 * Removes a key below a node.
+	 * @param node - node of the level
+	 * @param shift - shift of the level
+	 * @param key - key to remove
+	 * @return the node without the key, or its only entry left. The same node if it was not mapped.
+	 */
+	private static Object remove(Node node, int shift, int key)
+	{
+		int bit = 1 << ((key >>> shift) & MASK);
+		if ((node.bitmap & bit) == 0)
+			return node;
+
+		int index = node.index(bit);
+		Object slot = node.slots[index];
+
+		Object child;
+		if (slot instanceof Node)
+		{
+			child = remove((Node) slot, shift - BITS, key);
+			if (child == slot)
+				return node;
+		}
+		else
+		{
+			if (((Entry) slot).key != key)
+				return node;
+			child = null;
+		}
+
+		Node removed = child == null ? node.delete(bit, index) : node.replace(index, child);
+
+		// a node left with a single entry is replaced by it
+		if (removed.slots.length == 1 && removed.slots[0] instanceof Entry)
+			return removed.slots[0];
+		return removed;
+	}
+
+	/**
+	 * Node of the trie. A slot holds an entry, or a node for the keys
+	 * that share the bits of the slot.
+	 */
+	private static final class Node
+	{
+		/** Bits of the level in use, one per slot */
+		private final int bitmap;
+
+		/** Slots in use, in the order of their bits */
+		private final Object[] slots;
+
+		/**
+		 * Explicit constructor of a node.
+		 * @param bitmap - bits in use
+		 * @param slots - slots in use
+		 */
+		private Node(int bitmap, Object[] slots)
+		{
+			this.bitmap = bitmap;
+			this.slots = slots;
+		}
+
+		/**
+		 * Gets the slot of a bit.
+		 * @param bit - bit of the level
+		 * @return index of its slot
+		 */
+		private int index(int bit)
+		{
+			return Integer.bitCount(bitmap & (bit - 1));
+		}
+
+		/**
+		 * Copies the node with a new slot.
+		 * @param bit - bit of the slot
+		 * @param index - index of the slot
+		 * @param slot - content of the slot
+		 * @return the copy
+		 */
+		private Node insert(int bit, int index, Object slot)
+		{
+			Object[] slots = new Object[this.slots.length + 1];
+			System.arraycopy(this.slots, 0, slots, 0, index);
+			slots[index] = slot;
+			System.arraycopy(this.slots, index, slots, index + 1, this.slots.length - index);
+			return new Node(bitmap | bit, slots);
+		}
+
+		/**
+		 * Copies the node with a slot replaced.
+		 * @param index - index of the slot
+		 * @param slot - new content of the slot
+		 * @return the copy
+		 */
+		private Node replace(int index, Object slot)
+		{
+			Object[] slots = this.slots.clone();
+			slots[index] = slot;
+			return new Node(bitmap, slots);
+		}
+
+		/**
+		 * Copies the node without a slot.
+		 * @param bit - bit of the slot
+		 * @param index - index of the slot
+		 * @return the copy
+		 */
+		private Node delete(int bit, int index)
+		{
+			Object[] slots = new Object[this.slots.length - 1];
+			System.arraycopy(this.slots, 0, slots, 0, index);
+			System.arraycopy(this.slots, index + 1, slots, index, slots.length - index);
+			return new Node(bitmap & ~bit, slots);
+		}
+	}
+
+	/**
+	 * Key and value mapped.
+	 */
+	private static final class Entry
+	{
+		/** Key of the entry */
+		private final int key;
+
+		/** Value of the entry */
+		private final Object value;
+
+		/**
+		 * Explicit constructor of an entry.
+		 * @param key - key of the entry
+		 * @param value - value of the entry
+		 */
+		private Entry(int key, Object value)
+		{
+			this.key = key;
+			this.value = value;
+		}
+	}
+}
@@ -0,0 +1,356 @@
+package model;
+
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import javax.crypto.Mac;
+import javax.crypto.SecretKeyFactory;
+import javax.crypto.spec.PBEKeySpec;
+import javax.crypto.spec.SecretKeySpec;
+
+/**
+ * Hashes and verifies the passwords of the users. A password is stored
+ * as "pbkdf2$iterations$salt$hash", with a random salt per password and
+ * the salt and hash in base 64. Passwords stored in plain text by older
+ * versions are still verified, and need to be hashed again.
+ * <br><br>
+ * The work factor is read from the logistics.passwordIterations property.
+ * Hashing is slow on purpose, so the credentials verified are kept in a
+ * small cache for a while (logistics.passwordCacheSize entries for
+ * logistics.passwordCacheSeconds seconds). The cache only holds a keyed
+ * digest of each password, never the password, under a random key made
+ * when the program starts and never stored, so a cached credential can't
+ * be checked without it.
+ *
+ * @author Manuel Cruz
+ * @version 1.0
+ */
+public final class Passwords
+{
+	/** Prefix of a hashed password */
+	private final static String PREFIX = "pbkdf2";
+
+	/** Separator of the fields of a hashed password */
+	private final static String SEPARATOR = "$";
+
+	/** Algorithm that hashes the passwords */
+	private final static String ALGORITHM = "PBKDF2WithHmacSHA256";
+
+	/** Iterations of a new hash */
+	private final static int ITERATIONS = Integer.getInteger("logistics.passwordIterations", 310000);
+
+	/** Bytes of the salt */
+	private final static int SALT_BYTES = 16;
+
+	/** Bits of the hash */
+	private final static int HASH_BITS = 256;
+
+	/** Number of credentials kept in the cache */
+	private final static int CACHE_SIZE = Integer.getInteger("logistics.passwordCacheSize", 1024);
+
+	/** Time a credential is kept in the cache, in nanoseconds */
+	private final static long CACHE_TIME = Long.getLong("logistics.passwordCacheSeconds", 300) * 1000000000L;
+
+	/** Generates the salts */
+	private final static SecureRandom RANDOM = new SecureRandom();
+
+	/** Algorithm of the digests of the cache */
+	private final static String DIGEST = "HmacSHA256";
+
+	/** Key of the digests of the cache, random for every run */
+	private final static SecretKeySpec DIGEST_KEY = new SecretKeySpec(salt(32), DIGEST);
+
+	/** Hash verified when there is no password to verify. Made once it is needed */
+	private static String dummy;
+
+	/** Credentials verified by stored password, the oldest used first */
+	private final static Map<String, Credential> CACHE = new LinkedHashMap<String, Credential>(16, 0.75f, true)
+	{
+		private static final long serialVersionUID = 1L;
+
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<String, Credential> eldest)
+		{
+			return size() > CACHE_SIZE;
+		}
+	};
+
+	/**
+	 * Not instantiable.
+	 */
+	private Passwords()
+	{
+		super();
+	}
+
+	/**
+	 * Hashes a password with a new salt.
+	 * @param password - password to hash
+	 * @return the password to store
+	 */
+	public static String hash(String password)
+	{
+		byte[] salt = salt(SALT_BYTES);
+
+		Base64.Encoder encoder = Base64.getEncoder().withoutPadding();
+		return PREFIX + SEPARATOR + ITERATIONS
+			 + SEPARATOR + encoder.encodeToString(salt)
+			 + SEPARATOR + encoder.encodeToString(pbkdf2(password, salt, ITERATIONS));
+	}
+
+	/**
+	 * Verifies a password against the one stored.
+	 * @param password - password given
+	 * @param stored - password stored, hashed or in plain text
+	 * @return true if they match. False otherwise.
+	 */
+	public static boolean verify(String password, String stored)
+	{
+		if (password == null || stored == null)
+			return false;
+
+		Hash hash = parse(stored);
+		if (hash == null)
+			return MessageDigest.isEqual(bytes(password), bytes(stored));
+
+		byte[] digest = digest(password, stored);
+		if (cached(stored, digest))
+			return true;
+
+		boolean valid;
+		try
+		{
+			Base64.Decoder decoder = Base64.getDecoder();
+			byte[] salt = decoder.decode(hash.salt);
+			byte[] derived = decoder.decode(hash.hash);
+			valid = MessageDigest.isEqual(derived, pbkdf2(password, salt, hash.iterations));
+		}
+		catch (IllegalArgumentException iae) // bad base 64
+		{
+			return false;
+		}
+
+		if (valid)
+			cache(stored, digest);
+		return valid;
+	}
+
+	/**
+	 * Rejects a password when there is none stored, as when no user has
+	 * the username given. It takes as long as verifying a wrong password,
+	 * so the time taken doesn't tell which usernames exist.
+	 * @param password - password given
+	 * @return false, always
+	 */
+	public static boolean reject(String password)
+	{
+		String stored;
+		synchronized (Passwords.class)
+		{
+			if (dummy == null)
+				dummy = hash(Long.toHexString(RANDOM.nextLong()));
+			stored = dummy;
+		}
+
+		verify(password == null ? "" : password, stored);
+		return false;
+	}
+
+	/**
+	 * Checks whether a password stored should be hashed again. It should
+	 * if it is in plain text or hashed with less work than a new hash.
+	 * @param stored - password stored
+	 * @return true if it should be hashed again. False otherwise.
+	 */
+	public static boolean needsHash(String stored)
+	{
+		Hash hash = parse(stored);
+		return hash == null || hash.iterations < ITERATIONS;
+	}
+
+	/**
+	 * Parses a hashed password. The iterations are only parsed once they
+	 * are known to be a number.
+	 * @param stored - password stored
+	 * @return the hash. Null if it is not hashed.
+	 */
+	private static Hash parse(String stored)
+	{
+		if (stored == null || !stored.startsWith(PREFIX + SEPARATOR))
+			return null;
+
+		String[] fields = stored.split("\\" + SEPARATOR);
+		if (fields.length != 4 || !fields[1].matches("[0-9]{1,9}"))
+			return null;
+
+		return new Hash(Integer.parseInt(fields[1]), fields[2], fields[3]);
+	}
+
+	/**
+	 * Makes random bytes for a salt or a key.
+	 * @param length - number of bytes
+	 * @return the bytes
+	 */
+	private static byte[] salt(int length)
+	{
+		byte[] salt = new byte[length];
+		RANDOM.nextBytes(salt);
+		return salt;
+	}
+
+	/**
+	 * Derives the hash of a password.
+	 * @param password - password to hash
+	 * @param salt - salt of the hash
+	 * @param iterations - work factor of the hash
+	 * @return the hash
+	 */
+	private static byte[] pbkdf2(String password, byte[] salt, int iterations)
+	{
+		PBEKeySpec spec = new PBEKeySpec(password.toCharArray(), salt, iterations, HASH_BITS);
+		try
+		{
+			return SecretKeyFactory.getInstance(ALGORITHM).generateSecret(spec).getEncoded();
+		}
+		catch (GeneralSecurityException gse)
+		{
+			System.err.println("Passwords - pbkdf2() - " + ALGORITHM + " is not available");
+			System.exit(-1);
+			return null;
+		}
+		finally
+		{
+			spec.clearPassword();
+		}
+	}
+
+	/**
+	 * Computes the keyed digest a credential is cached by.
+	 * @param password - password given
+	 * @param stored - password stored
+	 * @return the digest
+	 */
+	private static byte[] digest(String password, String stored)
+	{
+		try
+		{
+			Mac mac = Mac.getInstance(DIGEST);
+			mac.init(DIGEST_KEY);
+			mac.update(bytes(stored));
+			mac.update((byte) 0);
+			return mac.doFinal(bytes(password));
+		}
+		catch (GeneralSecurityException gse)
+		{
+			System.err.println("Passwords - digest() - " + DIGEST + " is not available");
+			System.exit(-1);
+			return null;
+		}
+	}
+
+	/**
+	 * Checks whether a credential was verified recently.
+	 * @param stored - password stored
+	 * @param digest - digest of the credential
+	 * @return true if it is in the cache and has not expired. False otherwise.
+	 */
+	private static boolean cached(String stored, byte[] digest)
+	{
+		synchronized (CACHE)
+		{
+			Credential credential = CACHE.get(stored);
+			if (credential == null)
+				return false;
+
+			if (System.nanoTime() - credential.verified > CACHE_TIME)
+			{
+				CACHE.remove(stored);
+				return false;
+			}
+
+			return MessageDigest.isEqual(credential.digest, digest);
+		}
+	}
+
+	/**
+	 * Keeps a credential verified in the cache.
+	 * @param stored - password stored
+	 * @param digest - digest of the credential
+	 */
+	private static void cache(String stored, byte[] digest)
+	{
+		if (CACHE_SIZE <= 0 || CACHE_TIME <= 0)
+			return;
+
+		synchronized (CACHE)
+		{
+			CACHE.put(stored, new Credential(digest, System.nanoTime()));
+		}
+	}
+
+	/**
+	 * Gets the bytes of a string.
+	 * @param string - string
+	 * @return its bytes in UTF-8
+	 */
+	private static byte[] bytes(String string)
+	{
+		return string.getBytes(StandardCharsets.UTF_8);
+	}
+
+	/**
+	 * Fields of a hashed password.
+	 */
+	private static final class Hash
+	{
+		/** Work factor of the hash */
+		private final int iterations;
+
+		/** Salt in base 64 */
+		private final String salt;
+
+		/** Hash in base 64 */
+		private final String hash;
+
+		/**
+		 * Explicit constructor of a hash.
+		 * @param iterations - work factor of the hash
+		 * @param salt - salt in base 64
+		 * @param hash - hash in base 64
+		 */
+		private Hash(int iterations, String salt, String hash)
+		{
+			this.iterations = iterations;
+			this.salt = salt;
+			this.hash = hash;
+		}
+	}
+
+	/**
+	 * Credential verified, kept in the cache.
+	 */
+	private static final class Credential
+	{
+		/** Digest of the password and the one stored */
+		private final byte[] digest;
+
+		/** Time it was verified, in nanoseconds */
+		private final long verified;
+
+		/**
+		 * Explicit constructor of a credential.
+		 * @param digest - digest of the password and the one stored
+		 * @param verified - time it was verified, in nanoseconds
+		 */
+		private Credential(byte[] digest, long verified)
+		{
+			this.digest = digest;
+			this.verified = verified;
+		}
+	}
+}
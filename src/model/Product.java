@@ -25,9 +25,6 @@ public class Product implements Data
 	/** Constant to represent the product id */
 	public final static int PRODUCT_ID = 4;
 	
-	/** type of sorting used for product. Default is name */
-	private static int sorting = PRODUCT_NAME;
-	
 	/** Product's name */
 	private String name;
 	
@@ -43,6 +40,12 @@ public class Product implements Data
 	/** Product's unique id */
 	private int id;
 	
+	/** Name and id of the company shown in the table. Null until it is shown */
+	private String companyValue;
+	
+	/** Version of the companies when the company value was made */
+	private int companyVersion;
+	
 	/**
 	 * Explicit constructor for a product.
 	 * 
@@ -80,6 +83,7 @@ public class Product implements Data
 	public void setCompany(int company)
 	{
 		this.company = company;
+		this.companyValue = null;
 	}
 	
 	/**
@@ -112,7 +116,7 @@ public class Product implements Data
 	public void setDate(Date date)
 	{
 		if (date == null)
-			date = new Date();
+			date = Date.today();
 		
 		this.date = date;
 	}
@@ -165,11 +169,16 @@ public class Product implements Data
 	
 	/**
 	 * Gets the value to be shown on the table for the
-	 * company of this product.
+	 * company of this product. It is kept until the company of this 
+	 * product changes or a company is renamed, changes its id or is removed.
 	 * @return string value of the company
 	 */
 	private String getCompanyValue()
 	{
+		int version = Database.getInstance().getCompanyVersion();
+		if (companyValue != null && companyVersion == version)
+			return companyValue;
+		
 		String string = "";
 		
 		Data data = Database.getInstance().select(company);
@@ -193,6 +202,8 @@ public class Product implements Data
 		string += ", ";
 		string += Integer.toHexString(company.getId());
 		
+		companyValue = string;
+		companyVersion = version;
 		return string;
 	}
 	
@@ -250,108 +261,10 @@ public class Product implements Data
 	@Override
 	public int compareTo(Data data) 
 	{
-		int value = 0;
-		
 		if (!(data instanceof Product))
-			return value;
-		
-		Product other = (Product) data;
-		
-		if (sorting == PRODUCT_NAME)
-		{
-			value = getName().compareTo(other.getName());
-			if (value == 0)
-			{
-				Data c1 = Database.getInstance().select(getCompany());
-				Data c2 = Database.getInstance().select(other.getCompany());
-				Company.setSorting(Company.COMPANY_NAME);
-				value = c1.compareTo(c2);
-				if (value == 0) value = Integer.compare(getCompany(), other.getCompany());
-			}
-			
-			if (value == 0) value = Double.compare(getWeight(), other.getWeight());
-			if (value == 0) value = getDate().compareTo(other.getDate());
-			if (value == 0) value = Integer.compare(getId(), other.getId());
-		}
-		else if (sorting == PRODUCT_COMPANY)
-		{
-			Data c1 = Database.getInstance().select(getCompany());
-			Data c2 = Database.getInstance().select(other.getCompany());
-			Company.setSorting(Company.COMPANY_NAME);
-			value = c1.compareTo(c2);
-			if (value == 0) value = Integer.compare(getCompany(), other.getCompany());
-			
-			if (value == 0) value = getName().compareTo(other.getName());
-			if (value == 0) value = Double.compare(getWeight(), other.getWeight());
-			if (value == 0) value = getDate().compareTo(other.getDate());
-			if (value == 0) value = Integer.compare(getId(), other.getId());
-		}
-		else if (sorting == PRODUCT_WEIGHT)
-		{
-			value = Double.compare(getWeight(), other.getWeight());
-			if (value == 0) value = getName().compareTo(other.getName());
-			if (value == 0)
-			{
-				Data c1 = Database.getInstance().select(getCompany());
-				Data c2 = Database.getInstance().select(other.getCompany());
-				Company.setSorting(Company.COMPANY_NAME);
-				value = c1.compareTo(c2);
-				
-				if (value == 0) value = Integer.compare(getCompany(), other.getCompany());
-			}
-			
-			if (value == 0) value = getDate().compareTo(other.getDate());
-			if (value == 0) value = Integer.compare(getCompany(), other.getCompany());
-		}
-		else if (sorting == PRODUCT_DATE)
-		{
-			value = getDate().compareTo(other.getDate());
-			if (value == 0) value = getName().compareTo(other.getName());
-			if (value == 0)
-			{
-				Data c1 = Database.getInstance().select(getCompany());
-				Data c2 = Database.getInstance().select(other.getCompany());
-				value = c1.compareTo(c2);
-				
-				if (value == 0) value = Integer.compare(getCompany(), other.getCompany());
-			}
-			
-			if (value == 0) value = Double.compare(getWeight(), other.getWeight());
-			if (value == 0) value = Integer.compare(getId(), other.getId());
-		}
-		else
-		{
-			value = Integer.compare(getId(), other.getId());
-			if (value == 0) value = getName().compareTo(other.getName());
-			if (value == 0)
-			{
-				Data c1 = Database.getInstance().select(getCompany());
-				Data c2 = Database.getInstance().select(other.getCompany());
-				Company.setSorting(Company.COMPANY_NAME);
-				value = c1.compareTo(c2);
-				
-				if (value == 0) value = Integer.compare(getCompany(), other.getCompany());
-			}
-			
-			if (value == 0) value = Double.compare(getWeight(), other.getWeight());
-			if (value == 0) value = getDate().compareTo(other.getDate());
-		}
+			return 0;
 		
-		return value;
-	
-	}
-
-	/**
-	 * Sets the sorting type for product
-	 * @param type - type of sorting
-	 */
-	public static void setSorting(int type)
-	{
-		boolean validType = type == PRODUCT_NAME   || type == PRODUCT_COMPANY ||
-							type == PRODUCT_WEIGHT || type == PRODUCT_DATE    ||
-							type == PRODUCT_ID;
-		if (validType)
-			sorting = type;
+		return Comparators.get(Database.PRODUCT, PRODUCT_NAME).compare(this, data);
 	}
 
 	/**
@@ -0,0 +1,271 @@
+package model;
+
+import java.lang.reflect.Array;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.ListIterator;
+
+import io.ProductCatalog;
+
+/**
+ * Sorts products by any of their sorting types. Every product is decorated
+ * once with the keys it is sorted by, including the name of its company,
+ * so a sort never looks up a company while it compares.
+ * <br><br>
+ * The comparators hold no state, so they can be used by many sorts at
+ * the same time.
+ *
+ * @author Manuel Cruz
+ * @version 1.0
+ */
+public final class ProductSorter
+{
+	/** Comparators of the keys by sorting type */
+	private final static Comparator<Key>[] KEY_COMPARATORS = keyComparators();
+
+	/** Comparators of the products by sorting type */
+	private final static Comparator<Product>[] COMPARATORS = comparators();
+
+	/**
+	 * Not instantiable.
+	 */
+	private ProductSorter()
+	{
+		super();
+	}
+
+	/**
+	 * Gets the comparator of the given sorting type. Every comparison
+	 * looks up the companies, sort should be preferred for many products.
+	 * @param type - type of sorting, PRODUCT_NAME to PRODUCT_ID
+	 * @return comparator of the type. The id comparator if the type is invalid.
+	 */
+	public static Comparator<Product> comparator(int type)
+	{
+		return COMPARATORS[valid(type)];
+	}
+
+	/**
+	 * Sorts a list of products by the given sorting type.
+	 * @param products - list that only holds products
+	 * @param type - type of sorting, PRODUCT_NAME to PRODUCT_ID
+	 * @throws ClassCastException if the list holds data that is not a product
+	 */
+	public static <T extends Data> void sort(List<T> products, int type)
+	{
+		sort(products, type, false);
+	}
+
+	/**
+	 * Sorts a list of products by the given sorting type. A parallel sort
+	 * decorates and sorts the products in the fork join pool it is called
+	 * from, or in the common pool.
+	 * @param products - list that only holds products
+	 * @param type - type of sorting, PRODUCT_NAME to PRODUCT_ID
+	 * @param parallel - true to sort in parallel. False otherwise.
+	 * @throws ClassCastException if the list holds data that is not a product
+	 */
+	public static <T extends Data> void sort(List<T> products, int type, boolean parallel)
+	{
+		Key[] keys = new Key[products.size()];
+		if (parallel)
+		{
+			Arrays.parallelSetAll(keys, i -> new Key((Product) products.get(i)));
+			Arrays.parallelSort(keys, KEY_COMPARATORS[valid(type)]);
+		}
+		else
+		{
+			for (int i = 0; i < keys.length; i++)
+				keys[i] = new Key((Product) products.get(i));
+			Arrays.sort(keys, KEY_COMPARATORS[valid(type)]);
+		}
+
+		ListIterator<T> iterator = products.listIterator();
+		for (Key key : keys)
+		{
+			iterator.next();
+			@SuppressWarnings("unchecked")
+			T product = (T) key.product;
+			iterator.set(product);
+		}
+	}
+
+	/**
+	 * Sorts the products of a catalog by the given sorting type. The keys
+	 * are read from the catalog without building the products, and the
+	 * companies are looked up once the catalog is no longer locked.
+	 * @param catalog - catalog of the products
+	 * @param type - type of sorting, PRODUCT_NAME to PRODUCT_ID
+	 * @param parallel - true to sort in parallel. False otherwise.
+	 * @return identities of the products, sorted
+	 */
+	public static int[] sort(ProductCatalog catalog, int type, boolean parallel)
+	{
+		Key[] keys;
+		synchronized (catalog)
+		{
+			keys = new Key[catalog.size()];
+			for (int position = 0; position < keys.length; position++)
+				keys[position] = new Key(catalog, position);
+		}
+
+		if (parallel)
+		{
+			Arrays.stream(keys).parallel().forEach(Key::join);
+			Arrays.parallelSort(keys, KEY_COMPARATORS[valid(type)]);
+		}
+		else
+		{
+			for (Key key : keys)
+				key.join();
+			Arrays.sort(keys, KEY_COMPARATORS[valid(type)]);
+		}
+
+		int[] identities = new int[keys.length];
+		for (int i = 0; i < identities.length; i++)
+			identities[i] = keys[i].id;
+		return identities;
+	}
+
+	/**
+	 * Checks a sorting type.
+	 * @param type - type of sorting
+	 * @return the type, or PRODUCT_ID if it is invalid
+	 */
+	private static int valid(int type)
+	{
+		return type >= Product.PRODUCT_NAME && type <= Product.PRODUCT_ID ? type : Product.PRODUCT_ID;
+	}
+
+	/**
+	 * Builds the comparators of the products. They decorate both
+	 * products on every comparison.
+	 * @return comparators by sorting type
+	 */
+	private static Comparator<Product>[] comparators()
+	{
+		Comparator<Product>[] comparators = array(KEY_COMPARATORS.length);
+		for (int type = 0; type < comparators.length; type++)
+			comparators[type] = Comparator.comparing(Key::new, KEY_COMPARATORS[type]);
+		return comparators;
+	}
+
+	/**
+	 * Builds the comparators of the keys. Each sorting type compares its
+	 * own attribute first and then the rest to break ties.
+	 * @return comparators by sorting type
+	 */
+	private static Comparator<Key>[] keyComparators()
+	{
+		Comparator<Key> name = Comparator.comparing(key -> key.name);
+		Comparator<Key> company = Comparator.comparing((Key key) -> key.companyName)
+											.thenComparingInt(key -> key.companyDate)
+											.thenComparingInt(key -> key.company);
+		Comparator<Key> weight = Comparator.comparingDouble(key -> key.weight);
+		Comparator<Key> date = Comparator.comparingInt(key -> key.date);
+		Comparator<Key> id = Comparator.comparingInt(key -> key.id);
+
+		Comparator<Key>[] comparators = array(5);
+		comparators[Product.PRODUCT_NAME] = name.thenComparing(company).thenComparing(weight).thenComparing(date).thenComparing(id);
+		comparators[Product.PRODUCT_COMPANY] = company.thenComparing(name).thenComparing(weight).thenComparing(date).thenComparing(id);
+		comparators[Product.PRODUCT_WEIGHT] = weight.thenComparing(name).thenComparing(company).thenComparing(date).thenComparing(id);
+		comparators[Product.PRODUCT_DATE] = date.thenComparing(name).thenComparing(company).thenComparing(weight).thenComparing(id);
+		comparators[Product.PRODUCT_ID] = id.thenComparing(name).thenComparing(company).thenComparing(weight).thenComparing(date);
+		return comparators;
+	}
+
+	/**
+	 * Creates an array of comparators. Generic arrays can't be created
+	 * directly, so it is created by reflection. It is not shared with
+	 * Comparators, which needs the comparators of this class to be
+	 * initialized.
+	 * @param length - length of the array
+	 * @return the array, empty
+	 */
+	@SuppressWarnings("unchecked")
+	private static <T> Comparator<T>[] array(int length)
+	{
+		return (Comparator<T>[]) Array.newInstance(Comparator.class, length);
+	}
+
+	/**
+	 * Product decorated with the keys it is sorted by.
+	 */
+	private static final class Key
+	{
+		/** Product decorated. Null if it was read from a catalog */
+		private final Product product;
+
+		/** Name of the product */
+		private final String name;
+
+		/** Name of the company. Empty if the company does not exist */
+		private String companyName;
+
+		/** Packed date of the company */
+		private int companyDate;
+
+		/** Identity of the company */
+		private final int company;
+
+		/** Weight of the product */
+		private final double weight;
+
+		/** Packed date of the product */
+		private final int date;
+
+		/** Identity of the product */
+		private final int id;
+
+		/**
+		 * Explicit constructor that decorates a product.
+		 * @param product - product to decorate
+		 */
+		private Key(Product product)
+		{
+			this.product = product;
+			this.name = product.getName();
+			this.company = product.getCompany();
+			this.weight = product.getWeight();
+			this.date = product.getDate().getPacked();
+			this.id = product.getId();
+			join();
+		}
+
+		/**
+		 * Explicit constructor that reads the keys of a product of a catalog
+		 * without building it. Its company is looked up by join().
+		 * @param catalog - catalog of the product
+		 * @param position - position of the product
+		 */
+		private Key(ProductCatalog catalog, int position)
+		{
+			this.product = null;
+			this.name = catalog.getName(position);
+			this.company = catalog.getCompany(position);
+			this.weight = catalog.getWeight(position);
+			this.date = catalog.getDate(position);
+			this.id = catalog.getIdentity(position);
+		}
+
+		/**
+		 * Looks up the name and date of the company of the product.
+		 */
+		private void join()
+		{
+			Data data = Database.getInstance().select(company);
+			if (data instanceof Company)
+			{
+				Company company = (Company) data;
+				this.companyName = company.getName();
+				this.companyDate = company.getDate().getPacked();
+			}
+			else
+			{
+				this.companyName = "";
+				this.companyDate = 0;
+			}
+		}
+	}
+}
@@ -0,0 +1,274 @@
+package model;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Consumer;
+
+import io.ProductCatalog;
+
+/**
+ * Snapshot of the data of the database. It holds its own copy of every
+ * data as it was when the snapshot was taken, so it can be read by any
+ * thread for as long as needed without locking, while the database keeps
+ * changing.
+ * <br><br>
+ * Snapshots are taken with Database.snapshot(). The copies of each type
+ * are kept in a persistent trie tagged with the version of the type. A
+ * new snapshot shares the trie of every type that has not changed, and
+ * the trie of a type that changed only copies the paths to the data that
+ * changed. The products of a mapped catalog are not copied: they are read
+ * from its file, and only the products changed since it was opened are
+ * kept in the trie. A catalog is never written over, every output writes
+ * a new file, so the mapping of a snapshot stays valid for as long as it
+ * is read. The data of a snapshot must not be changed.
+ *
+ * @author Manuel Cruz
+ * @version 1.0
+ */
+public final class Snapshot
+{
+	/** Tables of the snapshot, by position of their type */
+	private final Table[] tables;
+
+	/**
+	 * Explicit constructor of a snapshot.
+	 * @param tables - tables by position of their type
+	 */
+	Snapshot(Table[] tables)
+	{
+		this.tables = tables;
+	}
+
+	/**
+	 * Selects a data by its id. A product of a mapped catalog is built
+	 * again every time it is selected.
+	 * @param identity - identity of the data
+	 * @return the data as it was. Null if it didn't exist.
+	 */
+	public Data select(int identity)
+	{
+		Table table = table(identity & Database.DATA_TYPE_MASK);
+		return table == null ? null : table.get(identity);
+	}
+
+	/**
+	 * Selects all of the data of a type. The list can't be changed. It
+	 * builds every product of a mapped catalog, so forEach is preferred
+	 * for large types.
+	 * @param type - type of data
+	 * @return the data as it was. Null if the type is invalid.
+	 */
+	public List<Data> selectAll(int type)
+	{
+		Table table = table(type);
+		if (table == null)
+			return null;
+
+		List<Data> list = new ArrayList<Data>(table.size);
+		table.forEach(list::add);
+		return Collections.unmodifiableList(list);
+	}
+
+	/**
+	 * Visits every data of the given type, in no particular order.
+	 * @param type - type of data
+	 * @param visitor - action taken on each data
+	 */
+	public void forEach(int type, Consumer<? super Data> visitor)
+	{
+		Table table = table(type);
+		if (table != null)
+			table.forEach(visitor);
+	}
+
+	/**
+	 * Gets the number of data of a type.
+	 * @param type - type of data
+	 * @return number of data. 0 if the type is invalid.
+	 */
+	public int size(int type)
+	{
+		Table table = table(type);
+		return table == null ? 0 : table.size;
+	}
+
+	/**
+	 * Gets the version of a type of data. It changes every time
+	 * a data of that type is inserted, deleted or changed.
+	 * @param type - type of data
+	 * @return version of the type. -1 if the type is invalid.
+	 */
+	public long getVersion(int type)
+	{
+		Table table = table(type);
+		return table == null ? -1 : table.version;
+	}
+
+	/**
+	 * Gets the table of a type.
+	 * @param type - type of data
+	 * @return the table. Null if the type is invalid.
+	 */
+	Table table(int type)
+	{
+		int position = Database.position(type);
+		return position < 0 ? null : tables[position];
+	}
+
+	/**
+	 * Copies a data so it is no longer changed with the database.
+	 * @param data - data to copy
+	 * @return the copy
+	 */
+	static Data copy(Data data)
+	{
+		if (data instanceof Company)
+		{
+			Company company = (Company) data;
+			return new Company(company.getName(), company.getDate(), company.getId());
+		}
+		else if (data instanceof Product)
+		{
+			Product product = (Product) data;
+			return new Product(product.getName(), product.getCompany(), product.getId(),
+							   product.getWeight(), product.getDate());
+		}
+		else if (data instanceof User)
+		{
+			User user = (User) data;
+			return new User(user.getFirstName(), user.getLastName(), user.getBirthday(), user.getId(),
+							user.isAdministrator(), user.getUsername(), user.getPassword());
+		}
+
+		return new Warehouse((Warehouse) data);
+	}
+
+	/**
+	 * Copies of the data of a type at a version of that type. It never
+	 * changes, a change makes a new table that shares most of it.
+	 */
+	static final class Table
+	{
+		/** Value of a record of the catalog that was removed or changed its identity */
+		private final static Object REMOVED = new Object();
+
+		/** Version of the type when the table was made */
+		final long version;
+
+		/** Copies by identity. With a catalog, only the ones changed since it was opened */
+		private final IntTrie<Object> copies;
+
+		/** Records of the catalog of the products. Null if there is none */
+		private final ProductCatalog.Records records;
+
+		/** Number of data in the table */
+		private final int size;
+
+		/**
+		 * Explicit constructor of a table.
+		 * @param version - version of the type
+		 * @param copies - copies by identity
+		 * @param records - records of the catalog. Null if there is none.
+		 * @param size - number of data
+		 */
+		private Table(long version, IntTrie<Object> copies, ProductCatalog.Records records, int size)
+		{
+			this.version = version;
+			this.copies = copies;
+			this.records = records;
+			this.size = size;
+		}
+
+		/**
+		 * Makes an empty table.
+		 * @param version - version of the type
+		 * @return the table
+		 */
+		static Table of(long version)
+		{
+			return new Table(version, IntTrie.empty(), null, 0);
+		}
+
+		/**
+		 * Makes the table of the records of a catalog, as they were stored.
+		 * @param version - version of the type
+		 * @param records - records of the catalog
+		 * @return the table
+		 */
+		static Table of(long version, ProductCatalog.Records records)
+		{
+			return new Table(version, IntTrie.empty(), records, records.size());
+		}
+
+		/**
+		 * Makes the table with a data as it is now.
+		 * @param version - version of the type
+		 * @param id - identity of the data
+		 * @param data - the data. Null if it no longer exists.
+		 * @return the new table
+		 */
+		Table with(long version, int id, Data data)
+		{
+			boolean existed = contains(id);
+
+			IntTrie<Object> copies;
+			if (data != null)
+				copies = this.copies.put(id, copy(data));
+			else if (records != null && records.find(id) >= 0)
+				copies = this.copies.put(id, REMOVED);
+			else
+				copies = this.copies.remove(id);
+
+			int size = this.size + (data != null ? 1 : 0) - (existed ? 1 : 0);
+			return new Table(version, copies, records, size);
+		}
+
+		/**
+		 * Gets the data with an identity.
+		 * @param id - identity of the data
+		 * @return the data. Null if it didn't exist.
+		 */
+		Data get(int id)
+		{
+			Object copy = copies.get(id);
+			if (copy != null)
+				return copy == REMOVED ? null : (Data) copy;
+
+			int record = records == null ? -1 : records.find(id);
+			return record < 0 ? null : records.get(record);
+		}
+
+		/**
+		 * Checks whether a data with an identity is in the table without building it.
+		 * @param id - identity of the data
+		 * @return true if it is. False otherwise.
+		 */
+		private boolean contains(int id)
+		{
+			Object copy = copies.get(id);
+			if (copy != null)
+				return copy != REMOVED;
+
+			return records != null && records.find(id) >= 0;
+		}
+
+		/**
+		 * Visits every data of the table. The records of the catalog are
+		 * visited first, then the copies by identity.
+		 * @param visitor - action taken on each data
+		 */
+		void forEach(Consumer<? super Data> visitor)
+		{
+			if (records != null)
+				for (int record = 0; record < records.size(); record++)
+					if (copies.get(records.getIdentity(record)) == null)
+						visitor.accept(records.get(record));
+
+			copies.forEach(copy -> {
+				if (copy != REMOVED)
+					visitor.accept((Data) copy);
+			});
+		}
+	}
+}
@@ -32,9 +32,6 @@ public class User implements Data
 	/** Constant to represent the user id */
 	public final static int USER_ID = 6;
 	
-	/** type of sorting used for user. Default is first name. */
-	private static int sorting = USER_FIRST_NAME;
-	
 	/** User's first name */
 	private String firstName;
 	
@@ -104,7 +101,7 @@ public class User implements Data
 	public void setBirthday(Date birthday)
 	{
 		if (birthday == null)
-			birthday = new Date();
+			birthday = Date.today();
 		this.birthday = birthday;
 	}
 	
@@ -138,7 +135,8 @@ public class User implements Data
 	}
 	
 	/**
-	 * Sets the users password to login to the database.
+	 * Sets the users password to login to the database. The password 
+	 * should be hashed with Passwords.hash before it is set.
 	 * @param password - password to use to login.
 	 */
 	public void setPassword(String password)
@@ -205,7 +203,7 @@ public class User implements Data
 	}
 	
 	/**
-	 * Gets the password of the user.
+	 * Gets the password of the user, as it is stored.
 	 * @return password of user.
 	 */
 	public String getPassword()
@@ -213,6 +211,17 @@ public class User implements Data
 		return password;
 	}
 	
+	/**
+	 * Checks whether a password is the one of the user. It is slow, so it 
+	 * should not be called from the event dispatch thread.
+	 * @param password - password given
+	 * @return true if it is the password of the user. False otherwise.
+	 */
+	public boolean verifyPassword(String password)
+	{
+		return Passwords.verify(password, this.password);
+	}
+	
 	@Override
 	public String toString()
 	{
@@ -263,72 +272,12 @@ public class User implements Data
 	@Override
 	public int compareTo(Data data) 
 	{
-		int value = 0;
-		
 		if (!(data instanceof User))
-			return value;
-		
-		User other = (User) data;
+			return 0;
 		
-		if (sorting == USER_FIRST_NAME)
-		{
-			value = getFirstName().compareTo(other.getFirstName());
-			if (value == 0) value = getLastName().compareTo(other.getLastName());
-			if (value == 0) value = getBirthday().compareTo(other.getBirthday());
-			if (value == 0) value = Integer.compare(getId(), other.getId());
-			if (value == 0) value = getUsername().compareTo(other.getUsername());
-		}
-		else if (sorting == USER_LAST_NAME)
-		{
-			
-			value = getLastName().compareTo(other.getLastName());
-			if (value == 0) value = getFirstName().compareTo(other.getFirstName());
-			if (value == 0) value = getBirthday().compareTo(other.getBirthday());
-			if (value == 0) value = Integer.compare(getId(), other.getId());
-			if (value == 0) value = getUsername().compareTo(other.getUsername());
-		}
-		else if (sorting == USER_BIRTHDAY)
-		{
-			value = getBirthday().compareTo(other.getBirthday());
-			if (value == 0) value = getFirstName().compareTo(other.getFirstName());
-			if (value == 0) value = getLastName().compareTo(other.getLastName());
-			if (value == 0) value = Integer.compare(getId(), other.getId());
-			if (value == 0) value = getUsername().compareTo(other.getUsername());
-		}
-		else if (sorting == USER_ID)
-		{
-			value = Integer.compare(getId(), other.getId());
-			if (value == 0) value = getFirstName().compareTo(other.getFirstName());
-			if (value == 0) value = getLastName().compareTo(other.getLastName());
-			if (value == 0) value = getBirthday().compareTo(other.getBirthday());
-			if (value == 0) value = getUsername().compareTo(other.getUsername());
-		}
-		else
-		{
-			value = getUsername().compareTo(other.getUsername());
-			if (value == 0) value = getFirstName().compareTo(other.getFirstName());
-			if (value == 0) value = getLastName().compareTo(other.getLastName());
-			if (value == 0) value = getBirthday().compareTo(other.getBirthday());
-			if (value == 0) value = Integer.compare(getId(), other.getId());
-		}
-		
-		return value;
+		return Comparators.get(Database.USER, USER_FIRST_NAME).compare(this, data);
 	}
 
-	/**
-	 * Sets the sorting type for user.
-	 * @param type - type of sorting
-	 */
-	public static void setSorting(int type)
-	{
-		boolean validType = type == USER_FIRST_NAME || type == USER_LAST_NAME ||
-							type == USER_BIRTHDAY   || type == USER_ID        || 
-							type == USER_USERNAME;
-	
-		if (validType)
-			sorting = type;
-	}
-	
 	/**
 	 * Gets the header of the user
 	 * @return an array containing the header
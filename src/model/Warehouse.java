@@ -1,8 +1,6 @@
 package model;
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
 
 import utilities.Utilities;
 
@@ -32,8 +30,8 @@ public class Warehouse implements Data
 	/** Constant to represent the warehouse id */
 	public final static int WAREHOUSE_ID = 5;
 	
-	/** type of sorting used for warehouse. Default is name */
-	private static int sorting = WAREHOUSE_NAME;
+	/** true if the running quantity is checked against the products after every change */
+	private static boolean checking = Boolean.getBoolean("logistics.checkInvariants");
 	
 	/** Name of the warehouse */
 	private String name;
@@ -41,8 +39,11 @@ public class Warehouse implements Data
 	/** Capacity of the warehouse */
 	private int capacity;
 	
-	/** products that the warehouse contain */
-	private Map<Integer, Integer> products;
+	/** products that the warehouse contain with their quantity */
+	private Stock products;
+	
+	/** units of all the products stored, kept up to date on every change */
+	private int quantity;
 	
 	/** date the warehouse was created / added */
 	private Date date;
@@ -50,6 +51,9 @@ public class Warehouse implements Data
 	/** Unique Identity of the warehouse */
 	private int id;
 	
+	/** Told when a product starts or stops being stored. Null if none */
+	private StockListener listener;
+	
 	/**
 	 * Explicit constructor of a warehouse object.
 	 * 
@@ -63,7 +67,24 @@ public class Warehouse implements Data
 		setCapacity(capacity);
 		setDate(dateCreated);
 		setId(id);
-		products = new HashMap<Integer, Integer>();
+		products = new Stock();
+	}
+	
+	/**
+	 * Copy constructor of a warehouse. The stock and quantity are copied 
+	 * as they are, without checking them against the capacity, and the 
+	 * listener is not copied.
+	 * 
+	 * @param warehouse - warehouse to copy
+	 */
+	Warehouse(Warehouse warehouse)
+	{
+		name = warehouse.name;
+		capacity = warehouse.capacity;
+		date = warehouse.date;
+		id = warehouse.id;
+		products = new Stock(warehouse.products);
+		quantity = warehouse.quantity;
 	}
 
 	/**
@@ -93,7 +114,7 @@ public class Warehouse implements Data
 	public void setDate(Date date) 
 	{
 		if (date == null)
-			date = new Date();
+			date = Date.today();
 		this.date = date;
 	}
 
@@ -125,12 +146,36 @@ public class Warehouse implements Data
 	}
 
 	/**
-	 * Gets the list of products in this warehouse.
+	 * Gets the list of products in this warehouse. Every call copies and 
+	 * boxes the products, getProductIds or forEachProduct are cheaper.
 	 * @return list of products in the warehouse.
 	 */
 	public List<Integer> getProducts() 
 	{
-		return new ArrayList<Integer>(products.keySet());
+		int[] ids = products.keys();
+		List<Integer> list = new ArrayList<Integer>(ids.length);
+		for (int id : ids)
+			list.add(id);
+		return list;
+	}
+	
+	/**
+	 * Gets the identities of the products in this warehouse.
+	 * @return a new array with the identities of the products
+	 */
+	public int[] getProductIds()
+	{
+		return products.keys();
+	}
+	
+	/**
+	 * Visits every product of this warehouse with its quantity. 
+	 * The visitor must not change the products of this warehouse.
+	 * @param visitor - action taken on each product
+	 */
+	public void forEachProduct(IntIntConsumer visitor)
+	{
+		products.forEach(visitor);
 	}
 
 	/**
@@ -156,9 +201,7 @@ public class Warehouse implements Data
 	 */
 	public int getProductQuantity(int product)
 	{
-		if (!contains(product))
-			return -1;
-		return products.get(product);
+		return products.get(product, -1);
 	}
 	
 	/**
@@ -167,11 +210,6 @@ public class Warehouse implements Data
 	 */
 	public int getQuantity()
 	{
-		List<Integer> products = getProducts();
-		int quantity = 0;
-		for (int id : products)
-			quantity += getProductQuantity(id);
-		
 		return quantity;
 	}
 
@@ -209,10 +247,17 @@ public class Warehouse implements Data
 		if (full())
 			return false;
 		
-		if (getQuantity() + count > capacity)
+		if (quantity + count > capacity)
 			return false;
 		
-		products.put(product, count);
+		// the count replaces the one of a product already stored
+		boolean stored = products.containsKey(product);
+		int previous = products.put(product, count, 0);
+		quantity += count - previous;
+		
+		check();
+		if (!stored && listener != null)
+			listener.changed(this, product, true);
 		return true;
 	}
 	
@@ -237,11 +282,26 @@ public class Warehouse implements Data
 		if (quantity == productCount)
 			products.remove(product);
 		else
-			products.put(product, productCount - quantity);
+			products.put(product, productCount - quantity, 0);
 		
+		this.quantity -= quantity;
+		
+		check();
+		if (quantity == productCount && listener != null)
+			listener.changed(this, product, false);
 		return true;
 	}
 	
+	/**
+	 * Sets the listener told when a product starts or stops being 
+	 * stored. Only the database listens to its warehouses.
+	 * @param listener - listener of the stock. Null for none.
+	 */
+	void setListener(StockListener listener)
+	{
+		this.listener = listener;
+	}
+	
 	/**
 	 * Returns true if the product is stored in the warehouse. False otherwise.
 	 * @param product - product to be found.
@@ -263,7 +323,7 @@ public class Warehouse implements Data
 	 */
 	public boolean full()
 	{
-		return getQuantity() == capacity;
+		return quantity == capacity;
 	}
 	
 	/**
@@ -316,85 +376,39 @@ public class Warehouse implements Data
 	@Override
 	public int compareTo(Data data) 
 	{
-		int value = 0;
-		
 		if (!(data instanceof Warehouse))
-			return value;
+			return 0;
 		
-		Warehouse other = (Warehouse) data;
-		
-		if (sorting == WAREHOUSE_NAME)
-		{
-			value = getName().compareTo(other.getName());
-			if (value == 0) value = Integer.compare(getCapacity(), other.getCapacity());
-			if (value == 0) value = Integer.compare(getProductCount(), other.getProductCount());
-			if (value == 0) value = Integer.compare(getQuantity(), other.getQuantity());
-			if (value == 0) value = getDate().compareTo(other.getDate());
-			if (value == 0) value = Integer.compare(getId(), other.getId());
-		}
-		else if (sorting == WAREHOUSE_CAPACITY)
-		{
-			value = Integer.compare(getCapacity(), other.getCapacity());
-			if (value == 0) value = getName().compareTo(other.getName());
-			if (value == 0) value = Integer.compare(getProductCount(), other.getProductCount());
-			if (value == 0) value = Integer.compare(getQuantity(), other.getQuantity());
-			if (value == 0) value = getDate().compareTo(other.getDate());
-			if (value == 0) value = Integer.compare(getId(), other.getId());
-		}
-		else if (sorting == WAREHOUSE_PRODUCT_COUNT)
-		{
-			value = Integer.compare(getProductCount(), other.getProductCount());
-			if (value == 0) value = getName().compareTo(other.getName());
-			if (value == 0) value = Integer.compare(getCapacity(), other.getCapacity());
-			if (value == 0) value = Integer.compare(getQuantity(), other.getQuantity());
-			if (value == 0) value = getDate().compareTo(other.getDate());
-			if (value == 0) value = Integer.compare(getId(), other.getId());
-		}
-		else if (sorting == WAREHOUSE_QUANTITY)
-		{
-			value = Integer.compare(getQuantity(), other.getQuantity());
-			if (value == 0) value = getName().compareTo(other.getName());
-			if (value == 0) value = Integer.compare(getCapacity(), other.getCapacity());
-			if (value == 0) value = Integer.compare(getProductCount(), other.getProductCount());
-			if (value == 0) value = getDate().compareTo(other.getDate());
-			if (value == 0) value = Integer.compare(getId(), other.getId());
-		}
-		else if (sorting == WAREHOUSE_DATE)
-		{
-			value = getDate().compareTo(other.getDate());
-			if (value == 0) value = getName().compareTo(other.getName());
-			if (value == 0) value = Integer.compare(getCapacity(), other.getCapacity());
-			if (value == 0) value = Integer.compare(getProductCount(), other.getProductCount());
-			if (value == 0) value = Integer.compare(getQuantity(), other.getQuantity());
-			if (value == 0) value = Integer.compare(getId(), other.getId());
-		}
-		else
-		{
-			value = Integer.compare(getId(), other.getId());
-			if (value == 0) value = getName().compareTo(other.getName());
-			if (value == 0) value = Integer.compare(getCapacity(), other.getCapacity());
-			if (value == 0) value = Integer.compare(getProductCount(), other.getProductCount());
-			if (value == 0) value = Integer.compare(getQuantity(), other.getQuantity());
-			if (value == 0) value = getDate().compareTo(other.getDate());
-		}
-		
-		return value;
+		return Comparators.get(Database.WAREHOUSE, WAREHOUSE_NAME).compare(this, data);
 	}
 
 	/**
-	 * Sets the sorting type for the warehouse
-	 * @param type - type of sorting
+	 * Enables or disables checking the running quantity of every 
+	 * warehouse against its products after each change. It can also 
+	 * be enabled with the "logistics.checkInvariants" property.
+	 * @param checking - true to check the quantity. False otherwise.
 	 */
-	public static void setSorting(int type)
+	public static void setChecking(boolean checking)
 	{
-		boolean validType = type == WAREHOUSE_NAME          || type == WAREHOUSE_CAPACITY ||
-							type == WAREHOUSE_PRODUCT_COUNT || type == WAREHOUSE_QUANTITY ||
-							type == WAREHOUSE_DATE          || type == WAREHOUSE_ID;
+		Warehouse.checking = checking;
+	}
+	
+	/**
+	 * Checks that the running quantity matches the sum of the 
+	 * products stored, if checking is enabled.
+	 * @throws IllegalStateException if they do not match
+	 */
+	private void check()
+	{
+		if (!checking)
+			return;
 		
-		if (validType)
-			sorting = type;
+		int sum = products.sum();
+		if (sum != quantity)
+			throw new IllegalStateException("Warehouse - check() - quantity " + quantity + 
+											" does not match the products stored " + sum);
 	}
-
+	
 	/**
 	 * Gets the header of the warehouse
 	 * @return an array containing the header
@@ -405,4 +419,292 @@ public class Warehouse implements Data
 		return header;
 	}
 	
+	/**
+	 * Listener of the products a warehouse stores.
+	 */
+	@FunctionalInterface
+	interface StockListener
+	{
+		/**
+		 * Called when a product starts or stops being stored.
+		 * @param warehouse - warehouse that stores the product
+		 * @param product - identity of the product
+		 * @param stored - true if it started being stored. False if it stopped.
+		 */
+		public void changed(Warehouse warehouse, int product, boolean stored);
+	}
+	
+	/**
+	 * Action taken on a product of a warehouse and its quantity.
+	 */
+	@FunctionalInterface
+	public interface IntIntConsumer
+	{
+		/**
+		 * Takes the action on a product.
+		 * @param product - identity of the product
+		 * @param quantity - quantity stored of the product
+		 */
+		public void accept(int product, int quantity);
+	}
+	
+	/**
+	 * Map from the products of a warehouse to their quantity. It uses 
+	 * open addressing with linear probing so neither the products nor 
+	 * their quantities are boxed.
+	 */
+	private static class Stock
+	{
+		/** Default capacity of a new stock */
+		private final static int DEFAULT_CAPACITY = 8;
+		
+		/** Products of the stock */
+		private int[] keys;
+		
+		/** Quantities of the products */
+		private int[] values;
+		
+		/** true for the slots that hold a product */
+		private boolean[] used;
+		
+		/** Number of products in the stock */
+		private int size;
+		
+		/**
+		 * Simple constructor of an empty stock.
+		 */
+		public Stock()
+		{
+			allocate(DEFAULT_CAPACITY);
+		}
+		
+		/**
+		 * Copy constructor of a stock.
+		 * @param stock - stock to copy
+		 */
+		public Stock(Stock stock)
+		{
+			keys = stock.keys.clone();
+			values = stock.values.clone();
+			used = stock.used.clone();
+			size = stock.size;
+		}
+		
+		/**
+		 * Gets the quantity of a product.
+		 * @param key - product to look for
+		 * @param absent - value returned if the product is not stored
+		 * @return the quantity of the product
+		 */
+		public int get(int key, int absent)
+		{
+			int slot = find(key);
+			return slot < 0 ? absent : values[slot];
+		}
+		
+		/**
+		 * Checks whether a product is stored.
+		 * @param key - product to look for
+		 * @return true if it is stored. False otherwise.
+		 */
+		public boolean containsKey(int key)
+		{
+			return find(key) >= 0;
+		}
+		
+		/**
+		 * Sets the quantity of a product.
+		 * @param key - product to store
+		 * @param value - quantity of the product
+		 * @param absent - value returned if the product was not stored
+		 * @return the previous quantity of the product
+		 */
+		public int put(int key, int value, int absent)
+		{
+			int mask = keys.length - 1;
+			int slot = hash(key) & mask;
+			
+			while (used[slot])
+			{
+				if (keys[slot] == key)
+				{
+					int previous = values[slot];
+					values[slot] = value;
+					return previous;
+				}
+				slot = (slot + 1) & mask;
+			}
+			
+			keys[slot] = key;
+			values[slot] = value;
+			used[slot] = true;
+			
+			// 0.75 load factor
+			if (++size > (keys.length >> 1) + (keys.length >> 2))
+				rehash(keys.length << 1);
+			
+			return absent;
+		}
+		
+		/**
+		 * Removes a product.
+		 * @param key - product to remove
+		 * @return true if it was stored. False otherwise.
+		 */
+		public boolean remove(int key)
+		{
+			int free = find(key);
+			if (free < 0)
+				return false;
+			
+			// entries of the probe sequence are moved back so no tombstones are needed
+			int mask = keys.length - 1;
+			int slot = free;
+			while (true)
+			{
+				slot = (slot + 1) & mask;
+				if (!used[slot])
+					break;
+				
+				int home = hash(keys[slot]) & mask;
+				boolean movable = free <= slot ? (home <= free || home > slot)
+											   : (home <= free && home > slot);
+				if (movable)
+				{
+					keys[free] = keys[slot];
+					values[free] = values[slot];
+					free = slot;
+				}
+			}
+			used[free] = false;
+			size--;
+			
+			return true;
+		}
+		
+		/**
+		 * Gets the number of products stored.
+		 * @return number of products
+		 */
+		public int size()
+		{
+			return size;
+		}
+		
+		/**
+		 * Checks whether no product is stored.
+		 * @return true if it is empty. False otherwise.
+		 */
+		public boolean isEmpty()
+		{
+			return size == 0;
+		}
+		
+		/**
+		 * Gets the products stored.
+		 * @return a new array with the products
+		 */
+		public int[] keys()
+		{
+			int[] keys = new int[size];
+			int index = 0;
+			for (int slot = 0; slot < used.length; slot++)
+				if (used[slot])
+					keys[index++] = this.keys[slot];
+			return keys;
+		}
+		
+		/**
+		 * Visits every product with its quantity.
+		 * @param visitor - action taken on each product
+		 */
+		public void forEach(IntIntConsumer visitor)
+		{
+			for (int slot = 0; slot < used.length; slot++)
+				if (used[slot])
+					visitor.accept(keys[slot], values[slot]);
+		}
+		
+		/**
+		 * Adds the quantities of all the products.
+		 * @return the sum of the quantities
+		 */
+		public int sum()
+		{
+			int sum = 0;
+			for (int slot = 0; slot < used.length; slot++)
+				if (used[slot])
+					sum += values[slot];
+			return sum;
+		}
+		
+		/**
+		 * Finds the slot of a product.
+		 * @param key - product to look for
+		 * @return its slot. -1 if it is not stored.
+		 */
+		private int find(int key)
+		{
+			int mask = keys.length - 1;
+			int slot = hash(key) & mask;
+			
+			while (used[slot])
+			{
+				if (keys[slot] == key)
+					return slot;
+				slot = (slot + 1) & mask;
+			}
+			
+			return -1;
+		}
+		
+		/**
+		 * Moves every product into tables of the given size.
+		 * @param length - new table size, a power of two
+		 */
+		private void rehash(int length)
+		{
+			int[] oldKeys = keys;
+			int[] oldValues = values;
+			boolean[] oldUsed = used;
+			allocate(length);
+			
+			int mask = length - 1;
+			for (int i = 0; i < oldKeys.length; i++)
+			{
+				if (!oldUsed[i])
+					continue;
+				
+				int slot = hash(oldKeys[i]) & mask;
+				while (used[slot])
+					slot = (slot + 1) & mask;
+				
+				keys[slot] = oldKeys[i];
+				values[slot] = oldValues[i];
+				used[slot] = true;
+			}
+		}
+		
+		/**
+		 * Allocates the tables with the given size.
+		 * @param length - table size, a power of two
+		 */
+		private void allocate(int length)
+		{
+			keys = new int[length];
+			values = new int[length];
+			used = new boolean[length];
+		}
+		
+		/**
+		 * Spreads the bits of a product identity before masking.
+		 * @param key - product to hash
+		 * @return hash of the product
+		 */
+		private static int hash(int key)
+		{
+			int hash = key * 0x9E3779B9;
+			return hash ^ (hash >>> 16);
+		}
+	}
 }
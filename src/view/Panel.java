@@ -132,4 +132,13 @@ public abstract class Panel extends JPanel
 	 * Resets this panel when it is about to be shown to the frame
 	 */
 	public abstract void reset();
+	
+	/**
+	 * Stops the work this panel does in the background when it is no 
+	 * longer shown in the frame.
+	 */
+	public void cancel()
+	{
+		// for now does nothing and may do nothing for certain panels
+	}
 }
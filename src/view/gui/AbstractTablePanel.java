@@ -5,8 +5,15 @@ import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
 import java.awt.event.MouseEvent;
 import java.awt.event.MouseListener;
-import java.util.Collections;
+import java.util.Arrays;
+import java.util.Comparator;
 import java.util.List;
+import java.util.ListIterator;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.FutureTask;
 
 import javax.swing.ComboBoxModel;
 import javax.swing.DefaultComboBoxModel;
@@ -17,7 +24,8 @@ import javax.swing.JScrollPane;
 import javax.swing.JTable;
 import javax.swing.ListSelectionModel;
 import javax.swing.SpringLayout;
-import javax.swing.table.DefaultTableModel;
+import javax.swing.SwingUtilities;
+import javax.swing.SwingWorker;
 
 import controller.Logistics;
 import model.Data;
@@ -38,12 +46,24 @@ public abstract class AbstractTablePanel extends Panel implements ActionListener
 	 */
 	private static final long serialVersionUID = 1L;
 	
+	/** Number of rows from which a table is sorted and built in parallel */
+	private final static int PARALLEL_THRESHOLD = Integer.getInteger("logistics.parallelThreshold", 10000);
+	
+	/** Pool that generates the data of the tables, off the event dispatch thread */
+	private final static ForkJoinPool POOL = new ForkJoinPool(Runtime.getRuntime().availableProcessors());
+	
+	/** Update of the table on its way. Null if there is none */
+	private TableWorker worker;
+	
 	/** Type of data to show */
 	protected int type;
 	
 	/** Sort label in panel */
 	protected JLabel sortLabel;
 	
+	/** Label shown while the table is updated */
+	protected JLabel loadingLabel;
+	
 	/** Table to show data */
 	protected JTable table;
 	
@@ -81,6 +101,7 @@ public abstract class AbstractTablePanel extends Panel implements ActionListener
 	{
 		super.addComponents();
 		add(sortLabel);
+		add(loadingLabel);
 		
 		add(tablePanel);
 		
@@ -108,6 +129,10 @@ public abstract class AbstractTablePanel extends Panel implements ActionListener
 		
 		// sort label
 		sortLabel = factory.createLabel(ComponentFactory.DEFAULT, "Sort By:");
+		
+		// loading label
+		loadingLabel = factory.createLabel(ComponentFactory.DEFAULT, "Loading...");
+		loadingLabel.setVisible(false);
 	}
 	
 	/**
@@ -169,6 +194,10 @@ public abstract class AbstractTablePanel extends Panel implements ActionListener
 		// sort label
 		layout.putConstraint(SpringLayout.EAST, sortLabel, 0, SpringLayout.WEST, sortComboBox);
 		layout.putConstraint(SpringLayout.SOUTH, sortLabel, 0, SpringLayout.NORTH, tablePanel);
+		
+		// loading label
+		layout.putConstraint(SpringLayout.WEST, loadingLabel, 0, SpringLayout.WEST, tablePanel);
+		layout.putConstraint(SpringLayout.SOUTH, loadingLabel, 0, SpringLayout.NORTH, tablePanel);
 	}
 	
 	/**
@@ -221,28 +250,49 @@ public abstract class AbstractTablePanel extends Panel implements ActionListener
 	}
 	
 	/**
-	 * Updates the content of data in the table.
+	 * Updates the content of data in the table. The data is generated 
+	 * in the background and shown once it is ready, unless the table 
+	 * was updated again or the panel was left in the meantime. The 
+	 * values of the rows are computed as they are rendered.
 	 */
 	protected void updateTable()
 	{
+		// drop the update on its way, a newer one replaces it
+		cancel();
+		setLoading(true);
+		
+		// the table is updated again once the database is loaded
+		CompletableFuture<Void> ready = Database.getInstance().ready();
+		if (!ready.isDone())
+		{
+			ready.thenRun(() -> SwingUtilities.invokeLater(this::updateTable));
+			return;
+		}
+		
 		// clear selection
 		ListSelectionModel selectionModel = table.getSelectionModel();
 		selectionModel.clearSelection();
 		
-		// generate data and get header
-		Object[][] data = generateData();
-		String[] headerDetails = getHeaderDetails();
-		
-		// set model with data and header
-		DefaultTableModel newModel = new DefaultTableModel(data, headerDetails);
-		table.setModel(newModel);
+		// generate data in the background
+		worker = new TableWorker(getHeaderDetails());
+		worker.execute();
+	}
+	
+	/**
+	 * Shows or hides the loading label.
+	 * @param loading - true if the table is being updated. False otherwise.
+	 */
+	protected void setLoading(boolean loading)
+	{
+		loadingLabel.setVisible(loading);
 	}
 	
 	/**
-	 * Generates the data for the data
-	 * @return 2d array with the data.
+	 * Generates the data for the data. It runs in the table pool, so 
+	 * the parallel sorts and streams it starts run in the pool too.
+	 * @return identities of the data, in the order they are shown.
 	 */
-	protected Object[][] generateData()
+	protected int[] generateData()
 	{
 		List<Data> data = Database.getInstance().selectAll(type);
 		
@@ -253,20 +303,104 @@ public abstract class AbstractTablePanel extends Panel implements ActionListener
 		}
 		
 		// sort data
-		Collections.sort(data);
+		checkCancelled();
+		sort(data);
+		checkCancelled();
 		
-		// create 2d array of table
+		// keep the identities of the rows
 		int numberOfRows = data.size();
-		int headerSize = getHeaderDetails().length;
-		Object[][] dataRows = new Object[numberOfRows][headerSize];
-		
-		// add data to array
+		int[] identities = new int[numberOfRows];
 		for (int i = 0; i < numberOfRows; i++)
-			dataRows[i] = data.get(i).rowValues();
+			identities[i] = data.get(i).getId();
 		
-		return dataRows;
+		return identities;
+	}
+	
+	/**
+	 * Stops the generation of the data once its update was cancelled. 
+	 * The generation is interrupted when it is cancelled, so it should 
+	 * check between its longer steps.
+	 * @throws CancellationException if the update was cancelled
+	 */
+	protected static void checkCancelled()
+	{
+		if (Thread.currentThread().isInterrupted())
+			throw new CancellationException("AbstractTablePanel - generation cancelled");
+	}
+	
+	/**
+	 * Gets the values of the row of a data. It is called on the event 
+	 * dispatch thread as the row is rendered.
+	 * @param identity - identity of the data
+	 * @return values of the row. Empty if the data no longer exists.
+	 */
+	protected Object[] rowValues(int identity)
+	{
+		Data data = Database.getInstance().select(identity);
+		if (data == null)
+			return new Object[getHeaderDetails().length];
+		
+		return data.rowValues();
 	}
 
+	/**
+	 * Sorts the data shown in the table. By default data is sorted 
+	 * by its natural order.
+	 * @param data - data to sort
+	 */
+	protected void sort(List<Data> data)
+	{
+		sort(data, Comparator.naturalOrder());
+	}
+	
+	/**
+	 * Sorts a list of data, in parallel if it is large.
+	 * @param data - data to sort
+	 * @param comparator - order of the data
+	 */
+	protected static void sort(List<Data> data, Comparator<? super Data> comparator)
+	{
+		if (!isLarge(data.size()))
+		{
+			data.sort(comparator);
+			return;
+		}
+		
+		Data[] array = data.toArray(new Data[data.size()]);
+		sort(array, comparator);
+		
+		ListIterator<Data> iterator = data.listIterator();
+		for (Data value : array)
+		{
+			iterator.next();
+			iterator.set(value);
+		}
+	}
+	
+	/**
+	 * Sorts an array, in parallel if it is large.
+	 * @param array - array to sort
+	 * @param comparator - order of the array
+	 */
+	protected static <T> void sort(T[] array, Comparator<? super T> comparator)
+	{
+		if (isLarge(array.length))
+			Arrays.parallelSort(array, comparator);
+		else
+			Arrays.sort(array, comparator);
+	}
+	
+	/**
+	 * Checks if a table is large enough to be sorted and built in parallel.
+	 * The threshold is set by the "logistics.parallelThreshold" property.
+	 * @param rows - number of rows of the table
+	 * @return true if it is built in parallel. False otherwise.
+	 */
+	protected static boolean isLarge(int rows)
+	{
+		return rows >= PARALLEL_THRESHOLD;
+	}
+	
 	/**
 	 * Action taken by the buttons
 	 * @param button - button pressed
@@ -338,8 +472,84 @@ public abstract class AbstractTablePanel extends Panel implements ActionListener
 		removeButton.setEnabled(false);
 	}
 	
+	@Override
+	public void cancel()
+	{
+		if (worker != null)
+		{
+			worker.cancel(true);
+			worker = null;
+		}
+		setLoading(false);
+	}
+	
 	@Override public void mousePressed(MouseEvent e) {}
 	@Override public void mouseReleased(MouseEvent e) {}
 	@Override public void mouseEntered(MouseEvent e) {}
 	@Override public void mouseExited(MouseEvent e) {}
+	
+	/**
+	 * Generates the data of the table in the table pool and sets it 
+	 * to the table on the event dispatch thread.
+	 */
+	private class TableWorker extends SwingWorker<int[], Void>
+	{
+		/** Header of the table */
+		private final String[] header;
+		
+		/** Generation of the data in the table pool */
+		private FutureTask<int[]> task;
+		
+		/**
+		 * Explicit constructor of a worker.
+		 * @param header - header of the table
+		 */
+		private TableWorker(String[] header)
+		{
+			this.header = header;
+		}
+		
+		@Override
+		protected int[] doInBackground() throws Exception
+		{
+			task = new FutureTask<int[]>(() -> {
+				// an interrupt left by a generation cancelled as it ended is not for this one
+				Thread.interrupted();
+				return generateData();
+			});
+			POOL.execute(task);
+			try
+			{
+				return task.get();
+			}
+			catch (InterruptedException e)
+			{
+				// the worker was cancelled, so the generation is interrupted too
+				task.cancel(true);
+				throw e;
+			}
+		}
+		
+		@Override
+		protected void done()
+		{
+			// a newer update or leaving the panel cancelled it
+			if (isCancelled() || worker != this)
+				return;
+			
+			worker = null;
+			setLoading(false);
+			
+			try
+			{
+				DataTableModel newModel = new DataTableModel(get(), header, AbstractTablePanel.this::rowValues);
+				table.setModel(newModel);
+			}
+			catch (InterruptedException | ExecutionException e)
+			{
+				String message = "AbstractTablePanel - TableWorker - done() - " + e.getCause();
+				Utilities.getInstance().error(message);
+			}
+		}
+	}
 }
@@ -0,0 +1,102 @@
+package view.gui;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.IntFunction;
+
+import javax.swing.table.AbstractTableModel;
+
+/**
+ * Table model that only holds the identities of the data shown, in the
+ * order they are shown. The values of a row are computed when the row
+ * is rendered, and the last rows rendered are kept in a cache.
+ * @author Manuel Cruz
+ * @version 1.0
+ */
+public class DataTableModel extends AbstractTableModel
+{
+	/**
+	 *
+	 */
+	private static final long serialVersionUID = 1L;
+
+	/** Number of rows kept in the cache */
+	private final static int CACHE_SIZE = 1024;
+
+	/** Identities of the data shown, in order */
+	private final int[] identities;
+
+	/** Header of the table */
+	private final String[] header;
+
+	/** Computes the values of the row of an identity */
+	private final IntFunction<Object[]> rows;
+
+	/** Values of the last rows rendered, by row */
+	private final Map<Integer, Object[]> cache;
+
+	/**
+	 * Explicit constructor of the model.
+	 * @param identities - identities of the data shown, in order
+	 * @param header - header of the table
+	 * @param rows - computes the values of the row of an identity
+	 */
+	public DataTableModel(int[] identities, String[] header, IntFunction<Object[]> rows)
+	{
+		super();
+		this.identities = identities;
+		this.header = header;
+		this.rows = rows;
+		this.cache = new LinkedHashMap<Integer, Object[]>(CACHE_SIZE * 4 / 3 + 1, 0.75f, true)
+		{
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<Integer, Object[]> eldest)
+			{
+				return size() > CACHE_SIZE;
+			}
+		};
+	}
+
+	/**
+	 * Gets the identity of the data of a row.
+	 * @param row - row of the table
+	 * @return identity of the data
+	 */
+	public int getIdentity(int row)
+	{
+		return identities[row];
+	}
+
+	@Override
+	public int getRowCount()
+	{
+		return identities.length;
+	}
+
+	@Override
+	public int getColumnCount()
+	{
+		return header.length;
+	}
+
+	@Override
+	public String getColumnName(int column)
+	{
+		return header[column];
+	}
+
+	@Override
+	public Object getValueAt(int row, int column)
+	{
+		Object[] values = cache.get(row);
+		if (values == null)
+		{
+			values = rows.apply(identities[row]);
+			cache.put(row, values);
+		}
+
+		return column < values.length ? values[column] : null;
+	}
+}
@@ -2,19 +2,22 @@ package view.gui;
 
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
-import java.util.List;
+import java.util.concurrent.ExecutionException;
 
 import javax.swing.JButton;
 import javax.swing.JLabel;
 import javax.swing.JOptionPane;
 import javax.swing.JTextField;
 import javax.swing.SpringLayout;
+import javax.swing.SwingUtilities;
+import javax.swing.SwingWorker;
 
 import controller.Logistics;
-import model.Data;
 import model.Database;
+import model.Passwords;
 import model.User;
 import utilities.ComponentFactory;
+import utilities.Utilities;
 import view.Panel;
 
 /**
@@ -38,6 +41,9 @@ public class LoginPanel extends Panel implements ActionListener
 	/** Buttons used in this panel */
 	private JButton loginButton, forgotButton;
 	
+	/** Worker verifying the login. Null if there is none */
+	private LoginWorker worker;
+	
 	/**
 	 * Explicit constructor
 	 * @param manager - Manager that manages this panel
@@ -107,9 +113,11 @@ public class LoginPanel extends Panel implements ActionListener
 	{
 		ComponentFactory factory = ComponentFactory.getInstance();
 		
-		// login button
+		// login button, enabled once the database is loaded
 		loginButton = factory.createButton("LOGIN");
 		loginButton.addActionListener(this);
+		loginButton.setEnabled(Database.getInstance().isReady());
+		Database.getInstance().ready().thenRun(() -> SwingUtilities.invokeLater(() -> loginButton.setEnabled(true)));
 		
 		// forgot button
 		forgotButton = factory.createButton("FORGOT");
@@ -168,43 +176,41 @@ public class LoginPanel extends Panel implements ActionListener
 	 */
 	private void loginButtonAction()
 	{
-		if (validUser())
-			manager.login();
-		else
-			invalidUser();
+		if (!Database.getInstance().isReady() || worker != null)
+			return;
+		
+		// gets the username and password
+		String username = usernameTextField.getText();
+		String password = passwordTextField.getText();
+		
+		// looks up the user of the username. its password is verified 
+		// in the background since hashing it is slow on purpose
+		User user = Database.getInstance().selectUser(username);
+		loginButton.setEnabled(false);
+		worker = new LoginWorker(user, password);
+		worker.execute();
 	}
 	
 	/**
-	 * Checks if the user prompted is valid or not.
-	 * @return true if the user prompted is valid. False otherwise.
+	 * Action taken once the password of the prompted user is verified.
+	 * @param user - user prompted. Null if no user has the username prompted.
+	 * @param valid - true if the password prompted is the one of the user
+	 * @param hash - new hash of the password. Null if it does not need one.
 	 */
-	private boolean validUser()
+	private void verified(User user, boolean valid, String hash)
 	{
-		List<Data> identities = Database.getInstance().selectAll(Database.USER);
+		if (!valid)
+		{
+			invalidUser();
+			return;
+		}
 		
-		// gets the username and password
-		String username = usernameTextField.getText();
-		String password = passwordTextField.getText();
+		// a password in plain text or with an old hash is stored hashed again
+		if (hash != null && Database.getInstance().select(user.getId()) == user)
+			Database.getInstance().update(user.getId(), User.USER_PASSWORD, hash);
 		
-		// compares to all the users and sees if one matches.
-		// if one matches then is a valid user
-		// it send the user to the manager and returns true
-		// if it is not found it will just return false
-		for (Data data : identities)
-		{			
-			if (!(data instanceof User))
-				continue;
-			
-			User user = (User) data;
-			
-			boolean valid = user.getUsername().equals(username) && user.getPassword().equals(password);
-			if (valid)
-			{
-				manager.setUser(user);
-				return true;
-			}
-		}
-		return false;
+		manager.setUser(user);
+		manager.login();
 	}
 	
 	/**
@@ -233,6 +239,16 @@ public class LoginPanel extends Panel implements ActionListener
 		usernameTextField.setText("");
 		passwordTextField.setText("");
 	}
+	
+	@Override
+	public void cancel()
+	{
+		if (worker != null)
+			worker.cancel(true);
+		
+		worker = null;
+		loginButton.setEnabled(Database.getInstance().isReady());
+	}
 
 	@Override
 	public void actionPerformed(ActionEvent e) 
@@ -247,4 +263,66 @@ public class LoginPanel extends Panel implements ActionListener
 				forgotButtonAction();
 		}
 	}
+	
+	/**
+	 * Verifies the password of a user in the background.
+	 */
+	private class LoginWorker extends SwingWorker<Boolean, Void>
+	{
+		/** User prompted. Null if no user has the username prompted */
+		private final User user;
+		
+		/** Password prompted */
+		private final String password;
+		
+		/** New hash of the password. Null if it does not need one */
+		private String hash;
+		
+		/**
+		 * Explicit constructor of a worker.
+		 * @param user - user prompted
+		 * @param password - password prompted
+		 */
+		private LoginWorker(User user, String password)
+		{
+			this.user = user;
+			this.password = password;
+		}
+		
+		@Override
+		protected Boolean doInBackground() throws Exception
+		{
+			// a username that doesn't exist takes as long to reject as a wrong password
+			if (user == null)
+				return Passwords.reject(password);
+			
+			if (!user.verifyPassword(password))
+				return false;
+			
+			if (Passwords.needsHash(user.getPassword()))
+				hash = Passwords.hash(password);
+			return true;
+		}
+		
+		@Override
+		protected void done()
+		{
+			// leaving the panel cancelled it
+			if (isCancelled() || worker != this)
+				return;
+			
+			worker = null;
+			loginButton.setEnabled(true);
+			
+			try
+			{
+				verified(user, get(), hash);
+			}
+			catch (InterruptedException | ExecutionException e)
+			{
+				String message = "LoginPanel - LoginWorker - done() - " + e.getCause();
+				Utilities.getInstance().error(message);
+			}
+		}
+	}
 }
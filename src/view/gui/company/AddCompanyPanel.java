@@ -118,7 +118,7 @@ public class AddCompanyPanel extends AbstractCompanyPanel
 	private boolean addCompany()
 	{
 		String name = nameTextField.getText().strip();
-		Date date = new Date(dateTextField.getText().strip());
+		Date date = Date.valueOf(dateTextField.getText());
 		int id = Integer.parseInt(idTextField.getText().strip(), 0x10);
 		
 		Company company = new Company(name, date, id);
@@ -1,7 +1,5 @@
 package view.gui.company;
 
-import java.util.List;
-
 import javax.swing.JOptionPane;
 
 import controller.Logistics;
@@ -107,13 +105,7 @@ public class EditCompanyPanel extends AbstractCompanyPanel
 				return false;
 			
 			// check it is a unique id
-			List<Data> companies = Database.getInstance().selectAll(Database.COMPANY);
-			for (Data data : companies)
-			{								
-				if (data.getId() == identity && data.getId() != companyIdentity)
-					return false;
-			}
-			return true;
+			return identity == companyIdentity || Database.getInstance().validID(identity);
 		}
 		catch (NumberFormatException nfe) // must be an int of hexadecimal
 		{
@@ -188,7 +180,7 @@ public class EditCompanyPanel extends AbstractCompanyPanel
 		// updates date
 		boolean date = dtbs.update(companyIdentity, 
 								   Company.COMPANY_DATE, 
-								   new Date(dateTextField.getText().strip()));
+								   Date.valueOf(dateTextField.getText()));
 		// checks for failure
 		if (!date)
 		{
@@ -1,15 +1,11 @@
 package view.gui.company;
 
-import java.util.ArrayList;
-import java.util.List;
-
 import javax.swing.JOptionPane;
 
 import controller.Logistics;
 import model.Company;
 import model.Data;
 import model.Database;
-import model.Product;
 import model.Warehouse;
 import utilities.Utilities;
 
@@ -46,64 +42,42 @@ public class RemoveCompanyPanel extends AbstractCompanyPanel
 		titleLabel.setText("Remove Company");
 	}
 	
-	/**
-	 * Gets a list of products that contain this company.
-	 * @return list of id of products
-	 */
-	private List<Integer> getCompanyProducts()
-	{
-		List<Integer> productsRemove = new ArrayList<Integer>(); // empty list
-		List<Data> products = Database.getInstance().selectAll(Database.PRODUCT);
-		Data company = Database.getInstance().select(companyIdentity);
-		
-		// check all products
-		// if one matches with this company
-		// then it gets added
-		for (Data data : products)
-		{
-			Product product = (Product) data;
-			if (product.getCompany() == company.getId())
-				productsRemove.add(product.getId());
-		}
-		return productsRemove;
-	}
-	
 	/**
 	 * Removes the company selected
 	 */
 	private void removeCompany()
 	{
 		// gets the products to be removed
-		List<Integer> removingProducts = getCompanyProducts();
-		List<Data> warehouses = Database.getInstance().selectAll(Database.WAREHOUSE);
+		Database database = Database.getInstance();
+		int[] removingProducts = database.selectProducts(companyIdentity);
 		
-		// removes the products from the warehouse
-		for (Data data : warehouses)
+		// everything is removed together, or nothing is if a removal fails
+		Database.Transaction transaction = database.begin();
+		boolean success;
+		try
 		{
-			if (!(data instanceof Warehouse))
-			{
-				String message = "RemoveCompanyPanel - removeCompany() - invalid instance";
-				Utilities.getInstance().error(message);
-			}
+			// removes the products from the warehouses that store them
+			for (int product : removingProducts)
+				for (int id : database.selectWarehouses(product))
+				{
+					Data warehouse = database.select(id);
+					if (warehouse instanceof Warehouse)
+						transaction.removeStock(id, product, ((Warehouse) warehouse).getProductQuantity(product));
+				}
 			
-			Warehouse warehouse = (Warehouse) data;
+			// removes products from database
+			for (int id : removingProducts)
+				transaction.delete(id);
 			
-			// checks all the products to be removed
-			for (int product : removingProducts)
-			{
-				if (warehouse.contains(product))
-					warehouse.remove(product, warehouse.getProductQuantity(product));
-			}
+			// delete company
+			transaction.delete(companyIdentity);
+			success = transaction.commit();
+		}
+		finally
+		{
+			// undoes the removals if the commit was not reached
+			transaction.rollback();
 		}
-		
-		// removes products from database
-		for (int id : removingProducts)
-			Database.getInstance().delete(id);
-		
-		
-		
-		// delete company
-		boolean success = Database.getInstance().delete(companyIdentity);
 		if (success) // if success show success message
 		{	
 			String title = "Remove Company";
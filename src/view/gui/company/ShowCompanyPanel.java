@@ -1,7 +1,11 @@
 package view.gui.company;
 
+import java.util.List;
+
 import controller.Logistics;
 import model.Company;
+import model.Comparators;
+import model.Data;
 import model.Database;
 import utilities.ViewFactory;
 import view.gui.AbstractTablePanel;
@@ -17,6 +21,9 @@ public class ShowCompanyPanel extends AbstractTablePanel
 	 * 
 	 */
 	private static final long serialVersionUID = 1L;
+	
+	/** type of sorting. Default is name */
+	private volatile int sorting = Company.COMPANY_NAME;
 
 	/**
 	 * Explicit constructor of this panel.
@@ -40,14 +47,30 @@ public class ShowCompanyPanel extends AbstractTablePanel
 	{
 		String sortingMethod = (String) sortComboBox.getSelectedItem();
 		if (sortingMethod.equals("Name"))
-			Company.setSorting(Company.COMPANY_NAME);
+			sorting = Company.COMPANY_NAME;
 		else if (sortingMethod.equals("Date"))
-			Company.setSorting(Company.COMPANY_DATE);
+			sorting = Company.COMPANY_DATE;
 		else if (sortingMethod.equals("ID"))
-			Company.setSorting(Company.COMPANY_ID);
+			sorting = Company.COMPANY_ID;
 		
 		reset();
 	}
+	
+	@Override
+	protected int[] generateData()
+	{
+		// the dates are kept sorted by the database
+		if (sorting == Company.COMPANY_DATE)
+			return Database.getInstance().selectByDate(Database.COMPANY, null, null, false);
+		
+		return super.generateData();
+	}
+	
+	@Override
+	protected void sort(List<Data> data)
+	{
+		sort(data, Comparators.get(Database.COMPANY, sorting));
+	}
 
 	@Override
 	protected void addButtonAction() 
@@ -250,10 +250,7 @@ public abstract class AbstractProductPanel extends Panel implements ActionListen
 		// gets all of the companies to the combo box
 		companyComboBox.removeAllItems();
 		List<Data> companies = Database.getInstance().selectAll(Database.COMPANY);
-		for(Data data : companies)
-		{
-			Data company = Database.getInstance().select(data.getId());
+		for(Data company : companies)
 			companyComboBox.addItem(company);
-		}
 	}
 }
@@ -160,7 +160,7 @@ public class AddProductPanel extends AbstractProductPanel
 		String name = nameTextField.getText().strip();
 		Company company = (Company) companyComboBox.getSelectedItem();
 		double weight = Double.parseDouble(weightTextField.getText().strip());
-		Date date = new Date(dateTextField.getText().strip());
+		Date date = Date.valueOf(dateTextField.getText());
 		int id = Integer.parseInt(idTextField.getText().strip(), 0x10);
 		
 		Product product = new Product(name, company.getId(), id, weight, date);
@@ -1,7 +1,5 @@
 package view.gui.product;
 
-import java.util.List;
-
 import javax.swing.JOptionPane;
 
 import controller.Logistics;
@@ -199,13 +197,7 @@ public class EditProductPanel extends AbstractProductPanel
 			if ((identity & Database.DATA_TYPE_MASK) != Database.PRODUCT)
 				return false;
 			
-			List<Data> products = Database.getInstance().selectAll(Database.PRODUCT);
-			for (Data data : products)
-			{
-				if (data.getId() == identity && data.getId() != productIdentity)
-					return false;
-			}
-			return true;
+			return identity == productIdentity || Database.getInstance().validID(identity);
 		}
 		catch (NumberFormatException nfe) // invalid int
 		{
@@ -281,7 +273,7 @@ public class EditProductPanel extends AbstractProductPanel
 		// updates date
 		boolean date = dtbs.update(productIdentity, 
 								   Product.PRODUCT_DATE, 
-								   new Date(dateTextField.getText().strip()));
+								   Date.valueOf(dateTextField.getText()));
 		// checks for failure
 		if (!date)
 		{
@@ -1,7 +1,5 @@
 package view.gui.product;
 
-import java.util.List;
-
 import javax.swing.JOptionPane;
 
 import controller.Logistics;
@@ -67,23 +65,29 @@ public class RemoveProductPanel extends AbstractProductPanel
 	 */
 	private void removeProduct()
 	{
-		// removes product from warehouse containing this product
-		List<Data> warehouses = Database.getInstance().selectAll(Database.WAREHOUSE);
-		for (Data data : warehouses)
+		// everything is removed together, or nothing is if a removal fails
+		Database database = Database.getInstance();
+		Database.Transaction transaction = database.begin();
+		boolean success;
+		try
 		{
-			if (!(data instanceof Warehouse))
+			// removes product from warehouse containing this product
+			for (int id : database.selectWarehouses(productIdentity))
 			{
-				String message = "RemoveProductPanel - removeProduct() - invalid instance";
-				Utilities.getInstance().error(message);
+				Data warehouse = database.select(id);
+				if (warehouse instanceof Warehouse)
+					transaction.removeStock(id, productIdentity, ((Warehouse) warehouse).getProductQuantity(productIdentity));
 			}
 			
-			Warehouse warehouse = (Warehouse) data;
-			if (warehouse.contains(productIdentity))
-				warehouse.remove(productIdentity, warehouse.getProductQuantity(productIdentity));
+			// remove product
+			transaction.delete(productIdentity);
+			success = transaction.commit();
+		}
+		finally
+		{
+			// undoes the removals if the commit was not reached
+			transaction.rollback();
 		}
-		
-		// remove product
-		boolean success = Database.getInstance().delete(productIdentity);
 		if (success) // if success show success message
 		{
 			String title = "Remove Product";
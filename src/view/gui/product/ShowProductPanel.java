@@ -17,6 +17,9 @@ public class ShowProductPanel extends AbstractTablePanel
 	 * 
 	 */
 	private static final long serialVersionUID = 1L;
+	
+	/** type of sorting. Default is name */
+	private volatile int sorting = Product.PRODUCT_NAME;
 
 	/**
 	 * Explicit constructor for this panel.
@@ -40,19 +43,31 @@ public class ShowProductPanel extends AbstractTablePanel
 	{
 		String sortingMethod = (String) sortComboBox.getSelectedItem();
 		if (sortingMethod.equals("Name"))
-			Product.setSorting(Product.PRODUCT_NAME);
+			sorting = Product.PRODUCT_NAME;
 		else if (sortingMethod.equals("Company"))
-			Product.setSorting(Product.PRODUCT_COMPANY);
+			sorting = Product.PRODUCT_COMPANY;
 		else if (sortingMethod.equals("Weight"))
-			Product.setSorting(Product.PRODUCT_WEIGHT);
+			sorting = Product.PRODUCT_WEIGHT;
 		else if (sortingMethod.equals("Date"))
-			Product.setSorting(Product.PRODUCT_DATE);
+			sorting = Product.PRODUCT_DATE;
 		else if (sortingMethod.equals("ID"))
-			Product.setSorting(Product.PRODUCT_ID);
+			sorting = Product.PRODUCT_ID;
 		
 		reset();
 	}
-
+	
+	@Override
+	protected int[] generateData()
+	{
+		// the dates are kept sorted by the database
+		Database database = Database.getInstance();
+		if (sorting == Product.PRODUCT_DATE)
+			return database.selectByDate(Database.PRODUCT, null, null, false);
+		
+		// the products are sorted without building the ones of a mapped catalog
+		return database.sortProducts(sorting, isLarge(database.countByDate(Database.PRODUCT, null, null)));
+	}
+	
 	@Override
 	protected void addButtonAction() 
 	{
@@ -2,15 +2,20 @@ package view.gui.user;
 
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
+import java.util.concurrent.ExecutionException;
+import java.util.function.Consumer;
 
 import javax.swing.JButton;
 import javax.swing.JCheckBox;
 import javax.swing.JLabel;
 import javax.swing.JTextField;
 import javax.swing.SpringLayout;
+import javax.swing.SwingWorker;
 
 import controller.Logistics;
+import model.Passwords;
 import utilities.ComponentFactory;
+import utilities.Utilities;
 import utilities.ViewFactory;
 import view.Panel;
 
@@ -41,6 +46,9 @@ public abstract class AbstractUserPanel extends Panel implements ActionListener
 	
 	/** Buttons used in this panel */
 	protected JButton confirmButton, backButton;
+	
+	/** Worker hashing the password given. Null if none is */
+	private HashWorker worker;
 
 	/**
 	 * Explicit constructor of this panel.
@@ -247,6 +255,20 @@ public abstract class AbstractUserPanel extends Panel implements ActionListener
 	 */
 	protected abstract void confirmButtonAction();
 	
+	/**
+	 * Hashes a password in the background, since hashing takes a while, 
+	 * and then takes an action with the hash. The confirm button is 
+	 * disabled until the action is taken.
+	 * @param password - password to hash
+	 * @param action - action taken with the hash on the event dispatch thread
+	 */
+	protected void hashPassword(String password, Consumer<String> action)
+	{
+		confirmButton.setEnabled(false);
+		worker = new HashWorker(password, action);
+		worker.execute();
+	}
+	
 	@Override
 	public void actionPerformed(ActionEvent event)
 	{
@@ -271,4 +293,64 @@ public abstract class AbstractUserPanel extends Panel implements ActionListener
 		passwordTextField.setText("");
 		administratorCheckBox.setSelected(false);
 	}
+	
+	@Override
+	public void cancel()
+	{
+		if (worker != null)
+			worker.cancel(true);
+		
+		worker = null;
+		confirmButton.setEnabled(true);
+	}
+	
+	/**
+	 * Hashes a password off the event dispatch thread.
+	 */
+	private class HashWorker extends SwingWorker<String, Void>
+	{
+		/** Password to hash */
+		private final String password;
+		
+		/** Action taken with the hash */
+		private final Consumer<String> action;
+		
+		/**
+		 * Explicit constructor of a worker.
+		 * @param password - password to hash
+		 * @param action - action taken with the hash
+		 */
+		private HashWorker(String password, Consumer<String> action)
+		{
+			this.password = password;
+			this.action = action;
+		}
+		
+		@Override
+		protected String doInBackground() throws Exception
+		{
+			return Passwords.hash(password);
+		}
+		
+		@Override
+		protected void done()
+		{
+			// leaving the panel cancelled it
+			if (isCancelled() || worker != this)
+				return;
+			
+			worker = null;
+			confirmButton.setEnabled(true);
+			
+			try
+			{
+				action.accept(get());
+			}
+			catch (InterruptedException | ExecutionException e)
+			{
+				String message = "AbstractUserPanel - HashWorker - done() - " + e.getCause();
+				Utilities.getInstance().error(message);
+			}
+		}
+	}
 }
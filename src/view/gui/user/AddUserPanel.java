@@ -1,15 +1,11 @@
 package view.gui.user;
 
-import java.util.List;
-
 import javax.swing.JOptionPane;
 
 import controller.Logistics;
-import model.Data;
 import model.Database;
 import model.Date;
 import model.User;
-import utilities.Utilities;
 
 /**
  * Panel used to add user to the database.
@@ -78,22 +74,7 @@ public class AddUserPanel extends AbstractUserPanel
 		if (username.trim().length() < 4) // must be 4 chars
 			return false;
 		
-		List<Data> users = Database.getInstance().selectAll(Database.USER);
-		for (Data data : users)
-		{
-			if (!(data instanceof User))
-			{
-				String message = "AddUserPanel - validUsername(String username) - "
-						+ "invalid instance";
-				Utilities.getInstance().error(message);
-			}
-			
-			User user = (User) data;
-			if (user.getUsername().equals(username))
-				return false;
-		}
-		
-		return true;
+		return Database.getInstance().selectUser(username) == null;
 	}
 	
 	/**
@@ -183,39 +164,50 @@ public class AddUserPanel extends AbstractUserPanel
 	}
 	
 	/**
-	 * Adds user to the database
-	 * @return true if it was successful false otherwise.
+	 * Creates the user given. Its password is not hashed yet.
+	 * @return the user
 	 */
-	private boolean addUser()
+	private User createUser()
 	{
 		String firstName = firstNameTextField.getText().strip();
 		String lastName = lastNameTextField.getText().strip();
-		Date birthday = new Date(birthdayTextField.getText().strip());
+		Date birthday = Date.valueOf(birthdayTextField.getText());
 		int id = Integer.parseInt(idTextField.getText().strip(), 0x10);
 		boolean administrator = administratorCheckBox.isSelected();
 		String username = usernameTextField.getText().strip();
 		String password = passwordTextField.getText().strip();
-		User newUser = new User(firstName, lastName, birthday, id, administrator, username, password);
-		return Database.getInstance().insert(newUser);
+		return new User(firstName, lastName, birthday, id, administrator, username, password);
+	}
+	
+	/**
+	 * Adds user to the database once its password is hashed.
+	 * @param user - user to add
+	 * @param password - hash of its password
+	 */
+	private void addUser(User user, String password)
+	{
+		user.setPassword(password);
+		if (Database.getInstance().insert(user)) // adds user
+		{
+			String message = "User has been added";
+			String title = "Add User";
+			showMessage(message, title, JOptionPane.INFORMATION_MESSAGE);
+			reset();
+		}
+		else
+		{
+			String message = "User could not be added to database";
+			String title = "Add User";
+			showMessage(message, title, JOptionPane.ERROR_MESSAGE);
+		}
 	}
 
 	@Override
 	protected void confirmButtonAction() {
 		if (validUser()) // checks is a valid user
 		{
-			if (addUser()) // adds user
-			{
-				String message = "User has been added";
-				String title = "Add User";
-				showMessage(message, title, JOptionPane.INFORMATION_MESSAGE);
-				reset();
-			}
-			else
-			{
-				String message = "User could not be added to database";
-				String title = "Add User";
-				showMessage(message, title, JOptionPane.ERROR_MESSAGE);
-			}
+			User user = createUser();
+			hashPassword(user.getPassword(), password -> addUser(user, password));
 		}
 	}
 	
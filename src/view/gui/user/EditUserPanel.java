@@ -1,7 +1,5 @@
 package view.gui.user;
 
-import java.util.List;
-
 import javax.swing.JOptionPane;
 
 import controller.Logistics;
@@ -87,8 +85,8 @@ public class EditUserPanel extends AbstractUserPanel
 		boolean username = !usernameTextField.getText().trim().equals(user.getUsername());
 		if (username) return true;
 		
-		// checks password
-		boolean password = !passwordTextField.getText().trim().equals(user.getPassword());
+		// checks password. the password is never shown, so one given is a new one
+		boolean password = !passwordTextField.getText().isBlank();
 		if (password) return true;
 		
 		// checks administrator
@@ -118,13 +116,7 @@ public class EditUserPanel extends AbstractUserPanel
 			if ((id & Database.DATA_TYPE_MASK) != Database.USER)
 				return false;
 			
-			List<Data> users = Database.getInstance().selectAll(Database.USER);
-			for(Data data : users)
-			{
-				if (data.getId() == id && data.getId() != userIdentity)
-					return false;
-			}
-			return true;
+			return id == userIdentity || Database.getInstance().validID(id);
 		}
 		catch (NumberFormatException nfe)
 		{
@@ -145,21 +137,9 @@ public class EditUserPanel extends AbstractUserPanel
 		if (username.trim().length() < 4) // must have 4 chars at least
 			return false;
 		
-		List<Data> users = Database.getInstance().selectAll(Database.USER);
-		for (Data data : users)
-		{
-			if (!(data instanceof User))
-			{
-				String message = "EditUserPanel - validUsername(String username) - invalid instance";
-				Utilities.getInstance().error(message);
-			}
-			
-			User user = (User) data;
-			if (user.getUsername().equals(username) && user.getId() != userIdentity)
-				return false;
-		}
-		
-		return true;
+		// the username is valid if no other user has it
+		User user = Database.getInstance().selectUser(username);
+		return user == null || user.getId() == userIdentity;
 	}
 	
 	/**
@@ -235,11 +215,13 @@ public class EditUserPanel extends AbstractUserPanel
 			return false;
 		}
 		
-		// checks the password
-		boolean password = validPassword(passwordTextField.getText().strip());
+		// checks the password, which is kept if none is given
+		String newPassword = passwordTextField.getText().strip();
+		boolean password = newPassword.isEmpty() || validPassword(newPassword);
 		if (!password)
 		{
-			String message = "Make sure password is at least 4 characters";
+			String message = "Make sure password is at least 4 characters,\n"
+					+ "or leave it empty to keep the current one";
 			String title = "Password Error";
 			showMessage(message, title, JOptionPane.ERROR_MESSAGE);
 			return false;
@@ -250,9 +232,10 @@ public class EditUserPanel extends AbstractUserPanel
 	
 	/**
 	 * Updates the change given by the user.
+	 * @param hash - hash of the new password. Null to keep the current one.
 	 * @return true if it was successfully update. false otherwise.
 	 */
-	private boolean updateChange()
+	private boolean updateChange(String hash)
 	{
 		Database dtbs = Database.getInstance();
 		
@@ -285,7 +268,7 @@ public class EditUserPanel extends AbstractUserPanel
 		// changes birthday
 		boolean birthday = dtbs.update(userIdentity, 
 									   User.USER_BIRTHDAY, 
-									   new Date(birthdayTextField.getText().strip()));
+									   Date.valueOf(birthdayTextField.getText()));
 		// checks for error
 		if (!birthday)
 		{
@@ -308,10 +291,8 @@ public class EditUserPanel extends AbstractUserPanel
 			return false;
 		}
 		
-		// changes password
-		boolean password = dtbs.update(userIdentity, 
-									   User.USER_PASSWORD, 
-									   passwordTextField.getText().strip());
+		// changes password, if a new one is given
+		boolean password = hash == null || dtbs.update(userIdentity, User.USER_PASSWORD, hash);
 		// checks for error
 		if (!password)
 		{
@@ -360,12 +341,12 @@ public class EditUserPanel extends AbstractUserPanel
 		{
 			if (validChange()) // validates changes
 			{
-				if (updateChange()) // updates
-				{
-					String message = "User has been edited";
-					String title = "Edit User";
-					showMessage(message, title, JOptionPane.INFORMATION_MESSAGE);
-				}
+				// a new password is hashed first, in the background
+				String newPassword = passwordTextField.getText().strip();
+				if (newPassword.isEmpty())
+					edit(null);
+				else
+					hashPassword(newPassword, this::edit);
 			}
 		}
 		else
@@ -376,6 +357,21 @@ public class EditUserPanel extends AbstractUserPanel
 		}
 	}
 
+	/**
+	 * Updates the change once the new password is hashed. The change is 
+	 * validated again, since it could be changed while hashing.
+	 * @param hash - hash of the new password. Null to keep the current one.
+	 */
+	private void edit(String hash)
+	{
+		if (validChange() && updateChange(hash)) // validates and updates
+		{
+			String message = "User has been edited";
+			String title = "Edit User";
+			showMessage(message, title, JOptionPane.INFORMATION_MESSAGE);
+		}
+	}
+	
 	@Override
 	public void setData(int id)
 	{
@@ -400,7 +396,7 @@ public class EditUserPanel extends AbstractUserPanel
 		birthdayTextField.setText(user.getBirthday().toString());
 		idTextField.setText(Integer.toHexString(user.getId()));
 		usernameTextField.setText(user.getUsername());
-		passwordTextField.setText(user.getPassword());
+		passwordTextField.setText("");
 		
 		if (Logistics.getInstance().getUser().isAdministrator())
 			administratorCheckBox.setSelected(user.isAdministrator());
@@ -123,7 +123,7 @@ public class RemoveUserPanel extends AbstractUserPanel
 		birthdayTextField.setText(user.getBirthday().toString());
 		idTextField.setText(Integer.toHexString(user.getId()));
 		usernameTextField.setText(user.getUsername());
-		passwordTextField.setText(user.getPassword());
+		passwordTextField.setText(""); // only its hash is stored
 		administratorCheckBox.setSelected(user.isAdministrator());
 	
 		userIdentity = id;
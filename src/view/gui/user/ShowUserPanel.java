@@ -1,6 +1,10 @@
 package view.gui.user;
 
+import java.util.List;
+
 import controller.Logistics;
+import model.Comparators;
+import model.Data;
 import model.Database;
 import model.User;
 import utilities.ViewFactory;
@@ -17,6 +21,9 @@ public class ShowUserPanel extends AbstractTablePanel
 	 * 
 	 */
 	private static final long serialVersionUID = 1L;
+	
+	/** type of sorting. Default is first name */
+	private volatile int sorting = User.USER_FIRST_NAME;
 
 	/**
 	 * Explicit constructor of this panel.
@@ -40,18 +47,34 @@ public class ShowUserPanel extends AbstractTablePanel
 	{
 		String sortingMethod = (String) sortComboBox.getSelectedItem();
 		if (sortingMethod.equals("First Name"))
-			User.setSorting(User.USER_FIRST_NAME);
+			sorting = User.USER_FIRST_NAME;
 		else if (sortingMethod.equals("Last Name"))
-			User.setSorting(User.USER_LAST_NAME);
+			sorting = User.USER_LAST_NAME;
 		else if (sortingMethod.equals("Birthday"))
-			User.setSorting(User.USER_BIRTHDAY);
+			sorting = User.USER_BIRTHDAY;
 		else if (sortingMethod.equals("ID"))
-			User.setSorting(User.USER_ID);
+			sorting = User.USER_ID;
 		else if (sortingMethod.equals("Username"))
-			User.setSorting(User.USER_USERNAME);
+			sorting = User.USER_USERNAME;
 		
 		reset();
 	}
+	
+	@Override
+	protected int[] generateData()
+	{
+		// the dates are kept sorted by the database
+		if (sorting == User.USER_BIRTHDAY)
+			return Database.getInstance().selectByDate(Database.USER, null, null, false);
+		
+		return super.generateData();
+	}
+	
+	@Override
+	protected void sort(List<Data> data)
+	{
+		sort(data, Comparators.get(Database.USER, sorting));
+	}
 
 	@Override
 	protected void addButtonAction() 
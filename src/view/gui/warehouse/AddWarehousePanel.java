@@ -147,7 +147,7 @@ public class AddWarehousePanel extends AbstractWarehousePanel
 	{
 		String name = nameTextField.getText().strip();
 		int capacity = Integer.parseInt(capacityTextField.getText().strip());
-		Date date = new Date(dateTextField.getText().strip());
+		Date date = Date.valueOf(dateTextField.getText());
 		int identity = Integer.parseInt(idTextField.getText().strip(), 0x10);
 		
 		Warehouse warehouse = new Warehouse(name, capacity, date, identity);
@@ -189,7 +189,7 @@ public class AddWarehouseProductPanel extends AbstractWarehouseProductPanel
 		
 		Warehouse warehouse = (Warehouse) object;
 		
-		return warehouse.add(product.getId(), quantity);
+		return Database.getInstance().addStock(warehouse.getId(), product.getId(), quantity);
 	}
 
 	@Override
@@ -1,7 +1,5 @@
 package view.gui.warehouse;
 
-import java.util.List;
-
 import javax.swing.JOptionPane;
 
 import controller.Logistics;
@@ -197,14 +195,13 @@ public class EditWarehousePanel extends AbstractWarehousePanel
 		
 		try
 		{
-			int id = Integer.parseInt(text);
-			List<Data> warehouses = Database.getInstance().selectAll(Database.WAREHOUSE);
-			for (Data data : warehouses)
-			{
-				if (data.getId() == id && data.getId() != warehouseIdentity)
-					return false;
-			}
-			return true;
+			int id = Integer.parseInt(text, 0x10);
+			
+			if ((id & Database.DATA_TYPE_MASK) != Database.WAREHOUSE)
+				return false;
+			
+			// check it is a unique id
+			return id == warehouseIdentity || Database.getInstance().validID(id);
 		}
 		catch (NumberFormatException nfe)
 		{
@@ -249,7 +246,7 @@ public class EditWarehousePanel extends AbstractWarehousePanel
 		// updates date
 		boolean date = dtbs.update(warehouseIdentity, 
 								   Warehouse.WAREHOUSE_DATE, 
-								   new Date(dateTextField.getText().strip()));
+								   Date.valueOf(dateTextField.getText()));
 		// checks for failure
 		if (!date)
 		{
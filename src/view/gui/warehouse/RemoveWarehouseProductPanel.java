@@ -1,7 +1,5 @@
 package view.gui.warehouse;
 
-import java.util.List;
-
 import javax.swing.JOptionPane;
 
 import controller.Logistics;
@@ -57,13 +55,7 @@ public class RemoveWarehouseProductPanel extends AbstractWarehouseProductPanel
 		}
 		
 		Warehouse warehouse = (Warehouse) data;
-		List<Integer> productIdentities = warehouse.getProducts();
-		
-		for (int id : productIdentities)
-		{
-			data = Database.getInstance().select(id);
-			productComboBox.addItem(data);
-		}
+		warehouse.forEachProduct((id, quantity) -> productComboBox.addItem(Database.getInstance().select(id)));
 		
 		quantityTextField.setText("");
 	}
@@ -195,8 +187,7 @@ public class RemoveWarehouseProductPanel extends AbstractWarehouseProductPanel
 		Product product = (Product) productComboBox.getSelectedItem();
 		int quantity = Integer.parseInt(quantityTextField.getText().strip());
 		
-		Warehouse warehouse = (Warehouse) Database.getInstance().select(warehouseIdentity);
-		return warehouse.remove(product.getId(), quantity);
+		return Database.getInstance().removeStock(warehouseIdentity, product.getId(), quantity);
 	}
 
 	@Override
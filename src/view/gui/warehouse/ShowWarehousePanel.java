@@ -1,12 +1,15 @@
 package view.gui.warehouse;
 
 import java.awt.event.MouseEvent;
+import java.util.List;
 
 import javax.swing.JButton;
 import javax.swing.JTable;
 import javax.swing.SpringLayout;
 
 import controller.Logistics;
+import model.Comparators;
+import model.Data;
 import model.Database;
 import model.Warehouse;
 import utilities.ComponentFactory;
@@ -25,6 +28,9 @@ public class ShowWarehousePanel extends AbstractTablePanel
 	 */
 	private static final long serialVersionUID = 1L;
 	
+	/** type of sorting. Default is name */
+	private volatile int sorting = Warehouse.WAREHOUSE_NAME;
+	
 	/** Button to manage the selected warehouse */
 	private JButton manageButton;
 
@@ -89,21 +95,37 @@ public class ShowWarehousePanel extends AbstractTablePanel
 	{
 		String sortingMethod = (String) sortComboBox.getSelectedItem();
 		if (sortingMethod.equals("Name"))
-			Warehouse.setSorting(Warehouse.WAREHOUSE_NAME);
+			sorting = Warehouse.WAREHOUSE_NAME;
 		else if (sortingMethod.equals("Product Count"))
-			Warehouse.setSorting(Warehouse.WAREHOUSE_PRODUCT_COUNT);
+			sorting = Warehouse.WAREHOUSE_PRODUCT_COUNT;
 		else if (sortingMethod.equals("Capacity"))
-			Warehouse.setSorting(Warehouse.WAREHOUSE_CAPACITY);
+			sorting = Warehouse.WAREHOUSE_CAPACITY;
 		else if (sortingMethod.equals("Quantity"))
-			Warehouse.setSorting(Warehouse.WAREHOUSE_QUANTITY);
+			sorting = Warehouse.WAREHOUSE_QUANTITY;
 		else if (sortingMethod.equals("Date"))
-			Warehouse.setSorting(Warehouse.WAREHOUSE_DATE);
+			sorting = Warehouse.WAREHOUSE_DATE;
 		else if (sortingMethod.equals("ID"))
-			Warehouse.setSorting(Warehouse.WAREHOUSE_ID);
+			sorting = Warehouse.WAREHOUSE_ID;
 		
 		reset();
 	}
 	
+	@Override
+	protected int[] generateData()
+	{
+		// the dates are kept sorted by the database
+		if (sorting == Warehouse.WAREHOUSE_DATE)
+			return Database.getInstance().selectByDate(Database.WAREHOUSE, null, null, false);
+		
+		return super.generateData();
+	}
+	
+	@Override
+	protected void sort(List<Data> data)
+	{
+		sort(data, Comparators.get(Database.WAREHOUSE, sorting));
+	}
+	
 	@Override
 	protected void buttonsActions(JButton button)
 	{
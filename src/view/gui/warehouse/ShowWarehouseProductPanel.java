@@ -1,8 +1,6 @@
 package view.gui.warehouse;
 
-import java.util.Collections;
 import java.util.Comparator;
-import java.util.List;
 
 import javax.swing.JButton;
 
@@ -20,7 +18,7 @@ import view.gui.AbstractTablePanel;
  * @author Manuel Cruz
  * @version 1.0
  */
-public class ShowWarehouseProductPanel extends AbstractTablePanel implements Comparator<Integer> 
+public class ShowWarehouseProductPanel extends AbstractTablePanel
 {
 	/**
 	 * 
@@ -36,8 +34,8 @@ public class ShowWarehouseProductPanel extends AbstractTablePanel implements Com
 	/** Warehouse selected */
 	private int warehouseIdentity;
 	
-	/** type of sorting */
-	private int sorting = PRODUCT;
+	/** type of sorting, set on the event dispatch thread and read as the data is generated */
+	private volatile int sorting = PRODUCT;
 
 	/**
 	 * Explicit constructor for this panel.
@@ -106,56 +104,84 @@ public class ShowWarehouseProductPanel extends AbstractTablePanel implements Com
 	}
 
 	@Override
-	protected Object[][] generateData() 
+	protected int[] generateData() 
 	{
-		Data data = Database.getInstance().select(warehouseIdentity);
+		Warehouse warehouse = getWarehouse("generateData");
+		int[] productIdentities = warehouse.getProductIds();
+		Product[] products = new Product[productIdentities.length];
 		
-		if (data == null)
+		for (int i = 0; i < productIdentities.length; i++)
 		{
-			String message = "ShowWarehouseProductPanel - generateData() - null ptr "
-					+ "invalid warehouse: " + warehouseIdentity;
-			Utilities.getInstance().error(message);
-		}
-		
-		if (!(data instanceof Warehouse))
-		{
-			String message = "ShowWarehouseProductPanel - generateData() - invalid instance "
-					+ "invalid warehouse: " + warehouseIdentity;
-			Utilities.getInstance().error(message);
-		}
-		
-		Warehouse warehouse = (Warehouse) data;
-		List<Integer> productIdentities = warehouse.getProducts();
-		Collections.sort(productIdentities, this);
-		int numberOfCompanies = productIdentities.size();
-		int headerSize = getHeaderDetails().length;
-		
-		Object[][] dataArray = new Object[numberOfCompanies][headerSize];
-		
-		for (int i = 0; i < productIdentities.size(); i++)
-		{
-			data = Database.getInstance().select(productIdentities.get(i));
+			Data data = Database.getInstance().select(productIdentities[i]);
 			
 			if (data == null)
 			{
 				String message = "ShowWarehouseProductPanel - generateData() - null ptr "
-						+ "invalid product: " + productIdentities.get(i);
+						+ "invalid product: " + productIdentities[i];
 				Utilities.getInstance().error(message);
 			}
 			
 			if (!(data instanceof Product))
 			{
 				String message = "ShowWarehouseProductPanel - generateData() - invalid instance "
-						+ "invalid product: " + productIdentities.get(i);
+						+ "invalid product: " + productIdentities[i];
 				Utilities.getInstance().error(message);
 			}
 			
-			Product product = (Product) data;
-			dataArray[i][0] = product.getName();
-			dataArray[i][1] = warehouse.getProductQuantity(productIdentities.get(i));
+			products[i] = (Product) data;
+		}
+		
+		// sort by product or by the quantity stored
+		Comparator<Product> comparator;
+		if (sorting == PRODUCT)
+			comparator = (p1, p2) -> p1.compareTo(p2);
+		else
+			comparator = (p1, p2) -> Integer.compare(warehouse.getProductQuantity(p1.getId()), 
+													 warehouse.getProductQuantity(p2.getId()));
+		checkCancelled();
+		sort(products, comparator);
+		
+		for (int i = 0; i < products.length; i++)
+			productIdentities[i] = products[i].getId();
+		
+		return productIdentities;
+	}
+	
+	@Override
+	protected Object[] rowValues(int identity)
+	{
+		Warehouse warehouse = getWarehouse("rowValues");
+		Data data = Database.getInstance().select(identity);
+		String name = data instanceof Product ? ((Product) data).getName() : null;
+		
+		Object[] row = {name, warehouse.getProductQuantity(identity)};
+		return row;
+	}
+	
+	/**
+	 * Gets the warehouse selected.
+	 * @param method - name of the method that gets it, for the error message
+	 * @return the warehouse selected
+	 */
+	private Warehouse getWarehouse(String method)
+	{
+		Data data = Database.getInstance().select(warehouseIdentity);
+		
+		if (data == null)
+		{
+			String message = "ShowWarehouseProductPanel - " + method + "() - null ptr "
+					+ "invalid warehouse: " + warehouseIdentity;
+			Utilities.getInstance().error(message);
 		}
 		
-		return dataArray;
+		if (!(data instanceof Warehouse))
+		{
+			String message = "ShowWarehouseProductPanel - " + method + "() - invalid instance "
+					+ "invalid warehouse: " + warehouseIdentity;
+			Utilities.getInstance().error(message);
+		}
+		
+		return (Warehouse) data;
 	}
 
 	@Override
@@ -195,17 +221,4 @@ public class ShowWarehouseProductPanel extends AbstractTablePanel implements Com
 	{
 		
 	}
-
-	@Override
-	public int compare(Integer i1, Integer i2) 
-	{
-		Data d1 = Database.getInstance().select(i1);
-		Data d2 = Database.getInstance().select(i2);
-		
-		if (sorting == PRODUCT)
-			return d1.compareTo(d2);
-		
-		Warehouse warehouse = (Warehouse) Database.getInstance().select(warehouseIdentity);
-		return Integer.compare(warehouse.getProductQuantity(i1), warehouse.getProductQuantity(i2));
-	}
 }
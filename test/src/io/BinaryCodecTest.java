@@ -0,0 +1,204 @@
+package io;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.Arrays;
+import java.util.List;
+
+import model.Company;
+import model.Database;
+import model.Date;
+import model.Product;
+import model.User;
+import model.Warehouse;
+import test.Check;
+
+/**
+ * Tests of storing and reading the data files in the binary format.
+ *
+ * @author Manuel Cruz
+ * @version 1.0
+ */
+public final class BinaryCodecTest
+{
+	/** Name with characters that take more than one byte */
+	private final static String NAME = "Caf\u00e9 \u65e5\u672c \ud83d\udce6";
+
+	/**
+	 * Not instantiable.
+	 */
+	private BinaryCodecTest()
+	{
+		super();
+	}
+
+	/**
+	 * Runs the tests.
+	 */
+	public static void run()
+	{
+		Check.run("BinaryCodec reads back companies", BinaryCodecTest::readsBackCompanies);
+		Check.run("BinaryCodec reads back products", BinaryCodecTest::readsBackProducts);
+		Check.run("BinaryCodec reads back users", BinaryCodecTest::readsBackUsers);
+		Check.run("BinaryCodec reads back warehouses", BinaryCodecTest::readsBackWarehouses);
+		Check.run("BinaryCodec accepts only binary files", BinaryCodecTest::acceptsOnlyBinaryFiles);
+		Check.run("BinaryCodec rejects other types and truncated files", BinaryCodecTest::rejectsInvalidFiles);
+	}
+
+	/**
+	 * Companies are read back as they were stored.
+	 * @throws IOException
+	 */
+	private static void readsBackCompanies() throws IOException
+	{
+		String file = file("companies");
+		List<Company> companies = Arrays.asList(new Company(NAME, Date.valueOf(1, 2, 2003), Database.COMPANY + 1),
+												new Company("", Date.valueOf(12, 31, 1600), Database.COMPANY + 0xFFFF));
+		new BinaryCodec().companies(companies, file);
+
+		List<Company> read = new BinaryCodec().companies(file);
+		Check.equal(companies.size(), read.size(), "count");
+		for (int i = 0; i < companies.size(); i++)
+		{
+			Check.equal(companies.get(i).getName(), read.get(i).getName(), "name " + i);
+			Check.equal(companies.get(i).getDate(), read.get(i).getDate(), "date " + i);
+			Check.equal(companies.get(i).getId(), read.get(i).getId(), "id " + i);
+		}
+	}
+
+	/**
+	 * Products are read back as they were stored, weights exactly.
+	 * @throws IOException
+	 */
+	private static void readsBackProducts() throws IOException
+	{
+		String file = file("products");
+		List<Product> products = Arrays.asList(
+				new Product(NAME, Database.COMPANY + 1, Database.PRODUCT + 1, 0.1 + 0.2, Date.valueOf(2, 29, 2020)),
+				new Product("Bolt", Database.COMPANY + 2, Database.PRODUCT + 2, 1e-9, Date.valueOf(7, 4, 9999)));
+		new BinaryCodec().products(products, file);
+
+		List<Product> read = new BinaryCodec().products(file);
+		Check.equal(products.size(), read.size(), "count");
+		for (int i = 0; i < products.size(); i++)
+		{
+			Check.equal(products.get(i).getName(), read.get(i).getName(), "name " + i);
+			Check.equal(products.get(i).getCompany(), read.get(i).getCompany(), "company " + i);
+			Check.equal(products.get(i).getWeight(), read.get(i).getWeight(), "weight " + i);
+			Check.equal(products.get(i).getDate(), read.get(i).getDate(), "date " + i);
+			Check.equal(products.get(i).getId(), read.get(i).getId(), "id " + i);
+		}
+	}
+
+	/**
+	 * Users are read back as they were stored.
+	 * @throws IOException
+	 */
+	private static void readsBackUsers() throws IOException
+	{
+		String file = file("users");
+		List<User> users = Arrays.asList(
+				new User(NAME, "Cruz", Date.valueOf(5, 6, 1990), Database.USER + 1, true, "admin", "hash\tof\npassword"),
+				new User("Ana", NAME, Date.valueOf(1, 1, 2000), Database.USER + 2, false, "ana", ""));
+		new BinaryCodec().users(users, file);
+
+		List<User> read = new BinaryCodec().users(file);
+		Check.equal(users.size(), read.size(), "count");
+		for (int i = 0; i < users.size(); i++)
+		{
+			Check.equal(users.get(i).getFirstName(), read.get(i).getFirstName(), "first name " + i);
+			Check.equal(users.get(i).getLastName(), read.get(i).getLastName(), "last name " + i);
+			Check.equal(users.get(i).getBirthday(), read.get(i).getBirthday(), "birthday " + i);
+			Check.equal(users.get(i).getId(), read.get(i).getId(), "id " + i);
+			Check.equal(users.get(i).isAdministrator(), read.get(i).isAdministrator(), "administrator " + i);
+			Check.equal(users.get(i).getUsername(), read.get(i).getUsername(), "username " + i);
+			Check.equal(users.get(i).getPassword(), read.get(i).getPassword(), "password " + i);
+		}
+	}
+
+	/**
+	 * Warehouses are read back with their stock, more than a buffer of it.
+	 * @throws IOException
+	 */
+	private static void readsBackWarehouses() throws IOException
+	{
+		String file = file("warehouses");
+		Warehouse empty = new Warehouse(NAME, 10, Date.valueOf(3, 3, 2003), Database.WAREHOUSE + 1);
+		Warehouse full = new Warehouse("Full", 1000000, Date.valueOf(4, 4, 2004), Database.WAREHOUSE + 2);
+		for (int product = 1; product <= 20000; product++)
+			full.add(Database.PRODUCT + product, product % 50);
+		List<Warehouse> warehouses = Arrays.asList(empty, full);
+		new BinaryCodec().warehouses(warehouses, file);
+
+		List<Warehouse> read = new BinaryCodec().warehouses(file);
+		Check.equal(warehouses.size(), read.size(), "count");
+		for (int i = 0; i < warehouses.size(); i++)
+		{
+			Warehouse expected = warehouses.get(i), actual = read.get(i);
+			Check.equal(expected.getName(), actual.getName(), "name " + i);
+			Check.equal(expected.getCapacity(), actual.getCapacity(), "capacity " + i);
+			Check.equal(expected.getDate(), actual.getDate(), "date " + i);
+			Check.equal(expected.getId(), actual.getId(), "id " + i);
+			Check.equal(expected.getQuantity(), actual.getQuantity(), "quantity " + i);
+			Check.equal(expected.getProductCount(), actual.getProductCount(), "product count " + i);
+			for (int product : expected.getProductIds())
+				Check.equal(expected.getProductQuantity(product), actual.getProductQuantity(product),
+							"quantity of " + product + " in " + i);
+		}
+	}
+
+	/**
+	 * Only files starting with the binary header are accepted.
+	 * @throws IOException
+	 */
+	private static void acceptsOnlyBinaryFiles() throws IOException
+	{
+		String binary = file("accepted");
+		new BinaryCodec().companies(Arrays.asList(new Company("A", Date.today(), Database.COMPANY + 1)), binary);
+		Check.isTrue(new BinaryCodec().accepts(binary), "binary file");
+
+		String text = file("text");
+		try (FileWriter writer = new FileWriter(text))
+		{
+			writer.write("A\n01/01/2020\n16777217\n");
+		}
+		Check.isTrue(!new BinaryCodec().accepts(text), "text file");
+		Check.isTrue(!new BinaryCodec().accepts(file("missing")), "missing file");
+	}
+
+	/**
+	 * Reading a file of another type, or a file cut short, fails
+	 * instead of returning wrong data.
+	 * @throws IOException
+	 */
+	private static void rejectsInvalidFiles() throws IOException
+	{
+		String file = file("invalid");
+		new BinaryCodec().companies(Arrays.asList(new Company(NAME, Date.today(), Database.COMPANY + 1),
+												  new Company(NAME, Date.today(), Database.COMPANY + 2)), file);
+		Check.fails(IOException.class, () -> new BinaryCodec().products(file), "read as products");
+
+		try (RandomAccessFile raf = new RandomAccessFile(file, "rw"))
+		{
+			raf.setLength(raf.length() - 3);
+		}
+		Check.fails(IOException.class, () -> new BinaryCodec().companies(file), "truncated file");
+	}
+
+	/**
+	 * Gets the name of a new file in a temporary directory.
+	 * @param name - name of the file
+	 * @return the file name
+	 * @throws IOException
+	 */
+	private static String file(String name) throws IOException
+	{
+		File directory = Check.temporaryDirectory("logistics-codec");
+		directory.deleteOnExit();
+		File file = new File(directory, name);
+		file.deleteOnExit();
+		return file.getPath();
+	}
+}
@@ -0,0 +1,288 @@
+package io;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.List;
+
+import model.Company;
+import model.Data;
+import model.Database;
+import model.Date;
+import model.Product;
+import model.User;
+import model.Warehouse;
+import test.Check;
+
+/**
+ * Tests of the journal of changes: reading back every kind of entry,
+ * ignoring torn tails and uncommitted batches, and replaying it when
+ * the database is loaded.
+ *
+ * @author Manuel Cruz
+ * @version 1.0
+ */
+public final class JournalTest
+{
+	/** Name with the characters the journal escapes */
+	private final static String NAME = "Tab\there\nnew line\r\\ back\\t";
+
+	/**
+	 * Not instantiable.
+	 */
+	private JournalTest()
+	{
+		super();
+	}
+
+	/**
+	 * Runs the tests. The replay must run before the database is loaded.
+	 */
+	public static void run()
+	{
+		Check.run("Journal reads back every entry", JournalTest::readsBackEveryEntry);
+		Check.run("Journal reads back inserted data", JournalTest::readsBackInsertedData);
+		Check.run("Journal ignores a torn last line", JournalTest::ignoresTornLastLine);
+		Check.run("Journal keeps only committed batches", JournalTest::keepsOnlyCommittedBatches);
+		Check.run("Journal is empty once cleared", JournalTest::isEmptyOnceCleared);
+		Check.run("Journal is replayed when the database is loaded", JournalTest::replaysOnLoad);
+	}
+
+	/**
+	 * Deletes, updates of every kind of value and stock changes are
+	 * read back in the order they were appended.
+	 * @throws IOException
+	 */
+	private static void readsBackEveryEntry() throws IOException
+	{
+		Journal journal = new Journal(file());
+		journal.delete(Database.PRODUCT + 1);
+		journal.update(Database.PRODUCT + 2, Product.PRODUCT_NAME, NAME);
+		journal.update(Database.PRODUCT + 2, Product.PRODUCT_ID, Database.PRODUCT + 3);
+		journal.update(Database.PRODUCT + 3, Product.PRODUCT_WEIGHT, 0.1 + 0.2);
+		journal.update(Database.USER + 1, 0, true);
+		journal.update(Database.COMPANY + 1, Company.COMPANY_DATE, Date.valueOf(2, 29, 2020));
+		journal.stock(Database.WAREHOUSE + 1, Database.PRODUCT + 3, 7);
+		journal.stock(Database.WAREHOUSE + 1, Database.PRODUCT + 4, -1);
+
+		List<JournalEntry> entries = journal.read();
+		Check.equal(8, entries.size(), "entries");
+
+		check(entries.get(0), JournalEntry.DELETE, Database.PRODUCT + 1);
+		check(entries.get(1), JournalEntry.UPDATE, Database.PRODUCT + 2);
+		Check.equal(Product.PRODUCT_NAME, entries.get(1).getType(), "type of name");
+		Check.equal(NAME, entries.get(1).getChange(), "escaped name");
+		Check.equal(Database.PRODUCT + 3, entries.get(2).getChange(), "id");
+		Check.equal(0.1 + 0.2, entries.get(3).getChange(), "weight");
+		Check.equal(Boolean.TRUE, entries.get(4).getChange(), "boolean");
+		Check.equal(Date.valueOf(2, 29, 2020), entries.get(5).getChange(), "date");
+
+		check(entries.get(6), JournalEntry.STOCK, Database.WAREHOUSE + 1);
+		Check.equal(Database.PRODUCT + 3, entries.get(6).getProduct(), "stocked product");
+		Check.equal(7, entries.get(6).getQuantity(), "stocked quantity");
+		Check.equal(-1, entries.get(7).getQuantity(), "no longer stored");
+
+		Check.fails(IOException.class, () -> journal.update(1, 0, new Object()), "invalid change");
+	}
+
+	/**
+	 * Every kind of data is read back from its insert.
+	 * @throws IOException
+	 */
+	private static void readsBackInsertedData() throws IOException
+	{
+		Warehouse warehouse = new Warehouse(NAME, 100, Date.valueOf(1, 1, 2001), Database.WAREHOUSE + 1);
+		warehouse.add(Database.PRODUCT + 1, 10);
+		warehouse.add(Database.PRODUCT + 2, 0);
+
+		Journal journal = new Journal(file());
+		journal.insert(new Company(NAME, Date.valueOf(1, 2, 2003), Database.COMPANY + 1));
+		journal.insert(new Product(NAME, Database.COMPANY + 1, Database.PRODUCT + 1, 2.5, Date.valueOf(3, 4, 2005)));
+		journal.insert(new User("First", NAME, Date.valueOf(5, 6, 1990), Database.USER + 1, true, "user", "hash"));
+		journal.insert(warehouse);
+
+		List<JournalEntry> entries = journal.read();
+		Check.equal(4, entries.size(), "entries");
+		for (JournalEntry entry : entries)
+			check(entry, JournalEntry.INSERT, entry.getData().getId());
+
+		Company company = (Company) entries.get(0).getData();
+		Check.equal(NAME, company.getName(), "company name");
+		Check.equal(Date.valueOf(1, 2, 2003), company.getDate(), "company date");
+
+		Product product = (Product) entries.get(1).getData();
+		Check.equal(NAME, product.getName(), "product name");
+		Check.equal(Database.COMPANY + 1, product.getCompany(), "product company");
+		Check.equal(2.5, product.getWeight(), "product weight");
+		Check.equal(Database.PRODUCT + 1, product.getId(), "product id");
+
+		User user = (User) entries.get(2).getData();
+		Check.equal(NAME, user.getLastName(), "user last name");
+		Check.isTrue(user.isAdministrator(), "user administrator");
+		Check.equal("hash", user.getPassword(), "user password");
+
+		Warehouse read = (Warehouse) entries.get(3).getData();
+		Check.equal(NAME, read.getName(), "warehouse name");
+		Check.equal(100, read.getCapacity(), "warehouse capacity");
+		Check.equal(2, read.getProductCount(), "warehouse products");
+		Check.equal(10, read.getProductQuantity(Database.PRODUCT + 1), "warehouse quantity");
+		Check.isTrue(read.contains(Database.PRODUCT + 2), "warehouse product without quantity");
+	}
+
+	/**
+	 * A last line cut short by a crash is ignored wherever it was cut,
+	 * even right after an escape, and the lines before it are kept.
+	 * @throws IOException
+	 */
+	private static void ignoresTornLastLine() throws IOException
+	{
+		String file = file();
+		Journal journal = new Journal(file);
+		journal.delete(Database.PRODUCT + 1);
+		long first = new File(file).length();
+		journal.update(Database.PRODUCT + 2, Product.PRODUCT_NAME, NAME);
+
+		// cut the last line at every length, its end of line included
+		for (long length = new File(file).length() - 1; length > first; length--)
+		{
+			try (RandomAccessFile raf = new RandomAccessFile(file, "rw"))
+			{
+				raf.setLength(length);
+			}
+
+			List<JournalEntry> entries = new Journal(file).read();
+			Check.equal(1, entries.size(), "entries cut at " + length);
+			check(entries.get(0), JournalEntry.DELETE, Database.PRODUCT + 1);
+		}
+	}
+
+	/**
+	 * The changes of a batch are kept once it is committed. A batch torn
+	 * before its commit line, or never committed, is ignored whole.
+	 * @throws IOException
+	 */
+	private static void keepsOnlyCommittedBatches() throws IOException
+	{
+		String file = file();
+		Journal journal = new Journal(file);
+		journal.begin();
+		journal.delete(Database.PRODUCT + 1);
+		journal.stock(Database.WAREHOUSE + 1, Database.PRODUCT + 2, 5);
+		journal.commit();
+
+		List<JournalEntry> entries = new Journal(file).read();
+		Check.equal(2, entries.size(), "committed batch");
+
+		// a crash after the changes of a batch but before its commit line
+		long committed = new File(file).length();
+		journal.begin();
+		journal.delete(Database.PRODUCT + 3);
+		journal.delete(Database.PRODUCT + 4);
+		journal.commit();
+		try (RandomAccessFile raf = new RandomAccessFile(file, "rw"))
+		{
+			raf.setLength(raf.length() - 2);
+		}
+		Check.equal(2, new Journal(file).read().size(), "batch without its commit line");
+
+		try (RandomAccessFile raf = new RandomAccessFile(file, "rw"))
+		{
+			raf.setLength(committed);
+		}
+		try (FileWriter writer = new FileWriter(file, true))
+		{
+			writer.write("B\nD\t" + (Database.PRODUCT + 5) + "\n");
+		}
+		Check.equal(2, new Journal(file).read().size(), "batch never committed");
+	}
+
+	/**
+	 * A cleared journal has no entries and its size is 0.
+	 * @throws IOException
+	 */
+	private static void isEmptyOnceCleared() throws IOException
+	{
+		String file = file();
+		Journal journal = new Journal(file);
+		journal.delete(Database.PRODUCT + 1);
+		Check.isTrue(journal.size() > 0, "size before clear");
+		Check.equal(journal.size(), new Journal(file).size(), "size of the file");
+
+		journal.clear();
+		Check.equal(0L, journal.size(), "size after clear");
+		Check.isTrue(journal.read().isEmpty(), "entries after clear");
+
+		journal.delete(Database.PRODUCT + 2);
+		Check.equal(1, journal.read().size(), "entries after appending again");
+	}
+
+	/**
+	 * The changes of the journal are applied on top of the stored data
+	 * when the database is loaded, except the ones of a torn tail.
+	 * @throws IOException
+	 */
+	private static void replaysOnLoad() throws IOException
+	{
+		Check.isTrue(!Database.getInstance().isReady(), "database not loaded yet");
+
+		DataGenerator generator = new DataGenerator(5, 20, 2, 3);
+		generator.setStock(5);
+		generator.generate();
+
+		Journal journal = new Journal(IO.JOURNAL_FILE);
+		journal.insert(new Company(NAME, Date.valueOf(1, 1, 2001), Database.COMPANY + 100));
+		journal.update(Database.PRODUCT + 2, Product.PRODUCT_NAME, NAME);
+		journal.update(Database.PRODUCT + 3, Product.PRODUCT_ID, Database.PRODUCT + 300);
+		journal.delete(Database.PRODUCT + 4);
+		journal.stock(Database.WAREHOUSE + 1, Database.PRODUCT + 5, 3);
+		journal.delete(Database.PRODUCT + 6);
+
+		try (RandomAccessFile raf = new RandomAccessFile(IO.JOURNAL_FILE, "rw"))
+		{
+			raf.setLength(raf.length() - 1);
+		}
+
+		Database database = Database.getInstance();
+		database.run();
+		Check.isTrue(database.isReady(), "database loaded");
+
+		Data company = database.select(Database.COMPANY + 100);
+		Check.isTrue(company instanceof Company, "inserted company");
+		Check.equal(NAME, ((Company) company).getName(), "inserted company name");
+		Check.equal(NAME, ((Product) database.select(Database.PRODUCT + 2)).getName(), "updated name");
+		Check.equal(null, database.select(Database.PRODUCT + 3), "old id");
+		Check.isTrue(database.select(Database.PRODUCT + 300) instanceof Product, "new id");
+		Check.equal(null, database.select(Database.PRODUCT + 4), "deleted product");
+		Check.equal(3, ((Warehouse) database.select(Database.WAREHOUSE + 1)).getProductQuantity(Database.PRODUCT + 5),
+					"stocked quantity");
+		Check.isTrue(database.select(Database.PRODUCT + 6) instanceof Product, "delete of the torn tail");
+		Check.equal(0L, new File(IO.JOURNAL_FILE).length(), "journal once stored");
+	}
+
+	/**
+	 * Checks the operation and identity of an entry.
+	 * @param entry - entry to check
+	 * @param operation - operation expected
+	 * @param id - identity expected
+	 */
+	private static void check(JournalEntry entry, int operation, int id)
+	{
+		Check.equal(operation, entry.getOperation(), "operation");
+		Check.equal(id, entry.getId(), "identity");
+	}
+
+	/**
+	 * Gets the name of a new journal in a temporary directory.
+	 * @return the file name
+	 * @throws IOException
+	 */
+	private static String file() throws IOException
+	{
+		File directory = Check.temporaryDirectory("logistics-journal");
+		directory.deleteOnExit();
+		File file = new File(directory, "journal.u");
+		file.deleteOnExit();
+		return file.getPath();
+	}
+}
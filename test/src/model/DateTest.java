@@ -0,0 +1,99 @@
+package model;
+
+import test.Check;
+
+/**
+ * Tests of parsing and validating dates.
+ *
+ * @author Manuel Cruz
+ * @version 1.0
+ */
+public final class DateTest
+{
+	/**
+	 * Not instantiable.
+	 */
+	private DateTest()
+	{
+		super();
+	}
+
+	/**
+	 * Runs the tests.
+	 */
+	public static void run()
+	{
+		Check.run("Date parses valid dates", DateTest::parsesValidDates);
+		Check.run("Date rejects invalid dates", DateTest::rejectsInvalidDates);
+		Check.run("Date checks leap years", DateTest::checksLeapYears);
+		Check.run("Date reads back its string", DateTest::readsBackItsString);
+		Check.run("Date shares cached dates", DateTest::sharesCachedDates);
+	}
+
+	/**
+	 * Valid dates are packed as yyyymmdd.
+	 */
+	private static void parsesValidDates()
+	{
+		Check.equal(20200102, Date.parse("01/02/2020"), "padded date");
+		Check.equal(20200102, Date.parse("1/2/2020"), "single digits");
+		Check.equal(19991231, Date.parse("  12/31/1999\t"), "white space around");
+		Check.equal(15820101, Date.parse("1/1/1582"), "first year");
+		Check.equal(99991231, Date.parse("12/31/9999"), "last year");
+		Check.equal(20240615, Date.parse(new StringBuilder("6/15/2024")), "any characters");
+	}
+
+	/**
+	 * Invalid dates are -1.
+	 */
+	private static void rejectsInvalidDates()
+	{
+		String[] invalid = {null, "", "   ", "1/1/20", "1/1/20201", "1//2020", "/1/2020", "1/1/",
+							"13/1/2020", "0/1/2020", "1/0/2020", "4/31/2020", "1/32/2020", "1/1/1581",
+							"001/1/2020", "1/001/2020", "a1/1/2020", "1/1/2020x", "1/1/2020 x",
+							"1-1-2020", "1/ 1/2020", "1/1/2020/"};
+
+		for (String string : invalid)
+		{
+			Check.equal(-1, Date.parse(string), "parse of \"" + string + "\"");
+			Check.isTrue(!Date.validDate(string), "valid date \"" + string + "\"");
+		}
+	}
+
+	/**
+	 * February has 29 days only in leap years.
+	 */
+	private static void checksLeapYears()
+	{
+		Check.equal(20200229, Date.parse("2/29/2020"), "divisible by 4");
+		Check.equal(-1, Date.parse("2/29/2021"), "not divisible by 4");
+		Check.equal(-1, Date.parse("2/29/1900"), "divisible by 100");
+		Check.equal(20000229, Date.parse("2/29/2000"), "divisible by 400");
+		Check.equal(-1, Date.parse("2/30/2020"), "30 days");
+	}
+
+	/**
+	 * The string of a date is parsed back to the same date.
+	 */
+	private static void readsBackItsString()
+	{
+		int[] packed = {15820101, 18991231, 19000101, 20200229, 21991231, 22000101, 99991231};
+		for (int value : packed)
+		{
+			Date date = Date.valueOfPacked(value);
+			Check.equal(value, date.getPacked(), "packed " + value);
+			Check.equal(value, Date.parse(date.toString()), "string " + date);
+			Check.equal(date, Date.valueOf(date.toString()), "date " + date);
+		}
+	}
+
+	/**
+	 * Dates in the cached years are shared, the rest are equal.
+	 */
+	private static void sharesCachedDates()
+	{
+		Check.isTrue(Date.valueOf(3, 4, 2021) == Date.valueOf("3/4/2021"), "cached year");
+		Check.isTrue(Date.valueOfPacked(16000101) != Date.valueOfPacked(16000101), "year before cache");
+		Check.equal(Date.valueOfPacked(16000101), Date.valueOfPacked(16000101), "year before cache");
+	}
+}
@@ -0,0 +1,131 @@
+package model;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import test.Check;
+
+/**
+ * Tests of the hash map keyed by ints.
+ *
+ * @author Manuel Cruz
+ * @version 1.0
+ */
+public final class IntMapTest
+{
+	/** Seed of the random operations */
+	private final static long SEED = 7;
+
+	/**
+	 * Not instantiable.
+	 */
+	private IntMapTest()
+	{
+		super();
+	}
+
+	/**
+	 * Runs the tests.
+	 */
+	public static void run()
+	{
+		Check.run("IntMap puts, gets and removes", IntMapTest::putsGetsAndRemoves);
+		Check.run("IntMap matches a HashMap", IntMapTest::matchesHashMap);
+		Check.run("IntMap keeps colliding keys after removals", IntMapTest::keepsCollidingKeys);
+		Check.run("IntMap moves and clears", IntMapTest::movesAndClears);
+	}
+
+	/**
+	 * Values are replaced and removed by their key.
+	 */
+	private static void putsGetsAndRemoves()
+	{
+		IntMap<String> map = new IntMap<String>();
+		Check.equal(null, map.put(Database.PRODUCT + 1, "one"), "first put");
+		Check.equal("one", map.put(Database.PRODUCT + 1, "uno"), "replacing put");
+		Check.equal("uno", map.get(Database.PRODUCT + 1), "get");
+		Check.isTrue(!map.containsKey(Database.PRODUCT + 2), "missing key");
+		Check.equal(1, map.size(), "size");
+
+		Check.equal("uno", map.remove(Database.PRODUCT + 1), "remove");
+		Check.equal(null, map.remove(Database.PRODUCT + 1), "second remove");
+		Check.equal(0, map.size(), "size after remove");
+
+		Check.fails(IllegalArgumentException.class, () -> map.put(1, null), "null value");
+	}
+
+	/**
+	 * Random puts and removes, growing the map well past its capacity,
+	 * leave the same entries as a HashMap.
+	 */
+	private static void matchesHashMap()
+	{
+		Random random = new Random(SEED);
+		IntMap<Integer> map = new IntMap<Integer>(4);
+		Map<Integer, Integer> expected = new HashMap<Integer, Integer>();
+
+		for (int i = 0; i < 200000; i++)
+		{
+			int key = Database.COMPANY + random.nextInt(0x4000);
+			if (random.nextInt(3) == 0)
+				Check.equal(expected.remove(key), map.remove(key), "remove " + key);
+			else
+				Check.equal(expected.put(key, i), map.put(key, i), "put " + key);
+		}
+
+		Check.equal(expected.size(), map.size(), "size");
+		for (int key = Database.COMPANY; key < Database.COMPANY + 0x4000; key++)
+			Check.equal(expected.get(key), map.get(key), "get " + key);
+
+		int[] keys = map.keys();
+		Arrays.sort(keys);
+		int[] expectedKeys = expected.keySet().stream().mapToInt(Integer::intValue).sorted().toArray();
+		Check.isTrue(Arrays.equals(expectedKeys, keys), "keys");
+	}
+
+	/**
+	 * Removing a key in the middle of a run of colliding keys keeps
+	 * the keys after it reachable.
+	 */
+	private static void keepsCollidingKeys()
+	{
+		// a full small table makes every key part of a single run
+		IntMap<Integer> map = new IntMap<Integer>(64);
+		for (int key = 0; key < 48; key++)
+			map.put(key * 0x10000, key);
+
+		for (int key = 0; key < 48; key += 2)
+			map.remove(key * 0x10000);
+
+		for (int key = 0; key < 48; key++)
+			Check.equal(key % 2 == 0 ? null : Integer.valueOf(key), map.get(key * 0x10000), "get " + key);
+		Check.equal(24, map.size(), "size");
+	}
+
+	/**
+	 * A moved value is found by its new key, a cleared map is empty.
+	 */
+	private static void movesAndClears()
+	{
+		IntMap<String> map = new IntMap<String>();
+		map.put(1, "value");
+		map.move(1, 2);
+		Check.equal(null, map.get(1), "old key");
+		Check.equal("value", map.get(2), "new key");
+
+		map.move(3, 4);
+		Check.equal(null, map.get(4), "move of a missing key");
+		Check.equal(1, map.size(), "size after moves");
+
+		for (int key = 0; key < 100; key++)
+			map.put(key, "value");
+		map.clear();
+		Check.equal(0, map.size(), "size after clear");
+		Check.equal(0, map.keys().length, "keys after clear");
+		Check.equal(null, map.get(2), "get after clear");
+		map.put(5, "again");
+		Check.equal("again", map.get(5), "put after clear");
+	}
+}
@@ -0,0 +1,137 @@
+package model;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeMap;
+
+import test.Check;
+
+/**
+ * Tests of the persistent trie keyed by ints.
+ *
+ * @author Manuel Cruz
+ * @version 1.0
+ */
+public final class IntTrieTest
+{
+	/** Seed of the random operations */
+	private final static long SEED = 11;
+
+	/**
+	 * Not instantiable.
+	 */
+	private IntTrieTest()
+	{
+		super();
+	}
+
+	/**
+	 * Runs the tests.
+	 */
+	public static void run()
+	{
+		Check.run("IntTrie puts, gets and removes", IntTrieTest::putsGetsAndRemoves);
+		Check.run("IntTrie matches a TreeMap", IntTrieTest::matchesTreeMap);
+		Check.run("IntTrie keeps older versions", IntTrieTest::keepsOlderVersions);
+		Check.run("IntTrie returns itself when unchanged", IntTrieTest::returnsItselfWhenUnchanged);
+	}
+
+	/**
+	 * Values are replaced and removed by their key, keys sharing most
+	 * of their bits included.
+	 */
+	private static void putsGetsAndRemoves()
+	{
+		IntTrie<String> trie = IntTrie.empty();
+		trie = trie.put(Database.PRODUCT + 1, "one");
+		trie = trie.put(Database.PRODUCT + 33, "two");
+		trie = trie.put(Database.PRODUCT + 1, "uno");
+		Check.equal(2, trie.size(), "size");
+		Check.equal("uno", trie.get(Database.PRODUCT + 1), "replaced");
+		Check.equal("two", trie.get(Database.PRODUCT + 33), "same bits but the lowest");
+		Check.equal(null, trie.get(Database.PRODUCT + 2), "missing key");
+
+		trie = trie.remove(Database.PRODUCT + 1);
+		Check.equal(1, trie.size(), "size after remove");
+		Check.equal(null, trie.get(Database.PRODUCT + 1), "removed");
+		Check.equal("two", trie.get(Database.PRODUCT + 33), "kept");
+
+		trie = trie.remove(Database.PRODUCT + 33);
+		Check.equal(0, trie.size(), "size when empty");
+		Check.equal(null, trie.get(Database.PRODUCT + 33), "removed last");
+
+		IntTrie<String> empty = IntTrie.empty();
+		Check.fails(IllegalArgumentException.class, () -> empty.put(1, null), "null value");
+	}
+
+	/**
+	 * Random puts and removes leave the same entries as a TreeMap, and
+	 * they are visited in the order of their keys.
+	 */
+	private static void matchesTreeMap()
+	{
+		Random random = new Random(SEED);
+		IntTrie<Integer> trie = IntTrie.empty();
+		TreeMap<Integer, Integer> expected = new TreeMap<Integer, Integer>();
+
+		for (int i = 0; i < 100000; i++)
+		{
+			int key = (random.nextInt(4) + 1) * Database.COMPANY + random.nextInt(0x2000);
+			if (random.nextInt(3) == 0)
+			{
+				expected.remove(key);
+				trie = trie.remove(key);
+			}
+			else
+			{
+				expected.put(key, i);
+				trie = trie.put(key, i);
+			}
+		}
+
+		Check.equal(expected.size(), trie.size(), "size");
+		for (int key : expected.keySet())
+			Check.equal(expected.get(key), trie.get(key), "get " + key);
+
+		List<Integer> visited = new ArrayList<Integer>();
+		trie.forEach(visited::add);
+		Check.equal(new ArrayList<Integer>(expected.values()), visited, "values in the order of their keys");
+	}
+
+	/**
+	 * Changing a trie never changes the tries it was made from.
+	 */
+	private static void keepsOlderVersions()
+	{
+		IntTrie<Integer> first = IntTrie.empty();
+		for (int key = 0; key < 1000; key++)
+			first = first.put(Database.USER + key, key);
+
+		IntTrie<Integer> second = first.put(Database.USER + 5, -5).remove(Database.USER + 6)
+									   .put(Database.USER + 2000, 2000);
+
+		Check.equal(1000, first.size(), "first size");
+		Check.equal(5, first.get(Database.USER + 5), "first replaced key");
+		Check.equal(6, first.get(Database.USER + 6), "first removed key");
+		Check.equal(null, first.get(Database.USER + 2000), "first added key");
+
+		Check.equal(1000, second.size(), "second size");
+		Check.equal(-5, second.get(Database.USER + 5), "second replaced key");
+		Check.equal(null, second.get(Database.USER + 6), "second removed key");
+		Check.equal(2000, second.get(Database.USER + 2000), "second added key");
+	}
+
+	/**
+	 * Putting the value a key already has, or removing a missing key,
+	 * returns the same trie.
+	 */
+	private static void returnsItselfWhenUnchanged()
+	{
+		String value = "value";
+		IntTrie<String> trie = IntTrie.<String>empty().put(1, value).put(2, "other");
+		Check.isTrue(trie.put(1, value) == trie, "put of the same value");
+		Check.isTrue(trie.remove(3) == trie, "remove of a missing key");
+		Check.isTrue(trie.put(1, "changed") != trie, "put of a new value");
+	}
+}
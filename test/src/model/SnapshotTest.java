@@ -0,0 +1,156 @@
+package model;
+
+import io.DataGenerator;
+import test.Check;
+
+/**
+ * Tests of the snapshots of the database: they keep the data as it was,
+ * and share what did not change with the snapshots before them.
+ *
+ * @author Manuel Cruz
+ * @version 1.0
+ */
+public final class SnapshotTest
+{
+	/**
+	 * Not instantiable.
+	 */
+	private SnapshotTest()
+	{
+		super();
+	}
+
+	/**
+	 * Runs the tests. The database is loaded first if no other test did.
+	 */
+	public static void run()
+	{
+		Database database = Database.getInstance();
+		if (!database.isReady())
+		{
+			new DataGenerator(5, 20, 2, 3).generate();
+			database.run();
+		}
+
+		Check.run("Snapshot is reused while nothing changes", SnapshotTest::isReusedWhileNothingChanges);
+		Check.run("Snapshot shares the tables that did not change", SnapshotTest::sharesUnchangedTables);
+		Check.run("Snapshot keeps the data as it was", SnapshotTest::keepsDataAsItWas);
+		Check.run("Snapshot copies warehouses exactly", SnapshotTest::copiesWarehousesExactly);
+	}
+
+	/**
+	 * Two snapshots without a change in between are the same.
+	 */
+	private static void isReusedWhileNothingChanges()
+	{
+		Database database = Database.getInstance();
+		Snapshot first = database.snapshot();
+		Check.isTrue(database.snapshot() == first, "second snapshot");
+	}
+
+	/**
+	 * Changing a product copies the table of the products only.
+	 */
+	private static void sharesUnchangedTables()
+	{
+		Database database = Database.getInstance();
+		int id = anyId(database, Database.PRODUCT);
+		Snapshot before = database.snapshot();
+
+		Check.isTrue(database.update(id, Product.PRODUCT_NAME, "Shared"), "update");
+		Snapshot after = database.snapshot();
+
+		Check.isTrue(after != before, "snapshot after a change");
+		Check.isTrue(after.table(Database.PRODUCT) != before.table(Database.PRODUCT), "products table");
+		for (int type : new int[] {Database.COMPANY, Database.USER, Database.WAREHOUSE})
+			Check.isTrue(after.table(type) == before.table(type), "table of type " + Integer.toHexString(type));
+		Check.isTrue(after.getVersion(Database.PRODUCT) > before.getVersion(Database.PRODUCT), "products version");
+	}
+
+	/**
+	 * Updates, deletes and inserts made after a snapshot are not seen
+	 * through it, and are seen through the next one.
+	 */
+	private static void keepsDataAsItWas()
+	{
+		Database database = Database.getInstance();
+		int updated = anyId(database, Database.PRODUCT);
+		String name = ((Product) database.select(updated)).getName();
+		Snapshot before = database.snapshot();
+		int products = before.size(Database.PRODUCT), companies = before.size(Database.COMPANY);
+
+		Check.isTrue(database.update(updated, Product.PRODUCT_NAME, name + " changed"), "update");
+		int deleted = anyOtherId(database, Database.PRODUCT, updated);
+		Check.isTrue(database.delete(deleted), "delete");
+		int inserted = Database.generateID(Database.COMPANY);
+		Check.isTrue(database.insert(new Company("Inserted", Date.today(), inserted)), "insert");
+		Snapshot after = database.snapshot();
+
+		Check.equal(name, ((Product) before.select(updated)).getName(), "name before");
+		Check.equal(name + " changed", ((Product) after.select(updated)).getName(), "name after");
+		Check.isTrue(before.select(deleted) != null, "deleted before");
+		Check.equal(null, after.select(deleted), "deleted after");
+		Check.equal(null, before.select(inserted), "inserted before");
+		Check.isTrue(after.select(inserted) != null, "inserted after");
+
+		Check.equal(products, before.size(Database.PRODUCT), "products before");
+		Check.equal(products - 1, after.size(Database.PRODUCT), "products after");
+		Check.equal(companies + 1, after.size(Database.COMPANY), "companies after");
+		Check.equal(products - 1, after.selectAll(Database.PRODUCT).size(), "products listed after");
+
+		// the data of a snapshot is a copy, it is not changed with the database
+		Check.isTrue(after.select(updated) != database.select(updated), "copy of the product");
+	}
+
+	/**
+	 * A warehouse is copied with its stock as it is, and changing its
+	 * stock later does not change the copy.
+	 */
+	private static void copiesWarehousesExactly()
+	{
+		Database database = Database.getInstance();
+		int id = anyId(database, Database.WAREHOUSE);
+		Warehouse warehouse = (Warehouse) database.select(id);
+		int product = warehouse.getProductIds()[0];
+		int quantity = warehouse.getProductQuantity(product);
+		database.update(id, Warehouse.WAREHOUSE_NAME, warehouse.getName() + " copied");
+		Snapshot before = database.snapshot();
+
+		Warehouse copy = (Warehouse) before.select(id);
+		Check.equal(warehouse.getCapacity(), copy.getCapacity(), "capacity");
+		Check.equal(warehouse.getQuantity(), copy.getQuantity(), "quantity");
+		Check.equal(warehouse.getProductCount(), copy.getProductCount(), "product count");
+		for (int stored : warehouse.getProductIds())
+			Check.equal(warehouse.getProductQuantity(stored), copy.getProductQuantity(stored), "quantity of " + stored);
+
+		Check.isTrue(database.removeStock(id, product, quantity), "remove stock");
+		Check.equal(quantity, ((Warehouse) before.select(id)).getProductQuantity(product), "quantity before");
+		Check.isTrue(!((Warehouse) database.snapshot().select(id)).contains(product), "stored after");
+	}
+
+	/**
+	 * Gets the identity of any data of a type.
+	 * @param database - database to look in
+	 * @param type - type of data
+	 * @return the identity
+	 */
+	private static int anyId(Database database, int type)
+	{
+		return anyOtherId(database, type, 0);
+	}
+
+	/**
+	 * Gets the identity of any data of a type but one.
+	 * @param database - database to look in
+	 * @param type - type of data
+	 * @param other - identity not to get
+	 * @return the identity
+	 */
+	private static int anyOtherId(Database database, int type, int other)
+	{
+		for (Data data : database.selectAll(type))
+			if (data.getId() != other)
+				return data.getId();
+		throw new AssertionError("no data of type " + Integer.toHexString(type));
+	}
+}
@@ -0,0 +1,150 @@
+package test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Objects;
+
+/**
+ * Checks used by the tests. A failed check throws an AssertionError that
+ * fails the test running it, the rest of the tests still run.
+ *
+ * @author Manuel Cruz
+ * @version 1.0
+ */
+public final class Check
+{
+	/** Number of tests passed */
+	private static int passed;
+
+	/** Number of tests failed */
+	private static int failed;
+
+	/**
+	 * Not instantiable.
+	 */
+	private Check()
+	{
+		super();
+	}
+
+	/**
+	 * Runs a test and records whether it passed.
+	 * @param name - name of the test
+	 * @param test - the test
+	 */
+	public static void run(String name, Test test)
+	{
+		try
+		{
+			test.run();
+			passed++;
+			System.out.println("PASS " + name);
+		}
+		catch (Throwable throwable)
+		{
+			failed++;
+			System.out.println("FAIL " + name + " - " + throwable);
+			throwable.printStackTrace();
+		}
+	}
+
+	/**
+	 * Checks that a condition holds.
+	 * @param condition - condition to check
+	 * @param message - description of the condition
+	 */
+	public static void isTrue(boolean condition, String message)
+	{
+		if (!condition)
+			throw new AssertionError(message);
+	}
+
+	/**
+	 * Checks that two values are equal.
+	 * @param expected - value expected
+	 * @param actual - value found
+	 * @param message - description of the value
+	 */
+	public static void equal(Object expected, Object actual, String message)
+	{
+		if (!Objects.equals(expected, actual))
+			throw new AssertionError(message + " - expected " + expected + " but was " + actual);
+	}
+
+	/**
+	 * Checks that an action throws an exception of a type.
+	 * @param type - type of exception expected
+	 * @param action - action that must throw it
+	 * @param message - description of the action
+	 */
+	public static void fails(Class<? extends Throwable> type, Test action, String message)
+	{
+		try
+		{
+			action.run();
+		}
+		catch (Throwable throwable)
+		{
+			if (type.isInstance(throwable))
+				return;
+			throw new AssertionError(message + " - threw " + throwable);
+		}
+		throw new AssertionError(message + " - did not throw " + type.getSimpleName());
+	}
+
+	/**
+	 * Makes a new temporary directory.
+	 * @param prefix - prefix of its name
+	 * @return the directory
+	 * @throws IOException
+	 */
+	public static File temporaryDirectory(String prefix) throws IOException
+	{
+		return Files.createTempDirectory(prefix).toFile();
+	}
+
+	/**
+	 * Deletes a file, or a directory with everything in it.
+	 * @param file - file to delete
+	 */
+	public static void delete(File file)
+	{
+		File[] files = file.listFiles();
+		if (files != null)
+			for (File child : files)
+				delete(child);
+		file.delete();
+	}
+
+	/**
+	 * Gets the number of tests passed.
+	 * @return tests passed
+	 */
+	public static int getPassed()
+	{
+		return passed;
+	}
+
+	/**
+	 * Gets the number of tests failed.
+	 * @return tests failed
+	 */
+	public static int getFailed()
+	{
+		return failed;
+	}
+
+	/**
+	 * A test, or an action of a test, that may throw.
+	 */
+	@FunctionalInterface
+	public interface Test
+	{
+		/**
+		 * Runs the test.
+		 * @throws Exception
+		 */
+		public void run() throws Exception;
+	}
+}
@@ -0,0 +1,53 @@
+package test;
+
+import java.io.File;
+import java.io.IOException;
+
+import io.BinaryCodecTest;
+import io.JournalTest;
+import model.DateTest;
+import model.IntMapTest;
+import model.IntTrieTest;
+import model.SnapshotTest;
+
+/**
+ * Runs every test. The data directory is pointed to a new temporary
+ * directory first, so the tests never touch the data of the app. The
+ * exit status is 1 if any test failed.
+ *
+ * @author Manuel Cruz
+ * @version 1.0
+ */
+public final class Tests
+{
+	/**
+	 * Not instantiable.
+	 */
+	private Tests()
+	{
+		super();
+	}
+
+	/**
+	 * Runs the tests.
+	 * @param args - not used
+	 * @throws IOException
+	 */
+	public static void main(String[] args) throws IOException
+	{
+		// must be set before the IO is first used
+		File data = Check.temporaryDirectory("logistics-test");
+		System.setProperty("logistics.data", data.getPath());
+
+		DateTest.run();
+		IntMapTest.run();
+		IntTrieTest.run();
+		BinaryCodecTest.run();
+		JournalTest.run();
+		SnapshotTest.run();
+		Check.delete(data);
+
+		System.out.println(Check.getPassed() + " passed, " + Check.getFailed() + " failed");
+		System.exit(Check.getFailed() == 0 ? 0 : 1);
+	}
+}